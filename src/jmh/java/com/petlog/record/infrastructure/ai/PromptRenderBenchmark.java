@@ -0,0 +1,86 @@
+package com.petlog.record.infrastructure.ai;
+
+import com.petlog.record.dto.response.AiDiaryResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.ai.chat.prompt.PromptTemplate;
+import org.springframework.ai.converter.BeanOutputConverter;
+import org.springframework.core.io.ClassPathResource;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 프롬프트 렌더링 비교: PromptRegistry(컴파일된 원형 복사) vs 호출마다 파일을 읽어 PromptTemplate 생성
+ *
+ * WHY 필요?
+ * - 레지스트리 도입 근거(호출마다 반복되던 템플릿 읽기/파싱/컴파일 제거)를 수치로 확인
+ * - 주간 요약(recap-map, 변수 있음)과 미리보기 시스템 프롬프트(diary-system, 변수 없음)를 함께 측정
+ * - 출력 변환기도 타입별 캐시와 호출마다 생성(JSON 스키마 리플렉션)을 비교
+ *
+ * 실행: ./gradlew jmh (결과는 build/results/jmh/results.json)
+ *
+ * @author diary-team
+ * @since 2026-01-05
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PromptRenderBenchmark {
+
+    private static final String RECAP_TEMPLATE = "recap-map";
+    private static final String SYSTEM_TEMPLATE = "diary-system";
+
+    private PromptRegistry registry;
+    private Map<String, Object> variables;
+
+    @Setup
+    public void setUp() {
+        registry = new PromptRegistry();
+        registry.setLocation("classpath*:prompts/");
+        registry.init();
+
+        variables = Map.of(
+                "petName", "초코",
+                "weekStart", "2026-01-05",
+                "weekEnd", "2026-01-11",
+                "diaries", "- 2026-01-05: 한강 공원 산책, 다른 강아지와 처음으로 인사함\n".repeat(7));
+    }
+
+    @Benchmark
+    public String registryRender() {
+        return registry.render(RECAP_TEMPLATE, variables);
+    }
+
+    // 레지스트리 도입 전 방식 (매 호출 리소스 읽기 + 템플릿 컴파일)
+    @Benchmark
+    public String rebuildPerCall() {
+        return new PromptTemplate(new ClassPathResource("prompts/" + RECAP_TEMPLATE + ".st")).render(variables);
+    }
+
+    @Benchmark
+    public String systemRegistryRender() {
+        return registry.render(SYSTEM_TEMPLATE);
+    }
+
+    @Benchmark
+    public String systemRebuildPerCall() {
+        return new PromptTemplate(new ClassPathResource("prompts/" + SYSTEM_TEMPLATE + ".st")).render();
+    }
+
+    // 미리보기 요청마다 쓰는 형식 문자열 기준으로 비교
+    @Benchmark
+    public String registryConverter() {
+        return registry.converter(AiDiaryResponse.class).getFormat();
+    }
+
+    @Benchmark
+    public String newConverterPerCall() {
+        return new BeanOutputConverter<>(AiDiaryResponse.class).getFormat();
+    }
+}
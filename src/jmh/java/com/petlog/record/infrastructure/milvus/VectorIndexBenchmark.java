@@ -0,0 +1,299 @@
+package com.petlog.record.infrastructure.milvus;
+
+import io.milvus.client.MilvusClient;
+import io.milvus.client.MilvusServiceClient;
+import io.milvus.common.clientenum.ConsistencyLevelEnum;
+import io.milvus.grpc.DataType;
+import io.milvus.grpc.GetQuerySegmentInfoResponse;
+import io.milvus.grpc.QuerySegmentInfo;
+import io.milvus.grpc.SearchResults;
+import io.milvus.param.ConnectParam;
+import io.milvus.param.MetricType;
+import io.milvus.param.R;
+import io.milvus.param.collection.CreateCollectionParam;
+import io.milvus.param.collection.DropCollectionParam;
+import io.milvus.param.collection.FieldType;
+import io.milvus.param.collection.FlushParam;
+import io.milvus.param.collection.LoadCollectionParam;
+import io.milvus.param.collection.ReleaseCollectionParam;
+import io.milvus.param.control.GetQuerySegmentInfoParam;
+import io.milvus.param.dml.InsertParam;
+import io.milvus.param.dml.SearchParam;
+import io.milvus.param.index.CreateIndexParam;
+import io.milvus.param.index.DropIndexParam;
+import io.milvus.response.SearchResultsWrapper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * 벡터 인덱스 프로파일별 recall@k / 검색 지연 시간 비교 (로컬 Milvus 대상 독립 실행)
+ *
+ * WHY 필요?
+ * - diary.vector.index.profile 을 바꾸기 전에 같은 데이터로 정확도와 지연 시간을 비교할 근거가 필요
+ * - 임시 컬렉션에 무작위 단위 벡터를 넣고, 정답(top-k)은 전수 내적으로 계산한 뒤 프로파일마다 인덱스를 만들어 측정
+ * - 메모리는 로드 후 QueryNode 가 보고한 세그먼트 mem_size 합계 (인덱스 + 스칼라 필드, 프로세스 RSS 는 아님)
+ *
+ * 실행: ./gradlew vectorIndexBenchmark --args="host=localhost rows=100000 dim=1536 queries=200 topK=10"
+ * 인덱스 파라미터 기본값은 application.yaml 의 diary.vector.index 와 같으며 같은 키 이름으로 바꿀 수 있습니다.
+ * (예: nlist=1024 nprobe=32 ef=128, pq-m 은 dim 의 약수) 측정이 끝나면 임시 컬렉션은 삭제합니다.
+ *
+ * @author diary-team
+ * @since 2026-01-05
+ */
+public final class VectorIndexBenchmark {
+
+    private static final String ID_FIELD = "id";
+    private static final String EMBEDDING_FIELD = "embedding";
+    private static final String INDEX_NAME = "embedding_bench_idx";
+    private static final int INSERT_BATCH = 5000;
+    private static final int WARMUP_QUERIES = 20;
+
+    private final Map<String, String> options;
+    private final MilvusClient client;
+    private final String collection = "index_bench_" + System.currentTimeMillis();
+    private final int dim;
+    private final int topK;
+
+    private VectorIndexBenchmark(Map<String, String> options) {
+        this.options = options;
+        this.dim = intOption("dim", 1536);
+        this.topK = intOption("topK", 10);
+        this.client = new MilvusServiceClient(ConnectParam.newBuilder()
+                .withHost(options.getOrDefault("host", "localhost"))
+                .withPort(intOption("port", 19530))
+                .build());
+    }
+
+    public static void main(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            String[] pair = arg.split("=", 2);
+            if (pair.length == 2) {
+                options.put(pair[0], pair[1]);
+            }
+        }
+        VectorIndexBenchmark benchmark = new VectorIndexBenchmark(options);
+        try {
+            benchmark.run();
+        } finally {
+            benchmark.close();
+        }
+    }
+
+    private void run() {
+        int rows = intOption("rows", 100_000);
+        int queryCount = intOption("queries", 200);
+        Random random = new Random(intOption("seed", 42));
+
+        createCollection();
+        float[][] data = new float[rows][];
+        for (int from = 0; from < rows; from += INSERT_BATCH) {
+            int to = Math.min(from + INSERT_BATCH, rows);
+            List<Long> ids = new ArrayList<>(to - from);
+            List<List<Float>> vectors = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) {
+                data[i] = randomUnitVector(random);
+                ids.add((long) i);
+                vectors.add(toFloatList(data[i]));
+            }
+            check(client.insert(InsertParam.newBuilder()
+                    .withCollectionName(collection)
+                    .withFields(List.of(new InsertParam.Field(ID_FIELD, ids), new InsertParam.Field(EMBEDDING_FIELD, vectors)))
+                    .build()), "insert");
+        }
+        check(client.flush(FlushParam.newBuilder().addCollectionName(collection).build()), "flush");
+
+        float[][] queries = new float[queryCount][];
+        List<Set<Long>> truth = new ArrayList<>(queryCount);
+        for (int q = 0; q < queryCount; q++) {
+            queries[q] = randomUnitVector(random);
+            truth.add(exactTopK(data, queries[q]));
+        }
+
+        System.out.printf("rows=%d dim=%d queries=%d topK=%d%n", rows, dim, queryCount, topK);
+        System.out.printf("%-10s %10s %12s %10s %10s %10s %10s%n",
+                "profile", "build(ms)", "memory(MB)", "p50(ms)", "p95(ms)", "p99(ms)", "recall@k");
+        for (MilvusIndexProfile profile : profiles()) {
+            measure(profile, queries, truth);
+        }
+    }
+
+    private void measure(MilvusIndexProfile profile, float[][] queries, List<Set<Long>> truth) {
+        long buildBegin = System.nanoTime();
+        check(client.createIndex(CreateIndexParam.newBuilder()
+                .withCollectionName(collection)
+                .withFieldName(EMBEDDING_FIELD)
+                .withIndexName(INDEX_NAME)
+                .withIndexType(profile.indexType())
+                .withMetricType(MetricType.COSINE)
+                .withExtraParam(buildParams(profile))
+                .withSyncMode(Boolean.TRUE)
+                .build()), "createIndex");
+        check(client.loadCollection(LoadCollectionParam.newBuilder().withCollectionName(collection).build()), "load");
+        long buildMs = (System.nanoTime() - buildBegin) / 1_000_000;
+        double memoryMb = loadedMemoryBytes() / (1024.0 * 1024.0);
+
+        for (int i = 0; i < Math.min(WARMUP_QUERIES, queries.length); i++) {
+            search(profile, queries[i]);
+        }
+        long[] latencies = new long[queries.length];
+        double recall = 0;
+        for (int q = 0; q < queries.length; q++) {
+            long begin = System.nanoTime();
+            List<Long> hits = search(profile, queries[q]);
+            latencies[q] = System.nanoTime() - begin;
+            recall += hits.stream().filter(truth.get(q)::contains).count() / (double) topK;
+        }
+        Arrays.sort(latencies);
+        System.out.printf("%-10s %10d %12.1f %10.2f %10.2f %10.2f %10.4f%n", profile, buildMs, memoryMb,
+                percentileMs(latencies, 0.50), percentileMs(latencies, 0.95), percentileMs(latencies, 0.99),
+                recall / queries.length);
+
+        check(client.releaseCollection(ReleaseCollectionParam.newBuilder().withCollectionName(collection).build()), "release");
+        check(client.dropIndex(DropIndexParam.newBuilder()
+                .withCollectionName(collection)
+                .withIndexName(INDEX_NAME)
+                .build()), "dropIndex");
+    }
+
+    // 로드된 세그먼트 메모리 합계 (bytes)
+    private long loadedMemoryBytes() {
+        R<GetQuerySegmentInfoResponse> response = client.getQuerySegmentInfo(GetQuerySegmentInfoParam.newBuilder()
+                .withCollectionName(collection)
+                .build());
+        check(response, "getQuerySegmentInfo");
+        return response.getData().getInfosList().stream().mapToLong(QuerySegmentInfo::getMemSize).sum();
+    }
+
+    private List<Long> search(MilvusIndexProfile profile, float[] query) {
+        R<SearchResults> response = client.search(SearchParam.newBuilder()
+                .withCollectionName(collection)
+                .withMetricType(MetricType.COSINE)
+                .withVectorFieldName(EMBEDDING_FIELD)
+                .withVectors(List.of(toFloatList(query)))
+                .withTopK(topK)
+                .withParams(searchParams(profile))
+                .withConsistencyLevel(ConsistencyLevelEnum.STRONG)
+                .build());
+        check(response, "search");
+        return new SearchResultsWrapper(response.getData().getResults()).getIDScore(0).stream()
+                .map(SearchResultsWrapper.IDScore::getLongID)
+                .toList();
+    }
+
+    private void createCollection() {
+        check(client.createCollection(CreateCollectionParam.newBuilder()
+                .withCollectionName(collection)
+                .addFieldType(FieldType.newBuilder()
+                        .withName(ID_FIELD)
+                        .withDataType(DataType.Int64)
+                        .withPrimaryKey(true)
+                        .withAutoID(false)
+                        .build())
+                .addFieldType(FieldType.newBuilder()
+                        .withName(EMBEDDING_FIELD)
+                        .withDataType(DataType.FloatVector)
+                        .withDimension(dim)
+                        .build())
+                .build()), "createCollection");
+    }
+
+    private void close() {
+        try {
+            client.dropCollection(DropCollectionParam.newBuilder().withCollectionName(collection).build());
+        } finally {
+            client.close();
+        }
+    }
+
+    // 정답 top-k (단위 벡터이므로 내적 = 코사인 유사도)
+    private Set<Long> exactTopK(float[][] data, float[] query) {
+        PriorityQueue<double[]> heap = new PriorityQueue<>(topK, (a, b) -> Double.compare(a[0], b[0]));
+        for (int i = 0; i < data.length; i++) {
+            double score = 0;
+            for (int d = 0; d < dim; d++) {
+                score += data[i][d] * query[d];
+            }
+            if (heap.size() < topK) {
+                heap.add(new double[]{score, i});
+            } else if (score > heap.peek()[0]) {
+                heap.poll();
+                heap.add(new double[]{score, i});
+            }
+        }
+        Set<Long> ids = new HashSet<>();
+        heap.forEach(entry -> ids.add((long) entry[1]));
+        return ids;
+    }
+
+    private List<MilvusIndexProfile> profiles() {
+        String selected = options.get("profiles");
+        if (selected == null) {
+            return List.of(MilvusIndexProfile.values());
+        }
+        return Arrays.stream(selected.split(",")).map(String::trim).map(MilvusIndexProfile::valueOf).toList();
+    }
+
+    // MilvusIndexManager 와 같은 파라미터 구성
+    private String buildParams(MilvusIndexProfile profile) {
+        return switch (profile) {
+            case HNSW -> "{\"M\":" + intOption("hnsw-m", 16) + ",\"efConstruction\":" + intOption("ef-construction", 200) + "}";
+            case IVF_PQ -> "{\"nlist\":" + intOption("nlist", 128) + ",\"m\":" + intOption("pq-m", 64)
+                    + ",\"nbits\":" + intOption("pq-nbits", 8) + "}";
+            case IVF_FLAT, IVF_SQ8 -> "{\"nlist\":" + intOption("nlist", 128) + "}";
+        };
+    }
+
+    private String searchParams(MilvusIndexProfile profile) {
+        return switch (profile) {
+            case HNSW -> "{\"ef\":" + Math.max(intOption("ef", 64), topK) + "}";
+            case IVF_FLAT, IVF_SQ8, IVF_PQ -> "{\"nprobe\":" + intOption("nprobe", 16) + "}";
+        };
+    }
+
+    private float[] randomUnitVector(Random random) {
+        float[] vector = new float[dim];
+        double norm = 0;
+        for (int d = 0; d < dim; d++) {
+            vector[d] = (float) random.nextGaussian();
+            norm += vector[d] * vector[d];
+        }
+        float scale = (float) (1 / Math.sqrt(norm));
+        for (int d = 0; d < dim; d++) {
+            vector[d] *= scale;
+        }
+        return vector;
+    }
+
+    private static List<Float> toFloatList(float[] values) {
+        List<Float> list = new ArrayList<>(values.length);
+        for (float value : values) {
+            list.add(value);
+        }
+        return list;
+    }
+
+    private static double percentileMs(long[] sortedNanos, double percentile) {
+        int index = (int) Math.ceil(percentile * sortedNanos.length) - 1;
+        return sortedNanos[Math.max(0, Math.min(index, sortedNanos.length - 1))] / 1_000_000.0;
+    }
+
+    private int intOption(String key, int defaultValue) {
+        String value = options.get(key);
+        return value != null ? Integer.parseInt(value) : defaultValue;
+    }
+
+    private static void check(R<?> response, String operation) {
+        if (response.getStatus() != R.Status.Success.getCode()) {
+            throw new IllegalStateException("Milvus " + operation + " 실패: " + response.getMessage());
+        }
+    }
+}
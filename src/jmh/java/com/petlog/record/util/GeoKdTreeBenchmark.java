@@ -0,0 +1,98 @@
+package com.petlog.record.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 최근접 좌표 탐색 비교: GeoKdTree vs 전체 하버사인 선형 탐색
+ *
+ * WHY 필요?
+ * - ASOS 관측소 카탈로그(AsosStationCatalogue) 최근접 조회를 k-d 트리로 바꾼 근거(선형 O(n) → 평균 O(log n))를 카탈로그 크기별 수치로 확인
+ * - 카탈로그가 작으면 트리 탐색 비용이 선형 탐색보다 클 수 있으므로 교차 지점을 함께 확인
+ *
+ * 좌표는 국내 범위(위도 33~39, 경도 124~131)에서 고정 시드로 생성합니다.
+ * 실행: ./gradlew jmh (결과는 build/results/jmh/results.json)
+ *
+ * @author diary-team
+ * @since 2026-01-05
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class GeoKdTreeBenchmark {
+
+    private static final int QUERY_COUNT = 1024;
+
+    @Param({"100", "1000", "10000", "100000"})
+    private int size;
+
+    private List<Point> points;
+    private GeoKdTree<Point> tree;
+    private double[][] queries;
+    private int next;
+
+    record Point(int id, double lat, double lng) {}
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        points = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            points.add(new Point(i, randomLat(random), randomLng(random)));
+        }
+        tree = new GeoKdTree<>(points, Point::lat, Point::lng);
+
+        queries = new double[QUERY_COUNT][];
+        for (int i = 0; i < QUERY_COUNT; i++) {
+            queries[i] = new double[]{randomLat(random), randomLng(random)};
+        }
+    }
+
+    @Benchmark
+    public Point kdTree() {
+        double[] query = nextQuery();
+        return tree.nearest(query[0], query[1]).item();
+    }
+
+    // 트리 도입 전 방식 (모든 항목의 하버사인 거리 계산)
+    @Benchmark
+    public Point linearScan() {
+        double[] query = nextQuery();
+        Point nearest = null;
+        double min = Double.MAX_VALUE;
+        for (Point point : points) {
+            double distance = GeoKdTree.haversineKm(query[0], query[1], point.lat(), point.lng());
+            if (distance < min) {
+                min = distance;
+                nearest = point;
+            }
+        }
+        return nearest;
+    }
+
+    // 같은 좌표만 반복 조회하면 분기 예측/캐시가 유리해지므로 미리 만든 좌표를 순환
+    private double[] nextQuery() {
+        double[] query = queries[next];
+        next = (next + 1) & (QUERY_COUNT - 1);
+        return query;
+    }
+
+    private static double randomLat(Random random) {
+        return 33 + random.nextDouble() * 6;
+    }
+
+    private static double randomLng(Random random) {
+        return 124 + random.nextDouble() * 7;
+    }
+}
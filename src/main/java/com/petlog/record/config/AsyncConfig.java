@@ -0,0 +1,98 @@
+package com.petlog.record.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * 비동기 실행기 설정
+ *
+ * WHY 필요?
+ * - AI 미리보기에서 사용자/펫 검증, 날씨 조회, 이미지 업로드를 동시에 실행하기 위한 전용 스레드 풀
+ * - 공용 ForkJoinPool 에서 블로킹 원격 호출을 수행하지 않도록 분리
+ * - 월간 리캡 배치는 동시 LLM 호출 수를 제한하는 고정 크기 풀에서 실행
+ * - 리캡 주간 요약(map)은 배치 작업이 대기하는 동안 실행되므로 배치 풀과 분리 (같은 풀이면 교착)
+ * - 미리보기 이미지 전처리(다운로드/축소)는 AI 단계 안에서 대기하므로 미리보기 풀과 분리
+ * - 모델 호출은 경로별 타임아웃 후 다음 경로로 대체하기 위해 별도 풀에서 실행
+ */
+@Configuration
+public class AsyncConfig {
+
+    public static final String AI_PREVIEW_EXECUTOR = "aiPreviewExecutor";
+    public static final String RECAP_BATCH_EXECUTOR = "recapBatchExecutor";
+    public static final String RECAP_MAP_EXECUTOR = "recapMapExecutor";
+    public static final String IMAGE_PREPROCESS_EXECUTOR = "imagePreprocessExecutor";
+    public static final String AI_MODEL_EXECUTOR = "aiModelExecutor";
+
+    @Bean(name = AI_PREVIEW_EXECUTOR)
+    public ThreadPoolTaskExecutor aiPreviewExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(16);
+        executor.setMaxPoolSize(64);
+        executor.setQueueCapacity(200);
+        executor.setThreadNamePrefix("ai-preview-");
+        // 풀이 가득 차면 호출 스레드에서 실행 (순차 실행으로 자연스럽게 감속)
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+
+    @Bean(name = RECAP_BATCH_EXECUTOR)
+    public ThreadPoolTaskExecutor recapBatchExecutor(@Value("${diary.recap.batch.concurrency:8}") int concurrency) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        // 동시 LLM 호출 수 = 스레드 수 (배치 엔진이 페이지 단위로만 제출하므로 큐는 페이지 크기 이내)
+        executor.setCorePoolSize(concurrency);
+        executor.setMaxPoolSize(concurrency);
+        executor.setThreadNamePrefix("recap-batch-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(60);
+        executor.initialize();
+        return executor;
+    }
+
+    @Bean(name = RECAP_MAP_EXECUTOR)
+    public ThreadPoolTaskExecutor recapMapExecutor(@Value("${diary.recap.map-reduce.concurrency:8}") int concurrency) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(concurrency);
+        executor.setMaxPoolSize(concurrency);
+        executor.setThreadNamePrefix("recap-map-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(60);
+        executor.initialize();
+        return executor;
+    }
+
+    @Bean(name = IMAGE_PREPROCESS_EXECUTOR)
+    public ThreadPoolTaskExecutor imagePreprocessExecutor(@Value("${diary.preview.image.concurrency:16}") int concurrency) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(concurrency);
+        executor.setMaxPoolSize(concurrency);
+        executor.setQueueCapacity(500);
+        executor.setThreadNamePrefix("image-prep-");
+        // 풀이 가득 차면 호출 스레드에서 실행
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+
+    @Bean(name = AI_MODEL_EXECUTOR)
+    public ThreadPoolTaskExecutor aiModelExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(16);
+        executor.setMaxPoolSize(64);
+        executor.setQueueCapacity(200);
+        executor.setThreadNamePrefix("ai-model-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+}
@@ -1,14 +1,15 @@
 package com.petlog.record.config;
 
+import com.petlog.record.infrastructure.ai.CachingEmbeddingModel;
+import com.petlog.record.repository.jpa.EmbeddingCacheRepository;
+import io.micrometer.core.instrument.MeterRegistry;
 import io.milvus.client.MilvusServiceClient;
 import io.milvus.param.ConnectParam;
-import io.milvus.param.IndexType;
-import io.milvus.param.MetricType;
 import io.milvus.param.collection.*;
-import io.milvus.param.index.CreateIndexParam;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.embedding.EmbeddingModel;
 import org.springframework.ai.vectorstore.MilvusVectorStore;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -29,6 +30,8 @@ import jakarta.annotation.PostConstruct;
 @Configuration
 public class MilvusVectorStoreConfig {
 
+    public static final String DOCUMENT_EMBEDDING_MODEL = "documentEmbeddingModel";
+
     @Value("${spring.ai.vectorstore.milvus.client.host:localhost}")
     private String milvusHost;
 
@@ -41,6 +44,13 @@ public class MilvusVectorStoreConfig {
     @Value("${spring.ai.vectorstore.milvus.embedding-dimension:1536}")
     private int embeddingDimension;
 
+    @Value("${spring.ai.openai.embedding.options.model:text-embedding-3-small}")
+    private String embeddingModelName;
+
+    // 메모리 임베딩 캐시 항목 수 (1536차원 기준 항목당 약 6KB)
+    @Value("${diary.embedding.cache.max-size:5000}")
+    private long embeddingCacheMaxSize;
+
     /**
      * Milvus Client Bean
      */
@@ -63,6 +73,23 @@ public class MilvusVectorStoreConfig {
         return client;
     }
 
+    /**
+     * 문서 적재용 임베딩 모델 (텍스트 해시 캐시 데코레이터)
+     * 본문이 같으면 저장된 벡터를 재사용 (메타데이터만 바뀐 수정은 임베딩 호출 없이 재적재)
+     *
+     * defaultCandidate = false: 타입만으로는 주입되지 않으므로 기존 EmbeddingModel 주입(검색 질의 등)은 그대로이며,
+     * 필요한 곳에서만 @Qualifier(DOCUMENT_EMBEDDING_MODEL) 로 사용합니다.
+     */
+    @Bean(name = DOCUMENT_EMBEDDING_MODEL, defaultCandidate = false)
+    public CachingEmbeddingModel documentEmbeddingModel(
+            EmbeddingModel embeddingModel,
+            EmbeddingCacheRepository embeddingCacheRepository,
+            MeterRegistry meterRegistry
+    ) {
+        return new CachingEmbeddingModel(
+                embeddingModel, embeddingCacheRepository, meterRegistry, embeddingModelName, embeddingCacheMaxSize);
+    }
+
     /**
      * Spring AI MilvusVectorStore Bean
      *
@@ -72,7 +99,7 @@ public class MilvusVectorStoreConfig {
     @Bean
     public MilvusVectorStore milvusVectorStore(
             MilvusServiceClient milvusClient,
-            EmbeddingModel embeddingModel
+            @Qualifier(DOCUMENT_EMBEDDING_MODEL) EmbeddingModel documentEmbeddingModel
     ) {
         log.info("📦 MilvusVectorStore Bean 생성 중...");
         log.info("   - Collection: {}", collectionName);
@@ -82,7 +109,7 @@ public class MilvusVectorStoreConfig {
         // false = @PostConstruct에서 우리가 직접 초기화
         MilvusVectorStore vectorStore = new MilvusVectorStore(
                 milvusClient,
-                embeddingModel,
+                documentEmbeddingModel,
                 false  // initializeSchema = false
         );
 
@@ -108,11 +135,8 @@ public class MilvusVectorStoreConfig {
             // 2. 컬렉션 생성
             createCollection(client);
 
-            // 3. 인덱스 생성
-            createIndex(client);
-
-            // 4. 컬렉션 로드
-            loadCollection(client);
+            // 3. 인덱스 생성 + 로드는 MilvusIndexManager 가 기동 시 설정된 프로파일로 수행
+            //    (diary.vector.index.profile)
 
             log.info("✅ Milvus 초기화 완료");
 
@@ -150,11 +174,14 @@ public class MilvusVectorStoreConfig {
      */
     private void createCollection(MilvusServiceClient client) {
         // 필드 스키마 정의
+        // 기본 키는 Spring AI MilvusVectorStore 와 같은 doc_id(VarChar) 이며 값은 diaryId 입니다.
+        // (autoID 를 쓰면 수정할 때마다 새 벡터가 쌓이고 삭제할 키를 알 수 없음)
         FieldType idField = FieldType.newBuilder()
-                .withName("id")
-                .withDataType(io.milvus.grpc.DataType.Int64)
+                .withName("doc_id")
+                .withDataType(io.milvus.grpc.DataType.VarChar)
+                .withMaxLength(36)
                 .withPrimaryKey(true)
-                .withAutoID(true)
+                .withAutoID(false)
                 .build();
 
         FieldType contentField = FieldType.newBuilder()
@@ -186,33 +213,4 @@ public class MilvusVectorStoreConfig {
         client.createCollection(param);
         log.info("📝 컬렉션 생성 완료: {}", collectionName);
     }
-
-    /**
-     * 인덱스 생성
-     */
-    private void createIndex(MilvusServiceClient client) {
-        CreateIndexParam param = CreateIndexParam.newBuilder()
-                .withCollectionName(collectionName)
-                .withFieldName("embedding")
-                .withIndexType(IndexType.IVF_FLAT)
-                .withMetricType(MetricType.COSINE)
-                .withExtraParam("{\"nlist\":128}")
-                .withSyncMode(Boolean.TRUE)
-                .build();
-
-        client.createIndex(param);
-        log.info("🔍 인덱스 생성 완료: embedding field");
-    }
-
-    /**
-     * 컬렉션 로드 (메모리에 적재)
-     */
-    private void loadCollection(MilvusServiceClient client) {
-        LoadCollectionParam param = LoadCollectionParam.newBuilder()
-                .withCollectionName(collectionName)
-                .build();
-
-        client.loadCollection(param);
-        log.info("💾 컬렉션 로드 완료: {}", collectionName);
-    }
-}
\ No newline at end of file
+}
@@ -2,20 +2,29 @@ package com.petlog.record.controller;
 
 import com.petlog.record.dto.request.DiaryRequest;
 import com.petlog.record.dto.response.AiDiaryResponse;
+import com.petlog.record.dto.response.DiaryImportResponse;
 import com.petlog.record.dto.response.DiaryResponse;
+import com.petlog.record.dto.response.DiarySearchResponse;
+import com.petlog.record.service.DiaryImportService;
+import com.petlog.record.service.DiarySearchService;
 import com.petlog.record.service.DiaryService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.net.URI;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Tag(name = "Diary API", description = "다이어리 CRUD 및 관리 API")
@@ -25,6 +34,8 @@ import java.util.List;
 public class DiaryController {
 
     private final DiaryService diaryService;
+    private final DiaryImportService diaryImportService;
+    private final DiarySearchService diarySearchService;
 
     @Operation(summary = "AI 일기 미리보기 생성", description = "이미지를 분석하여 AI가 일기 초안을 작성합니다. (위치 정보 기반 날씨 조회 포함)")
     @PostMapping(value = "/ai/preview", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
@@ -37,12 +48,43 @@ public class DiaryController {
             // [NEW] 위치 및 날짜 정보 추가 (required = false로 하여 없는 경우도 대비)
             @RequestPart(value = "latitude", required = false) Double latitude,
             @RequestPart(value = "longitude", required = false) Double longitude,
-            @RequestPart(value = "date", required = false) String date // LocalDate 파싱 필요 시 변환
+            @RequestPart(value = "date", required = false) String date, // LocalDate 파싱 필요 시 변환
+
+            // 재시도 시 AI 호출/이미지 업로드 중복 방지
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey
     ) {
         log.info("AI 일기 미리보기 요청 - UserId: {}, PetId: {}, Lat: {}, Lng: {}", userId, petId, latitude, longitude);
         // 서비스 메서드 호출 시 위치 정보 전달
-        AiDiaryResponse response = diaryService.previewAiDiary(userId, petId, images, imageFiles, latitude, longitude, date);
-        return ResponseEntity.ok(response);
+        AiDiaryResponse response = diaryService.previewAiDiary(userId, petId, images, imageFiles, latitude, longitude, date, idempotencyKey);
+        return ResponseEntity.ok()
+                .header("Server-Timing", toServerTiming(response.getStepLatencies()))
+                .body(response);
+    }
+
+    @Operation(summary = "AI 일기 미리보기 스트리밍 (SSE)",
+            description = "AI가 작성하는 제목(title)/본문(content) 조각을 실시간으로 전송하고, 날씨(weather)/위치(location) 보정 정보와 최종 결과(result)를 이벤트로 보냅니다. 실패 시 error 이벤트를 보냅니다.")
+    @PostMapping(value = "/ai/preview/stream", consumes = MediaType.MULTIPART_FORM_DATA_VALUE, produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter previewAiDiaryStream(
+            @RequestPart(value = "imageFiles", required = false) List<MultipartFile> imageFiles,
+            @RequestPart("userId") Long userId,
+            @RequestPart("petId") Long petId,
+            @RequestPart(value = "images", required = false) List<DiaryRequest.Image> images,
+            @RequestPart(value = "latitude", required = false) Double latitude,
+            @RequestPart(value = "longitude", required = false) Double longitude,
+            @RequestPart(value = "date", required = false) String date
+    ) {
+        log.info("AI 일기 미리보기 스트리밍 요청 - UserId: {}, PetId: {}, Lat: {}, Lng: {}", userId, petId, latitude, longitude);
+        return diaryService.previewAiDiaryStream(userId, petId, images, imageFiles, latitude, longitude, date);
+    }
+
+    // 단계별 소요 시간을 Server-Timing 헤더 형식으로 변환 (예: user;dur=12, ai;dur=5300)
+    private String toServerTiming(Map<String, Long> stepLatencies) {
+        if (stepLatencies == null || stepLatencies.isEmpty()) {
+            return "";
+        }
+        return stepLatencies.entrySet().stream()
+                .map(entry -> entry.getKey() + ";dur=" + entry.getValue())
+                .collect(Collectors.joining(", "));
     }
 
     @Operation(summary = "다이어리 최종 저장", description = "사용자가 수정한 최종 내용을 바탕으로 일기를 DB에 저장합니다.")
@@ -59,6 +101,29 @@ public class DiaryController {
                 .body(diaryId);
     }
 
+    @Operation(summary = "다이어리 일괄 가져오기", description = "다른 서비스에서 옮겨 온 일기를 한 번에 저장합니다. (최대 1000건, 벡터 적재는 백그라운드 처리)")
+    @PostMapping("/import")
+    public ResponseEntity<DiaryImportResponse> importDiaries(
+            @Valid @RequestBody DiaryRequest.BulkImport request
+    ) {
+        log.info("일기 일괄 가져오기 요청 - {}건", request.getDiaries().size());
+
+        return ResponseEntity.ok(diaryImportService.importDiaries(request));
+    }
+
+    @Operation(summary = "다이어리 의미 검색", description = "검색어와 의미가 가까운 일기를 유사도 순으로 조회합니다. (사용자/펫/기간 필터)")
+    @GetMapping("/search")
+    public ResponseEntity<List<DiarySearchResponse>> searchDiaries(
+            @RequestParam Long userId,
+            @RequestParam String query,
+            @RequestParam(required = false) Long petId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "10") int topK
+    ) {
+        return ResponseEntity.ok(diarySearchService.search(userId, query, petId, from, to, topK));
+    }
+
     @Operation(summary = "다이어리 상세 조회", description = "다이어리 ID를 통해 일기의 상세 내용을 조회합니다.")
     @GetMapping("/{diaryId}")
     public ResponseEntity<DiaryResponse> getDiary(@PathVariable Long diaryId) {
@@ -1,5 +1,6 @@
 package com.petlog.record.controller;
 
+import com.petlog.record.dto.response.CursorPageResponse;
 import com.petlog.record.dto.response.DiaryResponse;
 import com.petlog.record.service.DiaryQueryService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -35,4 +36,14 @@ public class DiaryQueryController {
     public ResponseEntity<List<DiaryResponse>> getAiDiaries(@RequestParam Long userId) {
         return ResponseEntity.ok(diaryQueryService.getAiDiaries(userId));
     }
-}
\ No newline at end of file
+
+    // === AI 다이어리 보관함 커서 조회 API ===
+    @Operation(summary = "AI 다이어리 보관함 커서 조회", description = "AI 다이어리를 최신순으로 size 건씩 조회합니다. 응답의 nextCursor 를 다음 요청의 cursor 로 전달하세요.")
+    @GetMapping("/ai-archive/cursor")
+    public ResponseEntity<CursorPageResponse<DiaryResponse>> getAiDiariesByCursor(
+            @RequestParam Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(diaryQueryService.getAiDiaries(userId, cursor, size));
+    }
+}
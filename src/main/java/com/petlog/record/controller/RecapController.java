@@ -1,6 +1,7 @@
 package com.petlog.record.controller;
 
 import com.petlog.record.dto.request.RecapRequest;
+import com.petlog.record.dto.response.CursorPageResponse;
 import com.petlog.record.dto.response.RecapResponse;
 import com.petlog.record.entity.Recap;
 import com.petlog.record.entity.RecapStatus;
@@ -101,4 +102,22 @@ public class RecapController {
     public ResponseEntity<List<RecapResponse.Simple>> getRecapsByPet(@PathVariable Long petId) {
         return ResponseEntity.ok(recapService.getRecapsByPet(petId));
     }
-}
\ No newline at end of file
+
+    @Operation(summary = "사용자별 리캡 커서 조회", description = "리캡을 최신순으로 size 건씩 조회합니다. 응답의 nextCursor 를 다음 요청의 cursor 로 전달하세요.")
+    @GetMapping("/user/{userId}/cursor")
+    public ResponseEntity<CursorPageResponse<RecapResponse.Simple>> getAllRecapsByCursor(
+            @PathVariable Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(recapService.getAllRecaps(userId, cursor, size));
+    }
+
+    @Operation(summary = "펫별 리캡 커서 조회", description = "특정 펫의 리캡을 최신순으로 size 건씩 조회합니다.")
+    @GetMapping("/pet/{petId}/cursor")
+    public ResponseEntity<CursorPageResponse<RecapResponse.Simple>> getRecapsByPetCursor(
+            @PathVariable Long petId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(recapService.getRecapsByPet(petId, cursor, size));
+    }
+}
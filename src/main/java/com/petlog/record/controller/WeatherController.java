@@ -3,8 +3,10 @@ package com.petlog.record.controller;
 import com.petlog.record.service.WeatherService;
 import com.petlog.record.util.LatXLngY;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
@@ -43,4 +45,19 @@ public class WeatherController {
         
         return ResponseEntity.ok(Map.of("weather", weather));
     }
+
+    /**
+     * 과거 날씨 백필 (관측소 + 기간)
+     * 이후 해당 기간의 과거 날씨 조회는 원격 호출 없이 로컬 저장소에서 처리됩니다.
+     * 기간은 external.weather.backfill-max-days 이내여야 합니다.
+     */
+    @PostMapping("/weather/backfill")
+    public ResponseEntity<Map<String, Object>> backfillWeather(
+            @RequestParam int stationId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate start,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate end
+    ) {
+        int saved = weatherService.backfillPastWeather(stationId, start, end);
+        return ResponseEntity.ok(Map.of("stationId", stationId, "saved", saved));
+    }
 }
\ No newline at end of file
@@ -6,7 +6,10 @@ import com.petlog.record.entity.DiaryImage;
 import com.petlog.record.entity.ImageSource;
 import com.petlog.record.entity.Visibility;
 import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 import lombok.*;
 
 import java.time.LocalDate;
@@ -133,6 +136,23 @@ public class DiaryRequest {
         private String mood;
     }
 
+    // [Request] 일기 일괄 가져오기 (다른 앱에서 이전)
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Schema(description = "일기 일괄 가져오기 요청 DTO")
+    public static class BulkImport {
+
+        // 한 요청당 최대 일기 수
+        public static final int MAX_DIARIES = 1000;
+
+        @NotEmpty(message = "가져올 일기가 없습니다.")
+        @Size(max = MAX_DIARIES, message = "한 번에 최대 1000건까지 가져올 수 있습니다.")
+        @Schema(description = "가져올 일기 목록 (일기 생성 요청과 같은 형식)")
+        private List<@Valid Create> diaries;
+    }
+
     // [Inner DTO] 이미지 요청용
     @Data
     @Builder
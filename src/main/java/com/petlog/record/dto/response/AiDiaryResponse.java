@@ -1,4 +1,5 @@
 package com.petlog.record.dto.response;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.*;
 
@@ -47,4 +48,8 @@ public class AiDiaryResponse {
     private List<String> imageUrls; // S3에 업로드된 이미지 경로들
     @JsonProperty("archiveIds")
     private List<Long> archiveIds;   // 생성된 보관함 ID들
+
+    // 단계별 소요 시간(ms) - 응답 본문이 아닌 Server-Timing 헤더로 전달 (AI 출력 스키마에서도 제외)
+    @JsonIgnore
+    private Map<String, Long> stepLatencies;
 }
\ No newline at end of file
@@ -0,0 +1,26 @@
+package com.petlog.record.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "일기 일괄 가져오기 결과 DTO")
+public class DiaryImportResponse {
+
+    @Schema(description = "저장된 일기 수", example = "1200")
+    private int importedCount;
+
+    @Schema(description = "저장된 이미지 수", example = "3400")
+    private int imageCount;
+
+    @Schema(description = "저장된 일기 ID (요청 순서)")
+    private List<Long> diaryIds;
+}
@@ -0,0 +1,21 @@
+package com.petlog.record.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "일기 의미 검색 결과 DTO")
+public class DiarySearchResponse {
+
+    @Schema(description = "유사도 점수 (코사인, 1에 가까울수록 유사)", example = "0.83")
+    private float score;
+
+    @Schema(description = "일기 상세")
+    private DiaryResponse diary;
+}
@@ -0,0 +1,48 @@
+package com.petlog.record.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * 종관기상관측(ASOS) 일자료
+ * 과거 (관측소, 날짜)의 관측값은 변하지 않으므로 한 번 조회한 결과를 영구 저장합니다.
+ */
+@Entity
+@Getter
+@Builder
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@AllArgsConstructor
+@Table(name = "ASOS_DAILY_WEATHER", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_asos_daily_station_date", columnNames = {"station_id", "observed_date"})
+})
+public class AsosDailyWeather {
+
+    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // 관측소 ID (stnId)
+    @Column(nullable = false)
+    private Integer stationId;
+
+    // 관측일 (tm)
+    @Column(nullable = false)
+    private LocalDate observedDate;
+
+    // 서비스에서 사용하는 날씨 표현 (맑음, 구름많음, 흐림, 비)
+    @Column(nullable = false, length = 20)
+    private String weather;
+
+    // 일강수량 (sumRn, mm)
+    private Double sumRn;
+
+    // 평균 전운량 (avgTca, 1/10)
+    private Double avgTca;
+
+    @CreationTimestamp
+    @Column(updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,41 @@
+package com.petlog.record.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * ASOS 일자료 조회 기록 (관측소, 월 단위)
+ * 관측 결측 등으로 API 가 돌려주지 않은 날짜를 매번 다시 조회하지 않도록, 해당 월을 어디까지 받아 봤는지 저장합니다.
+ */
+@Entity
+@Getter
+@Builder
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@AllArgsConstructor
+@Table(name = "ASOS_FETCHED_MONTH", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_asos_fetched_station_month", columnNames = {"station_id", "month_start"})
+})
+public class AsosFetchedMonth {
+
+    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // 관측소 ID (stnId)
+    @Column(nullable = false)
+    private Integer stationId;
+
+    // 대상 월 (1일)
+    @Column(nullable = false)
+    private LocalDate monthStart;
+
+    // 이 날짜까지는 원격 조회를 마침 (응답에 없던 날짜는 결측으로 간주)
+    @Column(nullable = false)
+    private LocalDate fetchedThrough;
+
+    @UpdateTimestamp
+    private LocalDateTime updatedAt;
+}
@@ -2,6 +2,7 @@ package com.petlog.record.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -15,7 +16,12 @@ import java.util.List;
 @Builder // 클래스 레벨로 이동: 모든 필드를 대상으로 빌더 생성 가능
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @AllArgsConstructor // 빌더 패턴 사용 시 전체 생성자가 필요
-@Table(name = "DIARIES")
+@Table(name = "DIARIES", indexes = {
+        // AI 보관함 커서 조회 (user_id, is_ai_gen) + (created_at, diary_id) 정렬
+        @Index(name = "idx_diaries_user_ai_created", columnList = "user_id, is_ai_gen, created_at, diary_id"),
+        // 리캡 기간 조회 (pet_id + date 범위)
+        @Index(name = "idx_diaries_pet_date", columnList = "pet_id, date")
+})
 public class Diary {
 
     // 일기 ID
@@ -75,7 +81,9 @@ public class Diary {
 
     // 일기 이미지 목록
     // @Builder.Default: 빌더로 생성할 때도 이 필드가 null이 아닌 빈 리스트(new ArrayList)로 초기화됨
+    // 엔티티 그래프를 쓰지 않는 목록 조회에서도 IN 절로 묶어 로딩 (N+1 → 1 + N/100)
     @Builder.Default
+    @BatchSize(size = 100)
     @OneToMany(mappedBy = "diary", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<DiaryImage> images = new ArrayList<>();
 
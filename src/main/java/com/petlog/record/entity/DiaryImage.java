@@ -12,7 +12,10 @@ import java.time.LocalDateTime;
 @Builder // 클래스 레벨로 이동: 모든 필드를 빌더에 포함
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @AllArgsConstructor // 추가: 빌더 패턴 사용 시 모든 필드를 받는 생성자가 필요
-@Table(name = "DIARY_IMAGES")
+@Table(name = "DIARY_IMAGES", indexes = {
+        // 일기 → 이미지 조인 (PostgreSQL 은 FK 에 인덱스를 자동 생성하지 않음)
+        @Index(name = "idx_diary_images_diary", columnList = "diary_id")
+})
 public class DiaryImage {
 
     // 이미지 ID
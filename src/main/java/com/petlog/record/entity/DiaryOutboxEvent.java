@@ -0,0 +1,62 @@
+package com.petlog.record.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * 다이어리 이벤트 Outbox
+ * 일기(Diary)와 같은 트랜잭션에서 저장되고, 릴레이가 Kafka(diary-events)로 전달합니다.
+ */
+@Entity
+@Getter
+@Builder
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@AllArgsConstructor
+@Table(name = "DIARY_OUTBOX", indexes = {
+        @Index(name = "idx_diary_outbox_unpublished", columnList = "published_at, id")
+})
+public class DiaryOutboxEvent {
+
+    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // 이벤트 대상 일기 ID
+    @Column(nullable = false)
+    private Long aggregateId;
+
+    // Kafka 메시지 키 (userId) - 같은 키의 이벤트는 순서대로 전달
+    @Column(nullable = false, length = 64)
+    private String partitionKey;
+
+    // DIARY_CREATED, DIARY_UPDATED, DIARY_DELETED
+    @Column(nullable = false, length = 32)
+    private String eventType;
+
+    // 직렬화된 DiaryEventMessage (JSON)
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    // 전송 시도 횟수
+    @Builder.Default
+    @Column(nullable = false)
+    private Integer attempts = 0;
+
+    @Column(length = 500)
+    private String lastError;
+
+    @CreationTimestamp
+    @Column(updatable = false)
+    private LocalDateTime createdAt;
+
+    // Kafka 전송 완료 시각 (null 이면 미전송)
+    private LocalDateTime publishedAt;
+
+    // === [비즈니스 로직] ===
+    public void markFailed(String error) {
+        this.attempts = this.attempts + 1;
+        this.lastError = (error != null && error.length() > 500) ? error.substring(0, 500) : error;
+    }
+}
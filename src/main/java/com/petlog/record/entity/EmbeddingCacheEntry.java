@@ -0,0 +1,39 @@
+package com.petlog.record.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * 임베딩 캐시 (모델 + 텍스트 SHA-256 → 벡터)
+ * 같은 텍스트는 같은 벡터가 나오므로 재시작 후에도 재사용하여 임베딩 API 호출을 줄입니다.
+ */
+@Entity
+@Getter
+@Builder
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@AllArgsConstructor
+@Table(name = "EMBEDDING_CACHE")
+public class EmbeddingCacheEntry {
+
+    // SHA-256(모델 + 텍스트) hex
+    @Id
+    @Column(length = 64)
+    private String contentHash;
+
+    @Column(nullable = false, length = 100)
+    private String model;
+
+    @Column(nullable = false)
+    private Integer dimensions;
+
+    // float32 little-endian 배열 (1536차원 ≈ 6KB)
+    @Column(nullable = false, columnDefinition = "bytea")
+    private byte[] embedding;
+
+    @CreationTimestamp
+    @Column(updatable = false)
+    private LocalDateTime createdAt;
+}
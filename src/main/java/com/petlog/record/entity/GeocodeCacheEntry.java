@@ -0,0 +1,33 @@
+package com.petlog.record.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * 역지오코딩 결과 캐시 (geohash 셀 → 행정동 주소)
+ * 행정구역 단위 주소는 작은 셀 안에서 바뀌지 않으므로 재시작 후에도 재사용합니다.
+ */
+@Entity
+@Getter
+@Builder
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@AllArgsConstructor
+@Table(name = "GEOCODE_CACHE")
+public class GeocodeCacheEntry {
+
+    // 좌표를 양자화한 geohash (셀 키)
+    @Id
+    @Column(length = 12)
+    private String geohash;
+
+    // 행정동(H) 기준 주소
+    @Column(nullable = false)
+    private String addressName;
+
+    @CreationTimestamp
+    @Column(updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,183 @@
+package com.petlog.record.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.annotations.UpdateTimestamp;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * 펫 월간 일기 집계 (펫 + 월 단위 1행)
+ *
+ * 일기 생성/수정/삭제 시 증분 갱신되며, 월간 리캡 생성 시 일기 전체를 다시 스캔하지 않고 이 행만 읽습니다.
+ * - 일기 수, 기분/날씨 분포
+ * - 대표 이미지 후보 저수지 샘플 (최대 SAMPLE_SIZE 장)
+ * - 일기별 요약 정보(날짜, 기분, 날씨, 본문 발췌, 대표 이미지) - 수정/삭제 시 정확한 차감용
+ */
+@Entity
+@Getter
+@Builder
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@AllArgsConstructor
+@Table(name = "PET_MONTHLY_DIGESTS", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_pet_monthly_digest", columnNames = {"pet_id", "month_start"})
+})
+public class PetMonthlyDigest {
+
+    // 리캡 대표 이미지 수와 동일
+    public static final int SAMPLE_SIZE = 8;
+
+    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long petId;
+
+    @Column(nullable = false)
+    private Long userId;
+
+    // 해당 월 1일
+    @Column(nullable = false)
+    private LocalDate monthStart;
+
+    @Builder.Default
+    @Column(nullable = false)
+    private Integer diaryCount = 0;
+
+    @Builder.Default
+    @JdbcTypeCode(SqlTypes.JSON)
+    private Map<String, Integer> moodCounts = new HashMap<>();
+
+    @Builder.Default
+    @JdbcTypeCode(SqlTypes.JSON)
+    private Map<String, Integer> weatherCounts = new HashMap<>();
+
+    // 지금까지 샘플링 대상이 된 대표 이미지 수 (저수지 샘플링용)
+    @Builder.Default
+    @Column(nullable = false)
+    private Long imagesSeen = 0L;
+
+    @Builder.Default
+    @JdbcTypeCode(SqlTypes.JSON)
+    private List<SampledImage> imageSample = new ArrayList<>();
+
+    @Builder.Default
+    @JdbcTypeCode(SqlTypes.JSON)
+    private List<DiaryFact> diaryFacts = new ArrayList<>();
+
+    @CreationTimestamp
+    @Column(updatable = false)
+    private LocalDateTime createdAt;
+
+    @UpdateTimestamp
+    private LocalDateTime updatedAt;
+
+    // === [비즈니스 로직] ===
+    public void addDiary(DiaryFact fact, Random random) {
+        removeDiary(fact.diaryId());
+
+        diaryFacts.add(fact);
+        diaryCount = diaryFacts.size();
+        increment(moodCounts, fact.mood(), 1);
+        increment(weatherCounts, fact.weather(), 1);
+
+        // Algorithm R: 지금까지 본 이미지 중 SAMPLE_SIZE 장을 균등 확률로 유지
+        for (String url : fact.mainImageUrls()) {
+            imagesSeen++;
+            if (imageSample.size() < SAMPLE_SIZE) {
+                imageSample.add(new SampledImage(fact.diaryId(), url));
+            } else {
+                long slot = (long) (random.nextDouble() * imagesSeen);
+                if (slot < SAMPLE_SIZE) {
+                    imageSample.set((int) slot, new SampledImage(fact.diaryId(), url));
+                }
+            }
+        }
+    }
+
+    public void removeDiary(Long diaryId) {
+        DiaryFact removed = null;
+        for (DiaryFact fact : diaryFacts) {
+            if (fact.diaryId().equals(diaryId)) {
+                removed = fact;
+                break;
+            }
+        }
+        if (removed == null) {
+            return;
+        }
+
+        diaryFacts.remove(removed);
+        diaryCount = diaryFacts.size();
+        increment(moodCounts, removed.mood(), -1);
+        increment(weatherCounts, removed.weather(), -1);
+        imagesSeen = Math.max(0, imagesSeen - removed.mainImageUrls().size());
+
+        // 삭제된 일기의 샘플을 빼고, 남은 일기의 이미지로 빈 자리를 채움
+        imageSample.removeIf(sample -> sample.diaryId().equals(diaryId));
+        refillSample();
+    }
+
+    // 기존 데이터로 집계를 다시 만들 때 사용
+    public void reset() {
+        diaryFacts.clear();
+        moodCounts.clear();
+        weatherCounts.clear();
+        imageSample.clear();
+        imagesSeen = 0L;
+        diaryCount = 0;
+    }
+
+    public List<String> sampledImageUrls() {
+        return imageSample.stream().map(SampledImage::url).toList();
+    }
+
+    private void refillSample() {
+        if (imageSample.size() >= SAMPLE_SIZE) {
+            return;
+        }
+        Set<String> sampled = new HashSet<>(sampledImageUrls());
+        for (DiaryFact fact : diaryFacts) {
+            for (String url : fact.mainImageUrls()) {
+                if (imageSample.size() >= SAMPLE_SIZE) {
+                    return;
+                }
+                if (sampled.add(url)) {
+                    imageSample.add(new SampledImage(fact.diaryId(), url));
+                }
+            }
+        }
+    }
+
+    private static void increment(Map<String, Integer> counts, String key, int delta) {
+        if (key == null || key.isBlank()) {
+            return;
+        }
+        int next = counts.getOrDefault(key, 0) + delta;
+        if (next > 0) {
+            counts.put(key, next);
+        } else {
+            counts.remove(key);
+        }
+    }
+
+    /**
+     * 일기 1건의 집계용 요약
+     * @param excerpt 본문 앞부분 (리캡 분석 입력)
+     */
+    public record DiaryFact(Long diaryId, LocalDate date, String mood, String weather,
+                            String excerpt, List<String> mainImageUrls) {}
+
+    public record SampledImage(Long diaryId, String url) {}
+}
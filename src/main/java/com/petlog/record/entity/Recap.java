@@ -2,6 +2,7 @@ package com.petlog.record.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -15,7 +16,13 @@ import java.util.List;
 @Builder
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @AllArgsConstructor
-@Table(name = "RECAPS")
+@Table(name = "RECAPS", indexes = {
+        // 사용자별/펫별 커서 조회 (created_at, recap_id) 정렬
+        @Index(name = "idx_recaps_user_created", columnList = "user_id, created_at, recap_id"),
+        @Index(name = "idx_recaps_pet_created", columnList = "pet_id, created_at, recap_id"),
+        // WAITING 리캡 점유(claim) 조회: 기간이 끝난 대기 행만 스캔
+        @Index(name = "idx_recaps_status_period_end", columnList = "status, period_end")
+})
 public class Recap {
 
     @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -40,6 +47,7 @@ public class Recap {
     @ElementCollection(fetch = FetchType.LAZY)
     @CollectionTable(name = "RECAP_IMAGES", joinColumns = @JoinColumn(name = "recap_id"))
     @Column(name = "image_url")
+    @BatchSize(size = 100) // 목록 조회 시 대표 이미지 로딩을 IN 절로 묶음
     @Builder.Default
     private List<String> imageUrls = new ArrayList<>();
 
@@ -47,7 +55,19 @@ public class Recap {
     private Integer momentCount; // 예: 45 (45개의 순간)
     
     @Enumerated(EnumType.STRING)
-    private RecapStatus status; // GENERATED(완료), WAITING(대기중)
+    private RecapStatus status; // GENERATED(완료), WAITING(대기중), IN_PROGRESS(생성중)
+
+    // === [WAITING 처리 점유 정보] ===
+    // IN_PROGRESS: 점유 만료 시각 (지나면 다른 워커가 다시 점유 가능)
+    // WAITING: 다음 재시도 가능 시각 (백오프)
+    private LocalDateTime leaseUntil;
+
+    // 점유한 워커 ID (인스턴스 식별자)
+    @Column(length = 100)
+    private String claimedBy;
+
+    // 생성 시도 횟수 (백오프 계산용)
+    private Integer attempts;
 
     // (헬스케어 서비스에서 별도로 조회하여 DTO에 병합함)
 
@@ -72,5 +92,43 @@ public class Recap {
     public void updateImageUrls(List<String> urls) {
         this.imageUrls = urls;
     }
+
+    // === [WAITING 처리] ===
+    public void claim(String workerId, LocalDateTime leaseUntil) {
+        this.status = RecapStatus.IN_PROGRESS;
+        this.claimedBy = workerId;
+        this.leaseUntil = leaseUntil;
+    }
+
+    public boolean isClaimedBy(String workerId) {
+        return this.status == RecapStatus.IN_PROGRESS && workerId.equals(this.claimedBy);
+    }
+
+    // 점유 해제 후 retryAt 이후에 다시 처리
+    public void release(LocalDateTime retryAt) {
+        this.status = RecapStatus.WAITING;
+        this.claimedBy = null;
+        this.leaseUntil = retryAt;
+        this.attempts = getAttempts() + 1;
+    }
+
+    public int getAttempts() {
+        return attempts != null ? attempts : 0;
+    }
+
+    // 예약된 리캡을 삭제 후 재생성하지 않고 제자리에서 완료 처리
+    public void completeGeneration(String title, String summary, List<String> imageUrls, int momentCount,
+                                   List<RecapHighlight> highlights) {
+        this.title = title;
+        this.summary = summary;
+        this.imageUrls.clear();
+        this.imageUrls.addAll(imageUrls);
+        this.momentCount = momentCount;
+        this.highlights.clear();
+        highlights.forEach(this::addHighlight);
+        this.status = RecapStatus.GENERATED;
+        this.claimedBy = null;
+        this.leaseUntil = null;
+    }
 }
 
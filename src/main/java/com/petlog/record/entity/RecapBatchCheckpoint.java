@@ -0,0 +1,98 @@
+package com.petlog.record.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * 월간 리캡 배치 진행 상황 (기간별 1행)
+ * 대상 (petId, userId) 를 정렬 순서대로 페이지 단위로 처리하고, 페이지가 끝날 때마다 마지막 키를 기록합니다.
+ * 재시작 시 마지막 키 이후부터 이어서 처리합니다.
+ * 기간별 advisory lock 을 잡은 인스턴스만 읽고 쓰므로 여러 인스턴스가 같은 행을 덮어쓰지 않습니다. (RecapBatchEngine)
+ */
+@Entity
+@Getter
+@Builder
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@AllArgsConstructor
+@Table(name = "RECAP_BATCH_CHECKPOINTS")
+public class RecapBatchCheckpoint {
+
+    // 배치 기간 시작일 (기간별 1행)
+    @Id
+    private LocalDate periodStart;
+
+    @Column(nullable = false)
+    private LocalDate periodEnd;
+
+    // 마지막으로 처리 완료된 페이지의 마지막 키 (null 이면 처음부터)
+    private Long lastPetId;
+    private Long lastUserId;
+
+    @Builder.Default
+    @Column(nullable = false)
+    private Long totalCount = 0L;
+
+    @Builder.Default
+    @Column(nullable = false)
+    private Long generatedCount = 0L;
+
+    @Builder.Default
+    @Column(nullable = false)
+    private Long skippedCount = 0L;
+
+    @Builder.Default
+    @Column(nullable = false)
+    private Long failedCount = 0L;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private RecapBatchStatus status;
+
+    @CreationTimestamp
+    @Column(updatable = false)
+    private LocalDateTime startedAt;
+
+    @UpdateTimestamp
+    private LocalDateTime updatedAt;
+
+    private LocalDateTime completedAt;
+
+    // === [비즈니스 로직] ===
+    public static RecapBatchCheckpoint start(LocalDate periodStart, LocalDate periodEnd) {
+        return RecapBatchCheckpoint.builder()
+                .periodStart(periodStart)
+                .periodEnd(periodEnd)
+                .status(RecapBatchStatus.RUNNING)
+                .build();
+    }
+
+    public void updateTotal(long totalCount) {
+        this.totalCount = totalCount;
+    }
+
+    public void advance(Long lastPetId, Long lastUserId, long generated, long skipped, long failed) {
+        this.lastPetId = lastPetId;
+        this.lastUserId = lastUserId;
+        this.generatedCount += generated;
+        this.skippedCount += skipped;
+        this.failedCount += failed;
+    }
+
+    public void complete() {
+        this.status = RecapBatchStatus.COMPLETED;
+        this.completedAt = LocalDateTime.now();
+    }
+
+    public boolean isCompleted() {
+        return status == RecapBatchStatus.COMPLETED;
+    }
+
+    public long processedCount() {
+        return generatedCount + skippedCount + failedCount;
+    }
+}
@@ -0,0 +1,7 @@
+package com.petlog.record.entity;
+
+// 월간 리캡 배치 진행 상태
+public enum RecapBatchStatus {
+    RUNNING,    // 진행 중 (또는 중단되어 재개 대기)
+    COMPLETED   // 완료
+}
@@ -2,6 +2,7 @@ package com.petlog.record.entity;
 
 // 상태 관리 Enum
 public enum RecapStatus {
-    GENERATED, // 생성 완료
-    WAITING    // 생성 대기 중 (스크린샷의 '생성 대기 중' 카드 대응)
+    GENERATED,   // 생성 완료
+    WAITING,     // 생성 대기 중 (스크린샷의 '생성 대기 중' 카드 대응)
+    IN_PROGRESS  // 워커가 점유(lease)하여 생성 중
 }
@@ -22,6 +22,7 @@ public enum ErrorCode {
     BUSINESS_RULE_VIOLATION("BIZ_001", "비즈니스 규칙 위반입니다", HttpStatus.BAD_REQUEST),
     OPERATION_NOT_ALLOWED("BIZ_002", "허용되지 않은 작업입니다", HttpStatus.BAD_REQUEST),
     INVALID_PARAMETER("BIZ_003", "잘못된 요청 파라미터입니다.", HttpStatus.BAD_REQUEST),
+    IDEMPOTENCY_KEY_REUSED("BIZ_004", "이미 다른 요청에 사용된 멱등성 키입니다.", HttpStatus.CONFLICT),
     //사용자 관련
     USER_NOT_FOUND("USER_001","사용자를 찾을 수 없습니다.", HttpStatus.NOT_FOUND),
     USER_ID_DUPLICATE("USER_002","중복된 아이디입니다.", HttpStatus.BAD_REQUEST),
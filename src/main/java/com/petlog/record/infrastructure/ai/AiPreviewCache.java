@@ -0,0 +1,229 @@
+package com.petlog.record.infrastructure.ai;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.petlog.record.dto.response.AiDiaryResponse;
+import com.petlog.record.exception.BusinessException;
+import com.petlog.record.exception.ErrorCode;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * AI 일기 미리보기 응답 캐시 + 멱등성 키 저장소
+ *
+ * WHY 필요?
+ * - 같은 보관함 사진으로 "미리보기"를 반복 요청하면 매번 모든 이미지 URL 을 gpt-4o 에 다시 보내 비용이 중복 발생
+ * - (정렬된 이미지 URL, 프롬프트 버전, 모델) 의 SHA-256 을 키로 파싱된 응답을 TTL/크기 제한 캐시에 보관
+ *   (모델은 대체 경로를 포함해 실제로 응답한 경로이며, 조회는 라우터의 시도 순서대로 수행)
+ * - 네트워크 재시도로 같은 요청이 다시 들어오면 Idempotency-Key 로 진행 중/완료된 결과를 공유하여
+ *   AI 호출과 ImageClient 업로드가 두 번 일어나지 않도록 함
+ *
+ * @author diary-team
+ * @since 2026-01-05
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AiPreviewCache {
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${diary.preview.cache.max-size:5000}")
+    private long responseCacheMaxSize;
+
+    @Value("${diary.preview.cache.ttl-minutes:60}")
+    private long responseCacheTtlMinutes;
+
+    // 멱등성 키 보관 시간 (클라이언트 재시도 허용 구간)
+    @Value("${diary.preview.idempotency.ttl-minutes:10}")
+    private long idempotencyTtlMinutes;
+
+    @Value("${diary.preview.idempotency.max-size:10000}")
+    private long idempotencyMaxSize;
+
+    // 완료된 응답만 저장 (생성 중인 요청은 inFlight 에서 공유)
+    private AsyncCache<String, AiDiaryResponse> responseCache;
+    private Cache<String, IdempotentCall> idempotencyStore;
+
+    // 생성 중인 응답 (정렬된 이미지 URL + 프롬프트 버전 기준) - 응답 모델은 생성이 끝나야 알 수 있으므로 모델 없이 묶음
+    private final Map<String, CompletableFuture<AiDiaryResponse>> inFlight = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void init() {
+        this.responseCache = Caffeine.newBuilder()
+                .maximumSize(responseCacheMaxSize)
+                .expireAfterWrite(Duration.ofMinutes(responseCacheTtlMinutes))
+                .recordStats()
+                .buildAsync();
+        this.idempotencyStore = Caffeine.newBuilder()
+                .maximumSize(idempotencyMaxSize)
+                .expireAfterWrite(Duration.ofMinutes(idempotencyTtlMinutes))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, responseCache.synchronous(), "diary.preview.response");
+        CaffeineCacheMetrics.monitor(meterRegistry, idempotencyStore, "diary.preview.idempotency");
+    }
+
+    /**
+     * 캐시된 AI 응답을 반환하거나, 없으면 생성 후 실제로 응답한 모델의 키로 저장합니다.
+     * 같은 이미지/프롬프트의 동시 요청은 한 번만 생성합니다. 호출자는 항상 복사본을 받으므로 자유롭게 수정해도 됩니다.
+     *
+     * @param models 조회할 모델(경로) 이름, 우선순위 순서
+     */
+    public AiDiaryResponse getOrGenerate(List<String> imageUrls, String promptVersion, List<String> models,
+                                         Supplier<Generated> generator) {
+        AiDiaryResponse cached = getIfPresent(imageUrls, promptVersion, models);
+        if (cached != null) {
+            return cached;
+        }
+
+        String key = responseKey(imageUrls, promptVersion, "");
+        CompletableFuture<AiDiaryResponse> created = new CompletableFuture<>();
+        CompletableFuture<AiDiaryResponse> existing = inFlight.putIfAbsent(key, created);
+        if (existing != null) {
+            return copyOf(await(existing));
+        }
+
+        // AI 호출은 캐시 잠금 밖(호출 스레드)에서 수행, 저장 후 진행 중 목록에서 제거
+        try {
+            Generated generated = generator.get();
+            put(imageUrls, promptVersion, generated.model(), generated.response());
+            created.complete(generated.response());
+        } catch (RuntimeException e) {
+            created.completeExceptionally(e);
+        } finally {
+            inFlight.remove(key, created);
+        }
+        return copyOf(await(created));
+    }
+
+    /**
+     * 완료된 캐시 응답의 복사본 (주어진 모델 순서대로 조회, 없으면 null) - 스트리밍 미리보기용
+     */
+    public AiDiaryResponse getIfPresent(List<String> imageUrls, String promptVersion, List<String> models) {
+        for (String model : models) {
+            CompletableFuture<AiDiaryResponse> cached = responseCache.getIfPresent(responseKey(imageUrls, promptVersion, model));
+            if (cached != null && cached.isDone() && !cached.isCompletedExceptionally()) {
+                return copyOf(cached.join());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 스트리밍으로 완성된 응답을 캐시에 저장 (복사본 저장)
+     */
+    public void put(List<String> imageUrls, String promptVersion, String model, AiDiaryResponse response) {
+        responseCache.put(responseKey(imageUrls, promptVersion, model), CompletableFuture.completedFuture(copyOf(response)));
+    }
+
+    /**
+     * 멱등성 키 단위로 미리보기를 한 번만 실행합니다.
+     *
+     * 같은 키로 재시도하면 진행 중인 작업을 기다리거나 완료된 결과를 그대로 돌려줍니다.
+     * 실패한 작업은 저장소에서 제거하여 같은 키로 다시 시도할 수 있게 합니다.
+     * 같은 키를 다른 요청 내용(fingerprint)에 재사용하면 거절합니다.
+     */
+    public AiDiaryResponse deduplicate(Long userId, String idempotencyKey, String fingerprint,
+                                       Supplier<AiDiaryResponse> preview) {
+        String key = userId + ":" + idempotencyKey;
+        IdempotentCall created = new IdempotentCall(fingerprint, new CompletableFuture<>());
+        IdempotentCall existing = idempotencyStore.asMap().putIfAbsent(key, created);
+
+        if (existing != null) {
+            if (!existing.fingerprint().equals(fingerprint)) {
+                throw new BusinessException(ErrorCode.IDEMPOTENCY_KEY_REUSED);
+            }
+            log.info("AI 미리보기 멱등성 키 재사용 - userId: {}, key: {}", userId, idempotencyKey);
+            return copyOf(await(existing.result()));
+        }
+
+        try {
+            AiDiaryResponse response = preview.get();
+            created.result().complete(copyOf(response));
+            return response;
+        } catch (RuntimeException e) {
+            idempotencyStore.asMap().remove(key, created);
+            created.result().completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private AiDiaryResponse await(CompletableFuture<AiDiaryResponse> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 응답 캐시 키: 정렬된 이미지 URL + 프롬프트 버전 + 모델의 SHA-256
+     * (사진 선택 순서가 달라도 같은 키, 프롬프트나 모델이 바뀌면 자동으로 다른 키)
+     */
+    private String responseKey(List<String> imageUrls, String promptVersion, String model) {
+        List<String> sorted = new ArrayList<>(imageUrls);
+        sorted.sort(null);
+        return sha256(String.join("\n", sorted) + "\n" + promptVersion + "\n" + model);
+    }
+
+    /**
+     * 프롬프트 버전 등 임의 문자열의 SHA-256 (hex)
+     */
+    public static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // 캐시 값은 공유되므로 호출자가 날짜/이미지 등을 덮어써도 캐시가 오염되지 않도록 복사
+    private AiDiaryResponse copyOf(AiDiaryResponse source) {
+        return AiDiaryResponse.builder()
+                .title(source.getTitle())
+                .content(source.getContent())
+                .weather(source.getWeather())
+                .mood(source.getMood())
+                .locationName(source.getLocationName())
+                .latitude(source.getLatitude())
+                .longitude(source.getLongitude())
+                .date(source.getDate())
+                .imagesMetadata(source.getImagesMetadata() != null ? source.getImagesMetadata().stream().<Map<String, Object>>map(HashMap::new).toList() : null)
+                .imageUrls(source.getImageUrls() != null ? new ArrayList<>(source.getImageUrls()) : null)
+                .archiveIds(source.getArchiveIds() != null ? new ArrayList<>(source.getArchiveIds()) : null)
+                .stepLatencies(source.getStepLatencies() != null ? new HashMap<>(source.getStepLatencies()) : null)
+                .build();
+    }
+
+    /**
+     * 생성된 응답과 실제로 응답한 모델(경로) 이름
+     */
+    public record Generated(String model, AiDiaryResponse response) {}
+
+    private record IdempotentCall(String fingerprint, CompletableFuture<AiDiaryResponse> result) {}
+}
@@ -0,0 +1,159 @@
+package com.petlog.record.infrastructure.ai;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.petlog.record.entity.EmbeddingCacheEntry;
+import com.petlog.record.repository.jpa.EmbeddingCacheRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.Embedding;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingOptions;
+import org.springframework.ai.embedding.EmbeddingRequest;
+import org.springframework.ai.embedding.EmbeddingResponse;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 텍스트 해시 기반 임베딩 캐시 (EmbeddingModel 데코레이터)
+ *
+ * WHY 필요?
+ * - 일기 수정 시 기분/날씨만 바뀌어도 벡터 문서를 다시 적재하면서 본문 임베딩 API 를 매번 다시 호출
+ * - 같은 모델에 같은 텍스트는 항상 같은 벡터이므로 SHA-256(모델 + 텍스트) 를 키로 벡터를 보관하여
+ *   본문이 그대로면 임베딩 호출 없이 메타데이터만 새로 적재
+ *
+ * 조회 순서: 메모리(Caffeine) → EMBEDDING_CACHE 테이블(bytea) → 원격 임베딩 (미스인 텍스트만 한 번에 요청)
+ * MilvusVectorStoreConfig 에서 VectorStore 가 사용하는 EmbeddingModel 을 감쌉니다.
+ *
+ * @author diary-team
+ * @since 2026-01-05
+ */
+@Slf4j
+public class CachingEmbeddingModel implements EmbeddingModel {
+
+    private final EmbeddingModel delegate;
+    private final EmbeddingCacheRepository embeddingCacheRepository;
+    private final MeterRegistry meterRegistry;
+    private final String defaultModel;
+    private final Cache<String, float[]> memoryCache;
+
+    public CachingEmbeddingModel(EmbeddingModel delegate, EmbeddingCacheRepository embeddingCacheRepository,
+                                 MeterRegistry meterRegistry, String defaultModel, long memoryCacheMaxSize) {
+        this.delegate = delegate;
+        this.embeddingCacheRepository = embeddingCacheRepository;
+        this.meterRegistry = meterRegistry;
+        this.defaultModel = defaultModel;
+        this.memoryCache = Caffeine.newBuilder()
+                .maximumSize(memoryCacheMaxSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, memoryCache, "diary.embedding");
+    }
+
+    @Override
+    public EmbeddingResponse call(EmbeddingRequest request) {
+        String model = modelOf(request.getOptions());
+        List<String> texts = request.getInstructions();
+        List<String> keys = new ArrayList<>(texts.size());
+        for (String text : texts) {
+            keys.add(AiPreviewCache.sha256(model + "\n" + text));
+        }
+
+        Map<String, float[]> vectors = new HashMap<>(memoryCache.getAllPresent(keys));
+        Set<String> missing = new LinkedHashSet<>(keys);
+        missing.removeAll(vectors.keySet());
+        if (!missing.isEmpty()) {
+            loadStored(missing, vectors);
+        }
+
+        // 저장소에도 없는 텍스트만 모아 한 번에 임베딩 (같은 텍스트 중복은 한 번만)
+        Map<String, String> pending = new HashMap<>();
+        for (int i = 0; i < keys.size(); i++) {
+            if (!vectors.containsKey(keys.get(i))) {
+                pending.putIfAbsent(keys.get(i), texts.get(i));
+            }
+        }
+        if (!pending.isEmpty()) {
+            embedAndStore(model, pending, request.getOptions(), vectors);
+        }
+
+        meterRegistry.counter("diary.embedding.requests", "result", "cached").increment(texts.size() - pending.size());
+        meterRegistry.counter("diary.embedding.requests", "result", "embedded").increment(pending.size());
+
+        List<Embedding> embeddings = new ArrayList<>(keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+            embeddings.add(new Embedding(vectors.get(keys.get(i)), i));
+        }
+        return new EmbeddingResponse(embeddings);
+    }
+
+    @Override
+    public float[] embed(Document document) {
+        return embed(document.getContent());
+    }
+
+    @Override
+    public int dimensions() {
+        return delegate.dimensions();
+    }
+
+    private void loadStored(Set<String> keys, Map<String, float[]> vectors) {
+        try {
+            for (EmbeddingCacheEntry entry : embeddingCacheRepository.findAllById(new ArrayList<String>(keys))) {
+                float[] vector = fromBytes(entry.getEmbedding());
+                vectors.put(entry.getContentHash(), vector);
+                memoryCache.put(entry.getContentHash(), vector);
+            }
+        } catch (Exception e) {
+            // 캐시 저장소 장애는 임베딩 호출로 대체
+            log.warn("임베딩 캐시 조회 실패 ({}건): {}", keys.size(), e.getMessage());
+        }
+    }
+
+    private void embedAndStore(String model, Map<String, String> pending, EmbeddingOptions options,
+                               Map<String, float[]> vectors) {
+        List<String> pendingKeys = new ArrayList<>(pending.keySet());
+        List<String> pendingTexts = pendingKeys.stream().map(pending::get).toList();
+        EmbeddingResponse response = delegate.call(new EmbeddingRequest(pendingTexts, options));
+
+        List<Embedding> results = response.getResults();
+        for (int i = 0; i < results.size(); i++) {
+            Embedding result = results.get(i);
+            int index = result.getIndex() != null ? result.getIndex() : i;
+            String key = pendingKeys.get(index);
+            float[] vector = result.getOutput();
+            vectors.put(key, vector);
+            memoryCache.put(key, vector);
+            try {
+                embeddingCacheRepository.insertIfAbsent(key, model, vector.length, toBytes(vector));
+            } catch (Exception e) {
+                log.warn("임베딩 캐시 저장 실패: {}", e.getMessage());
+            }
+        }
+    }
+
+    private String modelOf(EmbeddingOptions options) {
+        return options != null && options.getModel() != null ? options.getModel() : defaultModel;
+    }
+
+    private static byte[] toBytes(float[] vector) {
+        ByteBuffer buffer = ByteBuffer.allocate(vector.length * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.asFloatBuffer().put(vector);
+        return buffer.array();
+    }
+
+    private static float[] fromBytes(byte[] bytes) {
+        float[] vector = new float[bytes.length / Float.BYTES];
+        ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer().get(vector);
+        return vector;
+    }
+}
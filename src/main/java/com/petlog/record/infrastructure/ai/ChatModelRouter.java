@@ -0,0 +1,295 @@
+package com.petlog.record.infrastructure.ai;
+
+import com.petlog.record.config.AsyncConfig;
+import com.petlog.record.exception.BusinessException;
+import com.petlog.record.exception.ErrorCode;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.prompt.ChatOptionsBuilder;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.retry.TransientAiException;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 비전 모델 라우터 (경로 선택 + 429/타임아웃 대체 + 모델별 지연 시간 기록)
+ *
+ * WHY 필요?
+ * - 모델이 gpt-4o 로 고정되어 사진 1장짜리 미리보기도 가장 비싼 모델을 사용
+ * - 이미지 수와 입력 토큰으로 처리 가능한 경로를 고르고, 비용이 낮은 순으로 시도하되
+ *   최근 지연 시간(EWMA)이 요청의 지연 예산을 넘는 경로는 뒤로 미룸
+ * - 429(할당량 초과)나 타임아웃이면 다음 경로로 대체하여 미리보기가 실패하지 않도록 함
+ *
+ * 타임아웃은 호출 제한 시간을 지연 시간으로 간주하여 이동 평균에 반영하므로, 계속 타임아웃되는 경로는
+ * 지연 예산을 넘어 후순위로 밀립니다. 타임아웃된 호출은 취소(인터럽트)하여 모델 풀 스레드를 돌려받습니다.
+ * 요청에 마감 시각이 있으면 각 경로에는 호출 제한 시간과 남은 시간 중 짧은 쪽만 주어, 대체 경로까지
+ * 호출자의 제한 시간 안에 끝나도록 합니다. 응답에는 실제로 응답한 경로 이름을 함께 돌려줍니다(캐시 키용).
+ *
+ * 경로 설정은 ModelRoutingProperties(diary.ai.routing.routes) 를 따르며,
+ * 설정된 빈이 없는 경로(예: 비활성화된 Bedrock)는 무시합니다.
+ *
+ * @author diary-team
+ * @since 2026-01-05
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ChatModelRouter {
+
+    private final Map<String, ChatModel> chatModels;
+    private final ModelRoutingProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    @Qualifier(AsyncConfig.AI_MODEL_EXECUTOR)
+    private final ThreadPoolTaskExecutor aiModelExecutor;
+
+    private final Map<String, LatencyStats> latencyStats = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void init() {
+        for (ModelRoutingProperties.Route route : properties.getRoutes()) {
+            if (!chatModels.containsKey(route.getBean())) {
+                log.warn("AI 모델 경로 비활성화 - ChatModel 빈 없음: {} ({})", route.getName(), route.getBean());
+                continue;
+            }
+            LatencyStats stats = latencyStats.computeIfAbsent(route.getName(), name -> new LatencyStats());
+            Gauge.builder("diary.ai.model.latency.ewma", stats, LatencyStats::get)
+                    .description("모델 경로별 최근 응답 지연 이동 평균(ms)")
+                    .tag("route", route.getName())
+                    .register(meterRegistry);
+        }
+        log.info("AI 모델 경로: {}", latencyStats.keySet());
+    }
+
+    /**
+     * 경로 선택 조건
+     *
+     * @param imageCount      첨부 이미지 수
+     * @param textTokens      텍스트 입력 토큰 추정치
+     * @param latencyBudgetMs 허용 지연 시간 (이 값을 넘는 경로는 후순위)
+     * @param deadlineNanos   System.nanoTime() 기준 마감 시각 (0 이면 경로별 호출 제한 시간만 적용)
+     */
+    public record RouteRequest(int imageCount, int textTokens, long latencyBudgetMs, long deadlineNanos) {}
+
+    /**
+     * 모델 응답과 실제로 응답한 경로 이름
+     */
+    public record RoutedResponse(String route, ChatResponse response) {}
+
+    /**
+     * 시도할 경로 이름 (시도 순서, 응답 캐시 조회 등에 사용)
+     */
+    public List<String> routes(RouteRequest request) {
+        return plan(request).stream().map(ModelRoutingProperties.Route::getName).toList();
+    }
+
+    /**
+     * 선택된 경로 순서대로 호출하며, 429/타임아웃이면 마감 시각 전까지 다음 경로로 대체합니다.
+     */
+    public RoutedResponse call(Prompt prompt, RouteRequest request) {
+        List<ModelRoutingProperties.Route> routes = plan(request);
+        RuntimeException lastError = null;
+        for (ModelRoutingProperties.Route route : routes) {
+            long timeoutMs = timeoutMs(request);
+            if (timeoutMs <= 0) {
+                throw new BusinessException(ErrorCode.EXTERNAL_API_ERROR,
+                        "AI 모델 호출 시간 초과" + (lastError != null ? ": " + lastError.getMessage() : ""));
+            }
+            long begin = System.nanoTime();
+            // FutureTask 로 제출해야 cancel(true) 가 실행 중인 모델 호출 스레드를 인터럽트함
+            Future<ChatResponse> future = aiModelExecutor.submit(
+                    () -> chatModels.get(route.getBean()).call(withOptions(prompt, route)));
+            try {
+                ChatResponse response = future.get(timeoutMs, TimeUnit.MILLISECONDS);
+                record(route, begin, "success");
+                return new RoutedResponse(route.getName(), response);
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                record(route, begin, "timeout");
+                log.warn("AI 모델 경로 대체 - {} 타임아웃 ({}ms), 다음 경로 시도", route.getName(), timeoutMs);
+                lastError = new RuntimeException(route.getName() + " 타임아웃", e);
+            } catch (InterruptedException e) {
+                future.cancel(true);
+                Thread.currentThread().interrupt();
+                throw new BusinessException(ErrorCode.EXTERNAL_API_ERROR, "AI 모델 호출 중단: " + route.getName());
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                if (!isFallbackable(cause)) {
+                    record(route, begin, "error");
+                    throw cause instanceof RuntimeException runtimeException
+                            ? runtimeException
+                            : new BusinessException(ErrorCode.EXTERNAL_API_ERROR, "AI 모델 호출 실패: " + cause.getMessage());
+                }
+                record(route, begin, "fallback");
+                log.warn("AI 모델 경로 대체 - {} 실패 ({}), 다음 경로 시도", route.getName(), cause.toString());
+                lastError = new RuntimeException(cause.toString(), cause);
+            }
+        }
+        throw new BusinessException(ErrorCode.EXTERNAL_API_ERROR,
+                "모든 AI 모델 경로 실패: " + (lastError != null ? lastError.getMessage() : ""));
+    }
+
+    /**
+     * 스트리밍 호출. 첫 조각이 오기 전에 429/타임아웃이 나면 마감 시각 전까지 다음 경로로 대체합니다.
+     * (이미 전송한 조각이 있으면 중복 출력을 막기 위해 대체하지 않음)
+     * 마감 시각은 첫 조각까지만 적용하고, 이후 조각 사이 간격에는 호출 제한 시간을 적용합니다.
+     */
+    public Flux<RoutedResponse> stream(Prompt prompt, RouteRequest request) {
+        return streamFrom(prompt, request, plan(request), 0);
+    }
+
+    private Flux<RoutedResponse> streamFrom(Prompt prompt, RouteRequest request,
+                                            List<ModelRoutingProperties.Route> routes, int index) {
+        ModelRoutingProperties.Route route = routes.get(index);
+        AtomicBoolean started = new AtomicBoolean(false);
+        long[] begin = new long[1];
+        return Flux.defer(() -> {
+                    long firstTimeoutMs = timeoutMs(request);
+                    if (firstTimeoutMs <= 0) {
+                        return Flux.<ChatResponse>error(new TimeoutException("AI 모델 호출 시간 초과 - " + route.getName()));
+                    }
+                    begin[0] = System.nanoTime();
+                    return chatModels.get(route.getBean()).stream(withOptions(prompt, route))
+                            .timeout(Mono.delay(Duration.ofMillis(firstTimeoutMs)),
+                                    response -> Mono.delay(Duration.ofMillis(properties.getCallTimeoutMs())))
+                            .doOnNext(response -> {
+                                // 지연 시간은 첫 조각까지(TTFB) 기준으로 기록
+                                if (started.compareAndSet(false, true)) {
+                                    record(route, begin[0], "success");
+                                }
+                            });
+                })
+                .map(response -> new RoutedResponse(route.getName(), response))
+                .onErrorResume(error -> {
+                    if (!started.get() && error instanceof TimeoutException && begin[0] != 0) {
+                        // 첫 조각 전 타임아웃도 이동 평균에 반영 (timeout 연산자가 업스트림 구독은 취소함)
+                        record(route, begin[0], "timeout");
+                    }
+                    if (started.get() || index + 1 >= routes.size() || !isFallbackable(error)) {
+                        return Flux.error(error);
+                    }
+                    log.warn("AI 모델 스트리밍 경로 대체 - {} 실패 ({}), 다음 경로 시도", route.getName(), error.toString());
+                    if (!(error instanceof TimeoutException)) {
+                        meterRegistry.counter("diary.ai.model.fallback", "route", route.getName()).increment();
+                    }
+                    return streamFrom(prompt, request, routes, index + 1);
+                });
+    }
+
+    /**
+     * 처리 가능한 경로를 비용 오름차순으로 정렬하고, 지연 예산을 넘는 경로는 뒤로 보냅니다.
+     */
+    private List<ModelRoutingProperties.Route> plan(RouteRequest request) {
+        int inputTokens = request.textTokens() + request.imageCount() * properties.getTokensPerImage();
+        List<ModelRoutingProperties.Route> eligible = new ArrayList<>(properties.getRoutes().stream()
+                .filter(route -> chatModels.containsKey(route.getBean()))
+                .filter(route -> request.imageCount() <= route.getMaxImages())
+                .filter(route -> inputTokens <= route.getMaxInputTokens())
+                .sorted(Comparator.comparingDouble(ModelRoutingProperties.Route::getCostPerMillionInputTokens))
+                .toList());
+        if (eligible.isEmpty()) {
+            throw new BusinessException(ErrorCode.EXTERNAL_API_ERROR,
+                    "요청을 처리할 AI 모델 경로가 없습니다 (이미지 " + request.imageCount() + "장, 입력 약 " + inputTokens + " 토큰)");
+        }
+        // 안정 정렬이므로 예산 내 경로끼리는 비용 순서 유지
+        eligible.sort(Comparator.comparing(route -> overBudget(route, request.latencyBudgetMs())));
+        return eligible;
+    }
+
+    // 이번 경로에 줄 제한 시간: 호출 제한 시간과 마감까지 남은 시간 중 짧은 쪽 (0 이하면 시간 초과)
+    private long timeoutMs(RouteRequest request) {
+        if (request.deadlineNanos() == 0) {
+            return properties.getCallTimeoutMs();
+        }
+        long remainingMs = TimeUnit.NANOSECONDS.toMillis(request.deadlineNanos() - System.nanoTime());
+        return Math.min(properties.getCallTimeoutMs(), remainingMs);
+    }
+
+    private boolean overBudget(ModelRoutingProperties.Route route, long latencyBudgetMs) {
+        LatencyStats stats = latencyStats.get(route.getName());
+        return latencyBudgetMs > 0 && stats != null && stats.get() > latencyBudgetMs;
+    }
+
+    // 경로의 모델명을 이식 가능한 ChatOptions 로 지정 (공급자별 옵션으로 변환은 각 ChatModel 이 수행)
+    private Prompt withOptions(Prompt prompt, ModelRoutingProperties.Route route) {
+        if (route.getModel() == null || route.getModel().isBlank()) {
+            return new Prompt(prompt.getInstructions());
+        }
+        return new Prompt(prompt.getInstructions(), ChatOptionsBuilder.builder().withModel(route.getModel()).build());
+    }
+
+    // 429(할당량 초과), 타임아웃, 일시적 오류만 다음 경로로 대체
+    private boolean isFallbackable(Throwable error) {
+        for (Throwable t = error; t != null; t = t.getCause()) {
+            if (t instanceof TimeoutException || t instanceof TransientAiException
+                    || t instanceof HttpClientErrorException.TooManyRequests) {
+                return true;
+            }
+            String message = t.getMessage();
+            if (message != null && (message.contains("429") || message.contains("rate_limit") || message.contains("ThrottlingException"))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void record(ModelRoutingProperties.Route route, long beginNanos, String outcome) {
+        long elapsedNanos = System.nanoTime() - beginNanos;
+        Timer.builder("diary.ai.model.latency")
+                .description("모델 경로별 응답 지연 시간")
+                .tag("route", route.getName())
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(elapsedNanos, TimeUnit.NANOSECONDS);
+        if ("success".equals(outcome)) {
+            latencyStats.computeIfAbsent(route.getName(), name -> new LatencyStats())
+                    .update(TimeUnit.NANOSECONDS.toMillis(elapsedNanos), properties.getLatencyEwmaAlpha());
+        } else if ("timeout".equals(outcome)) {
+            // 응답이 없었으므로 최소한 기다린 시간만큼 걸린 것으로 반영 (계속 타임아웃되면 예산 초과로 후순위)
+            latencyStats.computeIfAbsent(route.getName(), name -> new LatencyStats())
+                    .update(TimeUnit.NANOSECONDS.toMillis(elapsedNanos), properties.getLatencyEwmaAlpha());
+            meterRegistry.counter("diary.ai.model.fallback", "route", route.getName()).increment();
+        } else if ("fallback".equals(outcome)) {
+            meterRegistry.counter("diary.ai.model.fallback", "route", route.getName()).increment();
+        }
+    }
+
+    /**
+     * 지연 시간 이동 평균 (첫 측정 전에는 0 = 예산 내로 간주)
+     */
+    private static final class LatencyStats {
+
+        private double ewmaMs;
+
+        synchronized void update(long latencyMs, double alpha) {
+            ewmaMs = ewmaMs == 0 ? latencyMs : alpha * latencyMs + (1 - alpha) * ewmaMs;
+        }
+
+        synchronized double get() {
+            return ewmaMs;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.petlog.record.infrastructure.ai;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * LLM 호출 속도 제한기 (RPM + TPM 토큰 버킷)
+ *
+ * WHY 필요?
+ * - 월간 리캡 배치를 병렬로 돌리면 공급자 할당량(분당 요청 수, 분당 토큰 수)을 쉽게 초과해 429 가 연쇄 발생
+ * - 호출 전에 예상 토큰 수만큼 미리 확보하고, 부족하면 채워질 때까지 대기
+ *
+ * 두 버킷 모두 1분 용량으로 시작하여 초당 (한도 / 60) 씩 채워집니다.
+ *
+ * @author diary-team
+ * @since 2026-01-05
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LlmRateLimiter {
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${diary.llm.rate-limit.requests-per-minute:500}")
+    private double requestsPerMinute;
+
+    @Value("${diary.llm.rate-limit.tokens-per-minute:200000}")
+    private double tokensPerMinute;
+
+    // 토큰 추정용 (한국어 기준 약 1.5자 = 1토큰, 보수적으로 추정)
+    @Value("${diary.llm.rate-limit.chars-per-token:1.5}")
+    private double charsPerToken;
+
+    // 응답으로 생성될 토큰 예상치 (TPM 에는 출력 토큰도 포함)
+    @Value("${diary.llm.rate-limit.estimated-output-tokens:1000}")
+    private int estimatedOutputTokens;
+
+    private double availableRequests;
+    private double availableTokens;
+    private long lastRefillNanos;
+
+    private Timer waitTimer;
+
+    @PostConstruct
+    void init() {
+        this.availableRequests = requestsPerMinute;
+        this.availableTokens = tokensPerMinute;
+        this.lastRefillNanos = System.nanoTime();
+        this.waitTimer = Timer.builder("diary.llm.rate-limit.wait")
+                .description("LLM 호출 전 속도 제한으로 대기한 시간")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 프롬프트 길이로 요청 1건에 필요한 토큰 수를 추정합니다. (입력 + 예상 출력)
+     */
+    public int estimateTokens(String prompt) {
+        return countTokens(prompt) + estimatedOutputTokens;
+    }
+
+    /**
+     * 텍스트의 입력 토큰 수 추정 (청크 분할 등 토큰 예산 계산용)
+     */
+    public int countTokens(String text) {
+        int length = text != null ? text.length() : 0;
+        return (int) Math.ceil(length / charsPerToken);
+    }
+
+    /**
+     * 요청 1건과 tokens 만큼의 할당량을 확보할 때까지 대기합니다.
+     */
+    public void acquire(int tokens) throws InterruptedException {
+        // 1분 한도보다 큰 요청은 한도만큼만 요구 (영원히 대기하지 않도록)
+        double required = Math.min(tokens, tokensPerMinute);
+        long start = System.nanoTime();
+        while (true) {
+            long waitNanos = tryAcquire(required);
+            if (waitNanos <= 0) {
+                break;
+            }
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+        waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @return 0 이면 확보 성공, 양수면 다시 시도하기까지 기다려야 하는 시간(ns)
+     */
+    private synchronized long tryAcquire(double tokens) {
+        refill();
+        if (availableRequests >= 1 && availableTokens >= tokens) {
+            availableRequests -= 1;
+            availableTokens -= tokens;
+            return 0;
+        }
+        double requestWait = availableRequests >= 1 ? 0 : (1 - availableRequests) / perNano(requestsPerMinute);
+        double tokenWait = availableTokens >= tokens ? 0 : (tokens - availableTokens) / perNano(tokensPerMinute);
+        return Math.max(1, (long) Math.ceil(Math.max(requestWait, tokenWait)));
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        long elapsed = now - lastRefillNanos;
+        lastRefillNanos = now;
+        availableRequests = Math.min(requestsPerMinute, availableRequests + elapsed * perNano(requestsPerMinute));
+        availableTokens = Math.min(tokensPerMinute, availableTokens + elapsed * perNano(tokensPerMinute));
+    }
+
+    private static double perNano(double perMinute) {
+        return perMinute / TimeUnit.MINUTES.toNanos(1);
+    }
+}
@@ -0,0 +1,58 @@
+package com.petlog.record.infrastructure.ai;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 비전 모델 라우팅 설정 (diary.ai.routing)
+ *
+ * WHY 필요?
+ * - 경로(route) 목록은 @Value 로 표현할 수 없어 바인딩 객체로 분리
+ * - 경로마다 사용할 ChatModel 빈, 모델명, 처리 가능한 이미지 수/입력 토큰, 비용을 선언
+ *
+ * @author diary-team
+ * @since 2026-01-05
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "diary.ai.routing")
+public class ModelRoutingProperties {
+
+    // 경로 1회 호출 제한 시간 (초과 시 다음 경로로 대체)
+    private long callTimeoutMs = 30000;
+
+    // 이미지 1장당 입력 토큰 추정치 (경로 선택용)
+    private int tokensPerImage = 800;
+
+    // 지연 시간 이동 평균(EWMA) 가중치
+    private double latencyEwmaAlpha = 0.2;
+
+    private List<Route> routes = new ArrayList<>();
+
+    @Getter
+    @Setter
+    public static class Route {
+
+        // 메트릭/로그용 경로 이름
+        private String name;
+
+        // 사용할 ChatModel 빈 이름 (예: openAiChatModel, anthropic3ChatModel)
+        private String bean;
+
+        // 요청 옵션에 실을 모델명 (비우면 빈의 기본 모델)
+        private String model;
+
+        private int maxImages = Integer.MAX_VALUE;
+
+        private int maxInputTokens = Integer.MAX_VALUE;
+
+        // 입력 100만 토큰당 비용 (USD) - 낮은 경로부터 시도
+        private double costPerMillionInputTokens;
+    }
+}
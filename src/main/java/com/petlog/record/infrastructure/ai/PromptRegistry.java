@@ -0,0 +1,177 @@
+package com.petlog.record.infrastructure.ai;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.converter.BeanOutputConverter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.stringtemplate.v4.ST;
+import org.stringtemplate.v4.STErrorListener;
+import org.stringtemplate.v4.STGroup;
+import org.stringtemplate.v4.misc.STMessage;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 프롬프트 템플릿 레지스트리 (기동 시 1회 컴파일 + 버전 + 핫 리로드)
+ *
+ * WHY 필요?
+ * - 호출마다 .st 파일을 다시 읽고 PromptTemplate 을 새로 만들면 템플릿 파싱/컴파일이 매번 반복됨
+ * - BeanOutputConverter 는 생성 시 대상 타입의 JSON 스키마를 리플렉션으로 만들므로 타입별로 한 번만 생성
+ * - 템플릿 내용의 해시를 버전으로 두어 캐시 키(응답/부분 요약)가 프롬프트 변경에 맞춰 자동으로 바뀌도록 함
+ * - 운영 중 프롬프트 수정은 diary.prompt.location 을 외부 경로(file:)로 두고 hot-reload 로 재배포 없이 반영
+ *
+ * 템플릿 이름은 파일명에서 .st 를 뺀 값입니다. (예: prompts/recap-map.st → recap-map)
+ * 렌더링은 컴파일된 ST 원형을 복사하여 값만 채우므로 호출 간 공유 상태가 없습니다.
+ * 문법 오류가 있는 템플릿은 컴파일 단계에서 예외로 처리하여, 리로드 시 기존 템플릿을 그대로 유지합니다.
+ *
+ * @author diary-team
+ * @since 2026-01-05
+ */
+@Slf4j
+@Component
+public class PromptRegistry {
+
+    @Value("${diary.prompt.location:classpath*:prompts/}")
+    private String location;
+
+    @Value("${diary.prompt.hot-reload:false}")
+    private boolean hotReload;
+
+    // 이름 → 컴파일된 템플릿 (리로드 시 맵 전체를 교체)
+    private volatile Map<String, CompiledPrompt> prompts = Map.of();
+
+    private final Map<Class<?>, BeanOutputConverter<?>> converters = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void init() {
+        this.prompts = load();
+        log.info("프롬프트 템플릿 로드 완료: {}", prompts.keySet());
+    }
+
+    // 스프링 컨텍스트 밖(벤치마크 등)에서 생성할 때 템플릿 위치 지정 (init() 전에 호출)
+    void setLocation(String location) {
+        this.location = location;
+    }
+
+    /**
+     * 템플릿 파일이 바뀌었으면 다시 컴파일합니다. (내용 해시가 같으면 기존 것 유지)
+     */
+    @Scheduled(fixedDelayString = "${diary.prompt.reload-interval-ms:30000}")
+    public void reloadIfChanged() {
+        if (!hotReload) {
+            return;
+        }
+        try {
+            Map<String, CompiledPrompt> loaded = load();
+            Map<String, CompiledPrompt> current = prompts;
+            boolean changed = loaded.size() != current.size() || loaded.entrySet().stream()
+                    .anyMatch(entry -> current.get(entry.getKey()) == null
+                            || !current.get(entry.getKey()).version().equals(entry.getValue().version()));
+            if (changed) {
+                this.prompts = loaded;
+                log.info("프롬프트 템플릿 리로드: {}", loaded.values().stream()
+                        .map(prompt -> prompt.name() + "@" + prompt.version()).toList());
+            }
+        } catch (RuntimeException e) {
+            // 잘못된 템플릿이 올라와도 기존 템플릿으로 계속 동작
+            log.error("프롬프트 템플릿 리로드 실패, 기존 템플릿 유지: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 템플릿을 값으로 채워 렌더링합니다.
+     */
+    public String render(String name, Map<String, Object> variables) {
+        ST st = new ST(get(name).prototype());
+        variables.forEach(st::add);
+        return st.render();
+    }
+
+    public String render(String name) {
+        return render(name, Map.of());
+    }
+
+    /**
+     * 템플릿 버전 (내용 SHA-256 앞 12자리) - 캐시 키에 포함하여 프롬프트 변경 시 자동 무효화
+     */
+    public String version(String name) {
+        return get(name).version();
+    }
+
+    /**
+     * 대상 타입별로 한 번만 생성한 출력 변환기 (스키마/형식 문자열 재사용, 변환은 상태 없음)
+     */
+    @SuppressWarnings("unchecked")
+    public <T> BeanOutputConverter<T> converter(Class<T> type) {
+        return (BeanOutputConverter<T>) converters.computeIfAbsent(type, BeanOutputConverter::new);
+    }
+
+    private CompiledPrompt get(String name) {
+        CompiledPrompt prompt = prompts.get(name);
+        if (prompt == null) {
+            throw new IllegalArgumentException("등록되지 않은 프롬프트 템플릿: " + name);
+        }
+        return prompt;
+    }
+
+    private Map<String, CompiledPrompt> load() {
+        String pattern = location.endsWith("/") ? location + "*.st" : location + "/*.st";
+        // 로드마다 새 그룹 (익명 하위 템플릿이 그룹에 등록되므로 이전 로드와 분리)
+        STGroup group = new STGroup('{', '}');
+        group.setListener(new FailOnCompileErrorListener());
+        try {
+            Map<String, CompiledPrompt> loaded = new HashMap<>();
+            for (Resource resource : new PathMatchingResourcePatternResolver().getResources(pattern)) {
+                String filename = resource.getFilename();
+                if (filename == null) {
+                    continue;
+                }
+                String name = filename.substring(0, filename.length() - ".st".length());
+                String text = resource.getContentAsString(StandardCharsets.UTF_8);
+                // PromptTemplate 과 같은 { } 구분자로 한 번만 컴파일 (문법 오류는 예외)
+                ST prototype = new ST(group, text);
+                loaded.put(name, new CompiledPrompt(name, AiPreviewCache.sha256(text).substring(0, 12), prototype));
+            }
+            return Map.copyOf(loaded);
+        } catch (IOException e) {
+            throw new IllegalStateException("프롬프트 템플릿 로드 실패: " + pattern, e);
+        }
+    }
+
+    private record CompiledPrompt(String name, String version, ST prototype) {}
+
+    /**
+     * ST 기본 리스너는 컴파일 오류를 stderr 에 출력만 하고 깨진 템플릿을 반환하므로, 컴파일 오류는 예외로 전환
+     * (렌더링 중 오류는 기존처럼 로그만 남김)
+     */
+    private static final class FailOnCompileErrorListener implements STErrorListener {
+
+        @Override
+        public void compileTimeError(STMessage msg) {
+            throw new IllegalStateException("프롬프트 템플릿 문법 오류: " + msg);
+        }
+
+        @Override
+        public void runTimeError(STMessage msg) {
+            log.warn("프롬프트 템플릿 렌더링 오류: {}", msg);
+        }
+
+        @Override
+        public void IOError(STMessage msg) {
+            throw new IllegalStateException("프롬프트 템플릿 읽기 오류: " + msg);
+        }
+
+        @Override
+        public void internalError(STMessage msg) {
+            throw new IllegalStateException("프롬프트 템플릿 내부 오류: " + msg);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.petlog.record.infrastructure.geocode;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+
+/**
+ * Kakao Local API 기반 역지오코딩 (coord2regioncode)
+ * 행정동(H) 주소를 우선 사용하고, 없으면 첫 번째 결과를 사용합니다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "diary.geocode.provider", havingValue = "kakao", matchIfMissing = true)
+public class KakaoReverseGeocoder implements ReverseGeocoder {
+
+    private static final String COORD2REGION_URL = "https://dapi.kakao.com/v2/local/geo/coord2regioncode.json";
+
+    private final RestTemplate restTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Value("${kakao.rest-api-key:}")
+    private String kakaoRestApiKey;
+
+    @Override
+    public String lookup(double lat, double lng) {
+        if (kakaoRestApiKey == null || kakaoRestApiKey.isEmpty()) {
+            return null;
+        }
+        URI uri = UriComponentsBuilder.fromUriString(COORD2REGION_URL)
+                .queryParam("x", lng)
+                .queryParam("y", lat)
+                .build()
+                .toUri();
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Authorization", "KakaoAK " + kakaoRestApiKey);
+        ResponseEntity<String> response = restTemplate.exchange(uri, HttpMethod.GET, new HttpEntity<>(headers), String.class);
+
+        try {
+            JsonNode documents = objectMapper.readTree(response.getBody()).path("documents");
+            if (!documents.isArray() || documents.isEmpty()) {
+                return null;
+            }
+            for (JsonNode doc : documents) {
+                if ("H".equals(doc.path("region_type").asText())) {
+                    return doc.path("address_name").asText();
+                }
+            }
+            return documents.get(0).path("address_name").asText();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Kakao 주소 응답 파싱 실패", e);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.petlog.record.infrastructure.geocode;
+
+import com.petlog.record.infrastructure.weather.AsosStationCatalogue;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * 외부 API 없이 동작하는 역지오코딩 구현 (테스트/로컬 환경용)
+ * 가장 가까운 ASOS 관측소 이름으로 "OO 인근" 형태의 주소를 돌려줍니다.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "diary.geocode.provider", havingValue = "local")
+public class LocalReverseGeocoder implements ReverseGeocoder {
+
+    private final AsosStationCatalogue asosStationCatalogue;
+
+    @Override
+    public String lookup(double lat, double lng) {
+        AsosStationCatalogue.Station station = asosStationCatalogue.nearestStation(lat, lng);
+        return station != null ? station.name() + " 인근" : null;
+    }
+}
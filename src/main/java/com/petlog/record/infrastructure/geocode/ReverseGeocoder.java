@@ -0,0 +1,17 @@
+package com.petlog.record.infrastructure.geocode;
+
+/**
+ * 좌표 → 행정구역 주소 변환기
+ *
+ * 구현체는 diary.geocode.provider 값으로 선택됩니다.
+ * - kakao (기본값): Kakao Local coord2regioncode API
+ * - local: 외부 호출 없이 가장 가까운 ASOS 관측소 이름을 사용하는 테스트/로컬용 구현
+ */
+public interface ReverseGeocoder {
+
+    /**
+     * @return 행정동 주소, 해당 좌표에 주소가 없으면 null
+     * @throws RuntimeException 원격 호출 실패 (호출자가 캐시하지 않도록 예외로 전달)
+     */
+    String lookup(double lat, double lng);
+}
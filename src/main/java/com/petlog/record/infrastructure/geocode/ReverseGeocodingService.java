@@ -0,0 +1,130 @@
+package com.petlog.record.infrastructure.geocode;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.petlog.record.entity.GeocodeCacheEntry;
+import com.petlog.record.repository.jpa.GeocodeCacheRepository;
+import com.petlog.record.util.GeoHash;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * 역지오코딩 캐시 계층
+ *
+ * WHY 필요?
+ * - 위치명 없이 저장되는 일기마다 Kakao API 를 호출하면 같은 동네에서 반복 저장할 때도 매번 원격 호출이 발생
+ * - 좌표를 geohash 셀(기본 7자리 ≈ 150m)로 양자화하여 셀 단위로 주소를 캐시
+ *
+ * 조회 순서: 메모리(Caffeine) → GEOCODE_CACHE 테이블 → 원격(ReverseGeocoder, 셀 중심 좌표)
+ * - 같은 셀에 대한 동시 요청은 Caffeine 이 하나의 로드로 합쳐 원격 호출은 한 번만 발생
+ * - 주소가 없는 좌표(바다 등)는 메모리에만 짧게 캐시, 원격 오류는 캐시하지 않음
+ *
+ * @author diary-team
+ * @since 2026-01-05
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ReverseGeocodingService {
+
+    private final ReverseGeocoder reverseGeocoder;
+    private final GeocodeCacheRepository geocodeCacheRepository;
+    private final MeterRegistry meterRegistry;
+
+    // geohash 자릿수 (7 ≈ 153m x 153m)
+    @Value("${diary.geocode.precision:7}")
+    private int precision;
+
+    @Value("${diary.geocode.cache.max-size:50000}")
+    private long cacheMaxSize;
+
+    // 주소가 없는 셀을 메모리에 유지하는 시간
+    @Value("${diary.geocode.cache.negative-ttl-minutes:60}")
+    private long negativeTtlMinutes;
+
+    private Cache<String, Optional<String>> regionCache;
+
+    @PostConstruct
+    void initCache() {
+        this.regionCache = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfter(new Expiry<String, Optional<String>>() {
+                    @Override
+                    public long expireAfterCreate(String key, Optional<String> value, long currentTime) {
+                        return value.isPresent() ? Long.MAX_VALUE : Duration.ofMinutes(negativeTtlMinutes).toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Optional<String> value, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, value, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Optional<String> value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, regionCache, "geocode.region");
+    }
+
+    /**
+     * 좌표의 행정동 주소 (없거나 조회 실패 시 null)
+     */
+    public String resolve(double lat, double lng) {
+        String key = GeoHash.encode(lat, lng, precision);
+        try {
+            Optional<String> address = regionCache.get(key, k -> loadAll(Set.of(k)).get(k));
+            return address != null ? address.orElse(null) : null;
+        } catch (Exception e) {
+            log.warn("주소 변환 실패 (geohash: {}): {}", key, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 캐시 미스 셀 로드: DB 에서 한 번에 조회한 뒤 남은 셀만 원격 호출합니다.
+     * 원격 호출이 실패한 셀은 결과에서 빠지므로 캐시되지 않습니다.
+     */
+    private Map<String, Optional<String>> loadAll(Set<? extends String> keys) {
+        Map<String, Optional<String>> result = new HashMap<>();
+        for (GeocodeCacheEntry entry : geocodeCacheRepository.findAllById(new ArrayList<String>(keys))) {
+            result.put(entry.getGeohash(), Optional.of(entry.getAddressName()));
+        }
+
+        for (String key : keys) {
+            if (result.containsKey(key)) {
+                continue;
+            }
+            double[] center = GeoHash.decodeCenter(key);
+            try {
+                String address = reverseGeocoder.lookup(center[0], center[1]);
+                meterRegistry.counter("geocode.remote.calls", "result", address != null ? "found" : "empty").increment();
+                if (address != null && !address.isBlank()) {
+                    geocodeCacheRepository.insertIfAbsent(key, address);
+                    result.put(key, Optional.of(address));
+                } else {
+                    result.put(key, Optional.empty());
+                }
+            } catch (Exception e) {
+                meterRegistry.counter("geocode.remote.calls", "result", "error").increment();
+                log.warn("원격 주소 변환 실패 (geohash: {}): {}", key, e.getMessage());
+            }
+        }
+        return result;
+    }
+}
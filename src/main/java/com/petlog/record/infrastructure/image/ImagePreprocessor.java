@@ -0,0 +1,371 @@
+package com.petlog.record.infrastructure.image;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.petlog.record.config.AsyncConfig;
+import com.petlog.record.exception.BusinessException;
+import com.petlog.record.exception.ErrorCode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.model.Media;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.client.RestTemplate;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.net.URL;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 비전 모델 전송 전 이미지 전처리 (다운로드 → 형식 판별 → 축소 → JPEG 재인코딩)
+ *
+ * WHY 필요?
+ * - 이미지 URL 을 그대로 넘기면 공급자가 원본 해상도(최대 10MB) 사진을 매번 내려받아 지연과 토큰 비용이 커짐
+ * - 모든 이미지를 JPEG 로 가정하여 PNG/WEBP 등의 MIME 타입이 잘못 전달됨
+ * - 한 번 내려받아 실제 형식을 매직 바이트로 판별하고, 모델의 유효 해상도(긴 변 기준)로 축소한 뒤
+ *   URL 별로 캐시하여 base64 로 작게 전송
+ *
+ * 다운로드/디코딩에 실패하거나 지원하지 않는 형식이면 기존처럼 URL 을 그대로 전달합니다.
+ * 사용자가 보낸 URL 을 서버가 직접 요청하므로(SSRF), allowed-hosts 에 있는 호스트만 내려받고
+ * 사설/루프백/링크 로컬 주소로 해석되는 호스트와 리다이렉트는 거부합니다.
+ *
+ * @author diary-team
+ * @since 2026-01-05
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ImagePreprocessor {
+
+    private static final MimeType IMAGE_WEBP = MimeType.valueOf("image/webp");
+    private static final MimeType IMAGE_HEIC = MimeType.valueOf("image/heic");
+    private static final Set<String> HEIC_BRANDS = Set.of("heic", "heix", "hevc", "hevx", "mif1", "msf1");
+
+    private static final int CONNECT_TIMEOUT_MS = 5000;
+
+    private final MeterRegistry meterRegistry;
+
+    @Qualifier(AsyncConfig.IMAGE_PREPROCESS_EXECUTOR)
+    private final Executor imagePreprocessExecutor;
+
+    // 비전 모델 유효 해상도 (긴 변 픽셀)
+    @Value("${diary.preview.image.max-edge:1024}")
+    private int maxEdge;
+
+    @Value("${diary.preview.image.jpeg-quality:0.85}")
+    private float jpegQuality;
+
+    // 이 크기를 넘는 원본은 내려받지 않고 URL 로 전달
+    @Value("${diary.preview.image.max-download-bytes:20971520}")
+    private int maxDownloadBytes;
+
+    // 축소하지 못한 원본은 이 크기 이하일 때만 base64 로 전송 (초과 시 URL 로 전달, 캐시하지 않음)
+    @Value("${diary.preview.image.max-inline-bytes:1048576}")
+    private int maxInlineBytes;
+
+    // 이미지 1장 전처리 제한 시간 (초과 시 URL 로 전달)
+    @Value("${diary.preview.image.timeout-ms:10000}")
+    private long timeoutMs;
+
+    // 서버에서 직접 내려받을 호스트 (이미지 저장소 호스트, 비어 있으면 내려받지 않고 URL 로 전달)
+    @Value("${diary.preview.image.allowed-hosts:}")
+    private Set<String> allowedHosts;
+
+    @Value("${diary.preview.image.cache.max-bytes:134217728}")
+    private long cacheMaxBytes;
+
+    @Value("${diary.preview.image.cache.ttl-minutes:60}")
+    private long cacheTtlMinutes;
+
+    private RestTemplate restTemplate;
+    private Cache<String, PreparedImage> cache;
+    private Counter originalBytesCounter;
+    private Counter sentBytesCounter;
+    private Counter fallbackCounter;
+
+    @PostConstruct
+    void init() {
+        // 공용 RestTemplate 과 달리 리다이렉트를 따라가지 않음 (허용 호스트 → 내부 주소로 우회 방지)
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory() {
+            @Override
+            protected void prepareConnection(HttpURLConnection connection, String httpMethod) throws IOException {
+                super.prepareConnection(connection, httpMethod);
+                connection.setInstanceFollowRedirects(false);
+            }
+        };
+        requestFactory.setConnectTimeout(CONNECT_TIMEOUT_MS);
+        requestFactory.setReadTimeout((int) timeoutMs);
+        this.restTemplate = new RestTemplate(requestFactory);
+
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(cacheMaxBytes)
+                .weigher((String url, PreparedImage image) -> image.bytes().length)
+                .expireAfterAccess(Duration.ofMinutes(cacheTtlMinutes))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "diary.preview.image");
+        this.originalBytesCounter = meterRegistry.counter("diary.preview.image.bytes", "stage", "original");
+        this.sentBytesCounter = meterRegistry.counter("diary.preview.image.bytes", "stage", "sent");
+        this.fallbackCounter = meterRegistry.counter("diary.preview.image.fallback");
+    }
+
+    /**
+     * 이미지 URL 목록을 모델 전송용 Media 로 변환합니다. (이미지별 병렬 처리, 순서 유지)
+     */
+    public List<Media> toMediaList(List<String> imageUrls) {
+        List<CompletableFuture<Media>> futures = imageUrls.stream()
+                .map(url -> CompletableFuture.supplyAsync(() -> toMedia(url), imagePreprocessExecutor)
+                        .orTimeout(timeoutMs, TimeUnit.MILLISECONDS)
+                        .exceptionally(e -> {
+                            log.warn("이미지 전처리 실패, URL 로 전달: {} ({})", url, e.getMessage());
+                            return urlMedia(url);
+                        }))
+                .toList();
+        return futures.stream().map(this::await).toList();
+    }
+
+    private Media await(CompletableFuture<Media> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
+    }
+
+    private Media toMedia(String url) {
+        PreparedImage image = cache.getIfPresent(url);
+        if (image == null) {
+            // 네트워크 다운로드는 캐시 잠금 밖에서 수행 (동시 요청 시 중복 다운로드는 허용)
+            image = prepare(url);
+            if (image == null) {
+                return urlMedia(url);
+            }
+            cache.put(url, image);
+        }
+        sentBytesCounter.increment(image.bytes().length);
+        return new Media(image.mimeType(), new ByteArrayResource(image.bytes()));
+    }
+
+    private PreparedImage prepare(String url) {
+        URI uri;
+        try {
+            uri = URI.create(url);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        if (!isFetchable(uri)) {
+            return null;
+        }
+
+        byte[] original;
+        try {
+            original = restTemplate.execute(uri, HttpMethod.GET, null,
+                    response -> response.getStatusCode().is2xxSuccessful()
+                            ? response.getBody().readNBytes(maxDownloadBytes + 1)
+                            : null);
+        } catch (Exception e) {
+            log.warn("이미지 다운로드 실패: {} ({})", url, e.getMessage());
+            return null;
+        }
+        if (original == null || original.length == 0 || original.length > maxDownloadBytes) {
+            return null;
+        }
+        originalBytesCounter.increment(original.length);
+
+        MimeType mimeType = detectMimeType(original);
+        if (mimeType == null || IMAGE_HEIC.equals(mimeType)) {
+            // 판별 불가/모델 미지원 형식은 URL 전달 (기존 동작 유지)
+            return null;
+        }
+        try {
+            byte[] resized = downscale(original);
+            if (resized != null) {
+                log.debug("이미지 축소: {} ({} → {} bytes)", url, original.length, resized.length);
+                return new PreparedImage(MimeTypeUtils.IMAGE_JPEG, resized);
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("이미지 축소 실패, 원본 전송: {} ({})", url, e.getMessage());
+        }
+        // 축소하지 못한 원본(이미 작은 해상도, WEBP 등 ImageIO 미지원, 디코딩 실패)은 작을 때만 실제 MIME 타입으로 전송
+        // 큰 원본을 base64 로 넣으면 요청이 커지고 캐시를 차지하므로 URL 로 전달
+        if (original.length > maxInlineBytes) {
+            log.debug("축소하지 못한 원본이 커서 URL 로 전달: {} ({} bytes)", url, original.length);
+            return null;
+        }
+        return new PreparedImage(mimeType, original);
+    }
+
+    private boolean isFetchable(URI uri) {
+        String scheme = uri.getScheme();
+        if (!"http".equalsIgnoreCase(scheme) && !"https".equalsIgnoreCase(scheme) || uri.getHost() == null) {
+            return false;
+        }
+        if (!allowedHosts.contains(uri.getHost().toLowerCase())) {
+            return false;
+        }
+        try {
+            for (InetAddress address : InetAddress.getAllByName(uri.getHost())) {
+                if (isInternal(address)) {
+                    log.warn("내부 주소로 해석되는 이미지 호스트, 내려받지 않음: {} → {}", uri.getHost(), address.getHostAddress());
+                    return false;
+                }
+            }
+            return true;
+        } catch (UnknownHostException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 사설/루프백/링크 로컬(클라우드 메타데이터 169.254.x.x 포함)/와일드카드/멀티캐스트 주소 여부
+     */
+    static boolean isInternal(InetAddress address) {
+        if (address.isLoopbackAddress() || address.isSiteLocalAddress() || address.isLinkLocalAddress()
+                || address.isAnyLocalAddress() || address.isMulticastAddress()) {
+            return true;
+        }
+        // IPv6 고유 로컬 주소 (fc00::/7)
+        byte[] bytes = address.getAddress();
+        return bytes.length == 16 && (bytes[0] & 0xFE) == 0xFC;
+    }
+
+    /**
+     * 긴 변이 max-edge 를 넘으면 축소한 JPEG 를 반환합니다. (축소가 필요 없거나 디코딩할 수 없으면 null)
+     * 큰 원본은 서브샘플링으로 디코딩하여 전체 해상도 비트맵을 메모리에 올리지 않습니다.
+     */
+    private byte[] downscale(byte[] original) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(new ByteArrayInputStream(original))) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int longEdge = Math.max(reader.getWidth(0), reader.getHeight(0));
+                if (longEdge <= maxEdge) {
+                    return null;
+                }
+
+                ImageReadParam param = reader.getDefaultReadParam();
+                int subsampling = longEdge / maxEdge;
+                if (subsampling > 1) {
+                    param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                }
+                BufferedImage decoded = reader.read(0, param);
+
+                double scale = (double) maxEdge / Math.max(decoded.getWidth(), decoded.getHeight());
+                int width = Math.max(1, (int) Math.round(decoded.getWidth() * scale));
+                int height = Math.max(1, (int) Math.round(decoded.getHeight() * scale));
+                BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+                Graphics2D graphics = target.createGraphics();
+                try {
+                    graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                    graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                    // 투명 영역은 흰 배경으로 (JPEG 는 알파 채널 없음)
+                    graphics.setColor(Color.WHITE);
+                    graphics.fillRect(0, 0, width, height);
+                    graphics.drawImage(decoded, 0, 0, width, height, null);
+                } finally {
+                    graphics.dispose();
+                }
+                return encodeJpeg(target);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private byte[] encodeJpeg(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (ImageOutputStream stream = ImageIO.createImageOutputStream(output)) {
+            writer.setOutput(stream);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(jpegQuality);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return output.toByteArray();
+    }
+
+    /**
+     * 매직 바이트로 실제 이미지 형식을 판별합니다. (확장자/Content-Type 헤더는 신뢰하지 않음)
+     */
+    static MimeType detectMimeType(byte[] bytes) {
+        if (bytes.length >= 3 && (bytes[0] & 0xFF) == 0xFF && (bytes[1] & 0xFF) == 0xD8 && (bytes[2] & 0xFF) == 0xFF) {
+            return MimeTypeUtils.IMAGE_JPEG;
+        }
+        if (bytes.length >= 8 && (bytes[0] & 0xFF) == 0x89 && ascii(bytes, 1, 3).equals("PNG")) {
+            return MimeTypeUtils.IMAGE_PNG;
+        }
+        if (bytes.length >= 6 && ascii(bytes, 0, 4).equals("GIF8")) {
+            return MimeTypeUtils.IMAGE_GIF;
+        }
+        if (bytes.length >= 12 && ascii(bytes, 0, 4).equals("RIFF") && ascii(bytes, 8, 4).equals("WEBP")) {
+            return IMAGE_WEBP;
+        }
+        if (bytes.length >= 12 && ascii(bytes, 4, 4).equals("ftyp") && HEIC_BRANDS.contains(ascii(bytes, 8, 4))) {
+            return IMAGE_HEIC;
+        }
+        return null;
+    }
+
+    private static String ascii(byte[] bytes, int offset, int length) {
+        return new String(bytes, offset, length, StandardCharsets.US_ASCII);
+    }
+
+    // 전처리 불가 시 기존 방식 (공급자가 URL 에서 직접 다운로드)
+    private Media urlMedia(String url) {
+        fallbackCounter.increment();
+        try {
+            return new Media(MimeTypeUtils.IMAGE_JPEG, new URL(url));
+        } catch (MalformedURLException e) {
+            throw new BusinessException(ErrorCode.INVALID_PARAMETER, "잘못된 이미지 URL: " + url);
+        }
+    }
+
+    private record PreparedImage(MimeType mimeType, byte[] bytes) {}
+}
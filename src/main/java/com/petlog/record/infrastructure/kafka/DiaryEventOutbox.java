@@ -0,0 +1,94 @@
+package com.petlog.record.infrastructure.kafka;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.petlog.record.dto.DiaryEventMessage;
+import com.petlog.record.entity.DiaryOutboxEvent;
+import com.petlog.record.exception.BusinessException;
+import com.petlog.record.exception.ErrorCode;
+import com.petlog.record.repository.jpa.DiaryOutboxRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * Diary Event Outbox Writer
+ *
+ * WHY 필요?
+ * - KafkaTemplate 직접 호출은 Kafka 장애 시 이벤트가 유실되고, 요청 스레드가 max.block.ms 만큼 멈춤
+ * - 이벤트를 Diary 와 같은 트랜잭션에서 DIARY_OUTBOX 에 기록하고, DiaryOutboxRelay 가 비동기로 전달
+ *
+ * @author diary-team
+ * @since 2026-01-05
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DiaryEventOutbox {
+
+    private final DiaryOutboxRepository diaryOutboxRepository;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Diary 생성 이벤트 기록
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void diaryCreated(Long diaryId, Long userId, Long petId, String content, String imageUrl) {
+        append(DiaryEventMessage.builder()
+                .eventType("DIARY_CREATED")
+                .diaryId(diaryId)
+                .userId(userId)
+                .petId(petId)
+                .content(content)
+                .imageUrl(imageUrl)
+                .createdAt(LocalDateTime.now())
+                .build());
+    }
+
+    /**
+     * Diary 수정 이벤트 기록
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void diaryUpdated(Long diaryId, Long userId, Long petId, String content) {
+        append(DiaryEventMessage.builder()
+                .eventType("DIARY_UPDATED")
+                .diaryId(diaryId)
+                .userId(userId)
+                .petId(petId)
+                .content(content)
+                .createdAt(LocalDateTime.now())
+                .build());
+    }
+
+    /**
+     * Diary 삭제 이벤트 기록
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void diaryDeleted(Long diaryId, Long userId, Long petId) {
+        append(DiaryEventMessage.builder()
+                .eventType("DIARY_DELETED")
+                .diaryId(diaryId)
+                .userId(userId)
+                .petId(petId)
+                .createdAt(LocalDateTime.now())
+                .build());
+    }
+
+    private void append(DiaryEventMessage message) {
+        try {
+            diaryOutboxRepository.save(DiaryOutboxEvent.builder()
+                    .aggregateId(message.getDiaryId())
+                    .partitionKey(message.getUserId().toString())
+                    .eventType(message.getEventType())
+                    .payload(objectMapper.writeValueAsString(message))
+                    .build());
+            log.debug("Outbox 기록 - {} diaryId: {}", message.getEventType(), message.getDiaryId());
+        } catch (JsonProcessingException e) {
+            throw new BusinessException(ErrorCode.INTERNAL_SERVER_ERROR, "다이어리 이벤트 직렬화 실패", e);
+        }
+    }
+}
@@ -26,6 +26,15 @@ public class DiaryEventProducer {
 
     private static final String TOPIC = "diary-events";
 
+    /**
+     * Outbox 릴레이용 전송
+     *
+     * 결과(Future)를 호출 측에서 확인하여 전송 완료 여부를 기록합니다.
+     */
+    public CompletableFuture<SendResult<String, Object>> send(String key, DiaryEventMessage message) {
+        return kafkaTemplate.send(TOPIC, key, message);
+    }
+
     /**
      * Diary 생성 이벤트 발행
      */
@@ -0,0 +1,186 @@
+package com.petlog.record.infrastructure.kafka;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.petlog.record.dto.DiaryEventMessage;
+import com.petlog.record.entity.DiaryOutboxEvent;
+import com.petlog.record.repository.jdbc.AdvisoryLockRepository;
+import com.petlog.record.repository.jpa.DiaryOutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Diary Outbox Relay
+ *
+ * DIARY_OUTBOX 에 쌓인 이벤트를 생성 순서(id)대로 배치 전송합니다.
+ * - 같은 userId 키의 이벤트는 앞 이벤트의 전송 확인 후에 보내고, 실패하면 해당 키의 이후 이벤트는 이번 배치에서 보내지 않음
+ *   (다음 주기에 실패 지점부터 다시 전송 → at-least-once, 키 단위 순서 유지)
+ * - 여러 인스턴스가 떠 있어도 세션 advisory lock 으로 하나의 릴레이만 동작
+ * - 조회/완료 기록은 각각 짧은 트랜잭션으로 처리하여 Kafka 전송 대기 중에 트랜잭션을 열어 두지 않음
+ *
+ * @author diary-team
+ * @since 2026-01-05
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DiaryOutboxRelay {
+
+    // pg_try_advisory_lock 키 (임의의 고정값)
+    private static final long RELAY_LOCK_KEY = 7_320_240_105L;
+
+    private final DiaryOutboxRepository diaryOutboxRepository;
+    private final AdvisoryLockRepository advisoryLockRepository;
+    private final DiaryEventProducer diaryEventProducer;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${diary.outbox.batch-size:200}")
+    private int batchSize;
+
+    @Value("${diary.outbox.send-timeout-ms:10000}")
+    private long sendTimeoutMs;
+
+    @Value("${diary.outbox.retention-days:3}")
+    private int retentionDays;
+
+    private final AtomicLong lagSeconds = new AtomicLong();
+    private final AtomicLong pending = new AtomicLong();
+
+    private Counter publishedCounter;
+    private Counter failedCounter;
+
+    @PostConstruct
+    void registerMetrics() {
+        Gauge.builder("diary.outbox.relay.lag.seconds", lagSeconds, AtomicLong::get)
+                .description("가장 오래된 미전송 Outbox 이벤트의 대기 시간")
+                .register(meterRegistry);
+        Gauge.builder("diary.outbox.pending", pending, AtomicLong::get)
+                .description("미전송 Outbox 이벤트 수")
+                .register(meterRegistry);
+        this.publishedCounter = meterRegistry.counter("diary.outbox.events", "result", "published");
+        this.failedCounter = meterRegistry.counter("diary.outbox.events", "result", "failed");
+    }
+
+    @Scheduled(fixedDelayString = "${diary.outbox.relay-interval-ms:1000}")
+    public void relay() {
+        try {
+            advisoryLockRepository.runExclusively(RELAY_LOCK_KEY, () -> {
+                int relayed;
+                do {
+                    relayed = relayBatch();
+                } while (relayed >= batchSize);
+            });
+        } catch (Exception e) {
+            log.error("Outbox 릴레이 실패: {}", e.getMessage(), e);
+        } finally {
+            updateLagMetrics();
+        }
+    }
+
+    /**
+     * 전송 완료 후 보존 기간이 지난 이벤트 정리 (매일 새벽 4시)
+     */
+    @Scheduled(cron = "0 0 4 * * *")
+    public void purgePublished() {
+        Integer deleted = transactionTemplate.execute(status ->
+                diaryOutboxRepository.deletePublishedBefore(LocalDateTime.now().minusDays(retentionDays)));
+        log.info("[Outbox] 전송 완료 이벤트 {}건 정리", deleted);
+    }
+
+    private int relayBatch() {
+        List<DiaryOutboxEvent> events = transactionTemplate.execute(status ->
+                diaryOutboxRepository.findUnpublishedBatch(batchSize));
+        if (events == null || events.isEmpty()) {
+            return 0;
+        }
+
+        // 1. 키별로 생성 순서를 유지하여 묶음
+        Map<String, Deque<DiaryOutboxEvent>> byKey = new LinkedHashMap<>();
+        for (DiaryOutboxEvent event : events) {
+            byKey.computeIfAbsent(event.getPartitionKey(), key -> new ArrayDeque<>()).add(event);
+        }
+
+        // 2. 라운드마다 키별 다음 이벤트 하나씩만 전송 (키 간에는 파이프라이닝, 같은 키는 앞 이벤트 확인 후 전송)
+        //    실패한 키는 남은 이벤트를 보내지 않음 → 다음 주기에 실패 지점부터 순서대로 재전송
+        List<Long> publishedIds = new ArrayList<>(events.size());
+        Map<Long, String> failures = new LinkedHashMap<>();
+        while (!byKey.isEmpty()) {
+            Map<DiaryOutboxEvent, CompletableFuture<SendResult<String, Object>>> round = new LinkedHashMap<>();
+            byKey.values().forEach(queue -> {
+                DiaryOutboxEvent event = queue.poll();
+                round.put(event, send(event));
+            });
+            round.forEach((event, future) -> {
+                try {
+                    future.get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+                    publishedIds.add(event.getId());
+                } catch (Exception e) {
+                    byKey.remove(event.getPartitionKey());
+                    failures.put(event.getId(), e.getMessage());
+                    log.warn("Outbox 이벤트 전송 실패 - id: {}, diaryId: {}, attempts: {}",
+                            event.getId(), event.getAggregateId(), event.getAttempts() + 1);
+                }
+            });
+            byKey.values().removeIf(Deque::isEmpty);
+        }
+
+        // 3. 결과 기록은 Kafka I/O 가 끝난 뒤 짧은 트랜잭션으로
+        LocalDateTime now = LocalDateTime.now();
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!publishedIds.isEmpty()) {
+                diaryOutboxRepository.markPublished(publishedIds, now);
+            }
+            diaryOutboxRepository.findAllById(failures.keySet())
+                    .forEach(event -> event.markFailed(failures.get(event.getId())));
+        });
+
+        publishedCounter.increment(publishedIds.size());
+        failedCounter.increment(events.size() - publishedIds.size());
+        log.debug("[Outbox] {}건 중 {}건 전송 완료", events.size(), publishedIds.size());
+
+        // 실패가 있었다면 다음 주기까지 대기 (연속 재시도 방지)
+        return failures.isEmpty() ? events.size() : 0;
+    }
+
+    private CompletableFuture<SendResult<String, Object>> send(DiaryOutboxEvent event) {
+        try {
+            DiaryEventMessage message = objectMapper.readValue(event.getPayload(), DiaryEventMessage.class);
+            return diaryEventProducer.send(event.getPartitionKey(), message);
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private void updateLagMetrics() {
+        try {
+            pending.set(diaryOutboxRepository.countByPublishedAtIsNull());
+            lagSeconds.set(diaryOutboxRepository.findOldestUnpublishedCreatedAt()
+                    .map(oldest -> Duration.between(oldest, LocalDateTime.now()).toSeconds())
+                    .orElse(0L));
+        } catch (Exception e) {
+            log.debug("Outbox 지표 갱신 실패: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,396 @@
+package com.petlog.record.infrastructure.milvus;
+
+import com.petlog.record.entity.Diary;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.milvus.client.MilvusClient;
+import io.milvus.param.R;
+import io.milvus.param.collection.FlushParam;
+import io.milvus.param.collection.HasCollectionParam;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 일기 벡터 적재 파이프라인 (Milvus)
+ *
+ * WHY 필요?
+ * - 일기 저장/수정마다 요청 스레드에서 임베딩 호출 + insert + flush 를 수행하면 쓰기 지연이 커짐
+ * - 커밋 이후 큐에 넣고, 전용 워커가 마이크로 배치(개수/시간 제한)로 묶어 한 번에 임베딩 및 insert
+ * - flush 는 쓰기마다가 아니라 주기적으로 한 번만 수행
+ * - 문서 ID 를 diaryId 로 고정하고 배치마다 "같은 ID 삭제 → insert" 로 처리하여 수정 시 중복 벡터가 쌓이지 않도록 함
+ *   (Spring AI VectorStore 에는 upsert 가 없고 Milvus insert 는 기본 키 중복을 막지 않음)
+ * - 삭제도 같은 큐를 거치므로 적재 대기 중인 문서보다 먼저 지워져 다시 살아나는 일이 없음
+ *
+ * @author diary-team
+ * @since 2026-01-05
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DiaryVectorIndexer {
+
+    private final VectorStore vectorStore;
+    private final DiaryVectorPartitions diaryVectorPartitions;
+    private final MilvusClient milvusClient;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${spring.ai.vectorstore.milvus.collection-name:vector_store}")
+    private String collectionName;
+
+    // 한 번에 임베딩/insert 할 최대 문서 수
+    @Value("${diary.vector.ingest.batch-size:32}")
+    private int batchSize;
+
+    // 첫 문서를 받은 뒤 배치를 채우기 위해 기다리는 최대 시간
+    @Value("${diary.vector.ingest.max-wait-ms:500}")
+    private long maxWaitMs;
+
+    // 큐 용량 (가득 차면 enqueue-timeout 동안만 대기 후 거절)
+    @Value("${diary.vector.ingest.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${diary.vector.ingest.enqueue-timeout-ms:100}")
+    private long enqueueTimeoutMs;
+
+    @Value("${diary.vector.ingest.max-retries:3}")
+    private int maxRetries;
+
+    @Value("${diary.vector.ingest.retry-backoff-ms:1000}")
+    private long retryBackoffMs;
+
+    private BlockingQueue<VectorOp> queue;
+    private Thread worker;
+    // 대량 적재(일괄 가져오기) 문서를 큐 여유에 맞춰 천천히 밀어 넣는 백그라운드 스레드
+    private ExecutorService bulkFeeder;
+    private volatile boolean running;
+
+    // 마지막 flush 이후 insert 가 있었는지 여부
+    private final AtomicBoolean dirty = new AtomicBoolean(false);
+
+    private Timer batchTimer;
+    private Counter indexedCounter;
+    private Counter deletedCounter;
+    private Counter rejectedCounter;
+    private Counter failedCounter;
+
+    @PostConstruct
+    void start() {
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+
+        Gauge.builder("diary.vector.ingest.queue.depth", queue, BlockingQueue::size)
+                .description("Milvus 적재 대기 중인 일기 문서 수")
+                .register(meterRegistry);
+        this.batchTimer = Timer.builder("diary.vector.ingest.batch.latency")
+                .description("배치 임베딩 + insert 소요 시간")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.indexedCounter = meterRegistry.counter("diary.vector.ingest.documents", "result", "indexed");
+        this.deletedCounter = meterRegistry.counter("diary.vector.ingest.documents", "result", "deleted");
+        this.rejectedCounter = meterRegistry.counter("diary.vector.ingest.documents", "result", "rejected");
+        this.failedCounter = meterRegistry.counter("diary.vector.ingest.documents", "result", "failed");
+
+        this.running = true;
+        this.worker = new Thread(this::runLoop, "diary-vector-indexer");
+        this.worker.setDaemon(true);
+        this.worker.start();
+        this.bulkFeeder = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "diary-vector-bulk-feeder");
+            thread.setDaemon(true);
+            return thread;
+        });
+        log.info("Milvus 적재 파이프라인 시작 (batchSize: {}, maxWaitMs: {}, capacity: {})", batchSize, maxWaitMs, queueCapacity);
+    }
+
+    @PreDestroy
+    void stop() {
+        bulkFeeder.shutdownNow();
+        running = false;
+        worker.interrupt();
+        try {
+            worker.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // 종료 전에 남은 문서를 최대한 적재
+        List<VectorOp> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        for (int i = 0; i < remaining.size(); i += batchSize) {
+            indexWithRetry(remaining.subList(i, Math.min(i + batchSize, remaining.size())));
+        }
+        flushIfDirty();
+    }
+
+    /**
+     * 일기 트랜잭션이 커밋된 뒤에만 큐에 적재합니다.
+     * 롤백된 일기가 벡터 DB에 남지 않도록 AFTER_COMMIT 단계에서 처리합니다.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void handleIndexRequest(IndexRequest request) {
+        enqueue(request.document());
+    }
+
+    /**
+     * 삭제된 일기의 벡터도 커밋 이후 같은 큐를 통해 삭제합니다.
+     * (거절되더라도 DiaryVectorReconciler 가 고아 벡터로 정리)
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void handleDeleteRequest(DeleteRequest request) {
+        offer(VectorOp.delete(documentId(request.diaryId())));
+    }
+
+    /**
+     * 일괄 가져오기 등 대량 적재 요청은 커밋 후 백그라운드에서 큐에 넣습니다.
+     * 요청 스레드를 붙잡지 않고, 큐가 차 있으면 거절 대신 여유가 생길 때까지 기다립니다.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void handleBulkIndexRequest(BulkIndexRequest request) {
+        enqueueAll(request.documents());
+    }
+
+    /**
+     * 여러 문서를 백그라운드에서 큐에 넣습니다. (큐가 차 있으면 여유가 생길 때까지 대기)
+     */
+    public void enqueueAll(List<Document> documents) {
+        bulkFeeder.execute(() -> {
+            try {
+                for (Document document : documents) {
+                    queue.put(VectorOp.upsert(document));
+                }
+                log.info("Milvus 대량 적재 요청 {}건 큐 등록 완료", documents.size());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                log.warn("Milvus 대량 적재 큐 등록 중단 (종료)");
+            }
+        });
+    }
+
+    /**
+     * 큐에 문서를 추가합니다. 큐가 가득 차면 짧게 대기한 뒤 거절합니다 (backpressure).
+     */
+    public boolean enqueue(Document document) {
+        return offer(VectorOp.upsert(document));
+    }
+
+    private boolean offer(VectorOp op) {
+        try {
+            if (queue.offer(op, enqueueTimeoutMs, TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        rejectedCounter.increment();
+        log.warn("Milvus 적재 큐가 가득 차 요청을 거절했습니다. 문서 ID: {}", op.id());
+        return false;
+    }
+
+    /**
+     * 주기적인 flush (쓰기마다 flush 하지 않음)
+     */
+    @Scheduled(fixedDelayString = "${diary.vector.ingest.flush-interval-ms:10000}")
+    public void scheduledFlush() {
+        flushIfDirty();
+    }
+
+    private void runLoop() {
+        while (running) {
+            try {
+                List<VectorOp> batch = nextBatch();
+                if (!batch.isEmpty()) {
+                    indexWithRetry(batch);
+                }
+            } catch (InterruptedException e) {
+                // stop() 에서만 인터럽트하므로 종료 신호로 간주
+                return;
+            } catch (Exception e) {
+                log.error("Milvus 적재 워커 오류: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * 첫 문서를 기다린 뒤, batch-size 또는 max-wait-ms 중 먼저 도달하는 조건까지 문서를 모읍니다.
+     */
+    private List<VectorOp> nextBatch() throws InterruptedException {
+        List<VectorOp> batch = new ArrayList<>(batchSize);
+        VectorOp first = queue.poll(1, TimeUnit.SECONDS);
+        if (first == null) {
+            return batch;
+        }
+        batch.add(first);
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+        while (batch.size() < batchSize) {
+            queue.drainTo(batch, batchSize - batch.size());
+            long remainingNanos = deadline - System.nanoTime();
+            if (batch.size() >= batchSize || remainingNanos <= 0) {
+                break;
+            }
+            VectorOp next = queue.poll(remainingNanos, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                break;
+            }
+            batch.add(next);
+        }
+        return batch;
+    }
+
+    private void indexWithRetry(List<VectorOp> batch) {
+        // 같은 문서 ID 는 마지막 요청만 반영 (생성 직후 수정/삭제가 한 배치에 모인 경우)
+        Map<String, VectorOp> latest = new LinkedHashMap<>();
+        for (VectorOp op : batch) {
+            latest.remove(op.id());
+            latest.put(op.id(), op);
+        }
+        List<String> ids = new ArrayList<>(latest.keySet());
+        List<Document> upserts = latest.values().stream()
+                .map(VectorOp::document)
+                .filter(Objects::nonNull)
+                .toList();
+
+        for (int attempt = 1; attempt <= maxRetries; attempt++) {
+            try {
+                // 기존 벡터를 먼저 지우고 (없으면 무시됨) 새 문서만 insert → diaryId 당 벡터 1개 유지
+                // 배치 전체를 한 번에 임베딩하고 작성자 샤드 파티션별로 insert (_default 이동과는 직렬화)
+                batchTimer.record(() -> diaryVectorPartitions.replace(ids, upserts, () -> vectorStore.delete(ids)));
+                dirty.set(true);
+                indexedCounter.increment(upserts.size());
+                deletedCounter.increment(ids.size() - upserts.size());
+                log.debug("Milvus 배치 반영 완료 - 적재 {}건, 삭제 {}건", upserts.size(), ids.size() - upserts.size());
+                return;
+            } catch (Exception e) {
+                log.warn("Milvus 배치 반영 실패 ({}/{}), {}건: {}", attempt, maxRetries, ids.size(), e.getMessage());
+                if (attempt < maxRetries && !sleepBackoff(attempt)) {
+                    break;
+                }
+            }
+        }
+        failedCounter.increment(ids.size());
+        log.error("Milvus 배치 반영 최종 실패 - 문서 ID: {}", ids);
+    }
+
+    private boolean sleepBackoff(int attempt) {
+        try {
+            Thread.sleep(retryBackoffMs * attempt);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void flushIfDirty() {
+        if (!dirty.getAndSet(false)) {
+            return;
+        }
+        try {
+            if (hasCollection(collectionName)) {
+                milvusClient.flush(FlushParam.newBuilder()
+                        .addCollectionName(collectionName)
+                        .build());
+                log.debug("Milvus Flush 완료: {}", collectionName);
+            }
+        } catch (Exception e) {
+            dirty.set(true);
+            log.warn("Milvus Flush 실패: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Milvus 컬렉션 존재 여부 확인
+     */
+    private boolean hasCollection(String name) {
+        try {
+            R<Boolean> response = milvusClient.hasCollection(HasCollectionParam.newBuilder()
+                    .withCollectionName(name)
+                    .build());
+            return response.getStatus() == R.Status.Success.getCode() && Boolean.TRUE.equals(response.getData());
+        } catch (Exception e) {
+            log.error("Milvus 컬렉션 확인 중 오류 발생: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Milvus 문서 ID (= diaryId 문자열, Spring AI 스키마의 doc_id 가 VarChar 기본 키)
+     */
+    public static String documentId(Long diaryId) {
+        return String.valueOf(diaryId);
+    }
+
+    /**
+     * 일기 → 벡터 문서 (ID = diaryId, 내용 + 검색 필터링용 메타데이터)
+     */
+    public static Document toDocument(Diary diary) {
+        Map<String, Object> metadata = new HashMap<>();
+        metadata.put("userId", diary.getUserId());
+        metadata.put("petId", diary.getPetId());
+        metadata.put("diaryId", diary.getDiaryId());
+        metadata.put("title", diary.getTitle()); // ✅ 검색 필터링/결과용 추가
+        if (diary.getDate() != null) metadata.put("date", diary.getDate().toString());
+        metadata.put("mood", diary.getMood());
+        if (diary.getWeather() != null) metadata.put("weather", diary.getWeather());
+        if (diary.getLocationName() != null) metadata.put("location", diary.getLocationName());
+        return new Document(documentId(diary.getDiaryId()), diary.getContent(), metadata);
+    }
+
+    /**
+     * 벡터 문서(본문 + 메타데이터)가 같은지 비교 - 같으면 재적재할 필요 없음 (예: 공개 범위만 변경)
+     */
+    public static boolean sameDocument(Document a, Document b) {
+        return Objects.equals(a.getContent(), b.getContent()) && Objects.equals(a.getMetadata(), b.getMetadata());
+    }
+
+    /**
+     * 적재 요청 이벤트 (트랜잭션 커밋 후 큐에 들어감)
+     */
+    public record IndexRequest(Document document) {}
+
+    /**
+     * 대량 적재 요청 이벤트 (트랜잭션 커밋 후 백그라운드에서 큐에 들어감)
+     */
+    public record BulkIndexRequest(List<Document> documents) {}
+
+    /**
+     * 삭제 요청 이벤트 (트랜잭션 커밋 후 큐에 들어감)
+     */
+    public record DeleteRequest(Long diaryId) {}
+
+    /**
+     * 큐 항목 (document 가 null 이면 삭제)
+     */
+    private record VectorOp(String id, Document document) {
+
+        static VectorOp upsert(Document document) {
+            return new VectorOp(document.getId(), document);
+        }
+
+        static VectorOp delete(String id) {
+            return new VectorOp(id, null);
+        }
+    }
+}
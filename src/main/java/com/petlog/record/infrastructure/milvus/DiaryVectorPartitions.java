@@ -0,0 +1,402 @@
+package com.petlog.record.infrastructure.milvus;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.petlog.record.config.MilvusVectorStoreConfig;
+import com.petlog.record.repository.jdbc.AdvisoryLockRepository;
+import io.milvus.client.MilvusClient;
+import io.milvus.common.clientenum.ConsistencyLevelEnum;
+import io.milvus.grpc.QueryResults;
+import io.milvus.param.R;
+import io.milvus.param.collection.HasCollectionParam;
+import io.milvus.param.collection.LoadCollectionParam;
+import io.milvus.param.dml.DeleteParam;
+import io.milvus.param.dml.InsertParam;
+import io.milvus.param.dml.QueryParam;
+import io.milvus.param.partition.CreatePartitionParam;
+import io.milvus.param.partition.HasPartitionParam;
+import io.milvus.response.QueryResultsWrapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 사용자 샤드 파티션 (hash(userId) → 고정 개수 파티션)
+ *
+ * WHY 필요?
+ * - 모든 사용자의 벡터가 컬렉션 하나(_default 파티션)에 있어, 한 사용자 검색도 전체 세그먼트를 필터링해야 함
+ * - userId 해시로 파티션을 정해 적재하고 검색은 해당 파티션만 대상으로 하여,
+ *   검색 비용이 전체 데이터가 아닌 그 샤드(사용자 데이터 + 같은 샤드의 일부 사용자) 크기에 비례하도록 함
+ *
+ * Spring AI MilvusVectorStore.add 는 파티션을 지정할 수 없어 insert 는 여기서 직접 수행합니다.
+ * (스키마/필드 이름은 MilvusVectorStore 와 동일, 삭제는 파티션 구분 없이 VectorStore.delete 사용)
+ * 파티션 수를 바꾸면 기존 문서의 위치가 달라지므로 운영 중에는 고정합니다.
+ *
+ * _default 파티션 이동은 advisory lock 으로 한 인스턴스에서만 실행하며, 이 인스턴스의 적재 배치(DiaryVectorIndexer)와는
+ * 같은 잠금(writeLock)으로 쓰기를 직렬화하고 이동 중 적재/삭제된 문서는 옮기지 않아 구버전 벡터가 되살아나지 않도록 합니다.
+ *
+ * @author diary-team
+ * @since 2026-01-05
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DiaryVectorPartitions {
+
+    private static final String DEFAULT_PARTITION = "_default";
+    private static final String DOC_ID_FIELD = "doc_id";
+    private static final String CONTENT_FIELD = "content";
+    private static final String METADATA_FIELD = "metadata";
+    private static final String EMBEDDING_FIELD = "embedding";
+
+    private final MilvusClient milvusClient;
+    private final AdvisoryLockRepository advisoryLockRepository;
+
+    @Qualifier(MilvusVectorStoreConfig.DOCUMENT_EMBEDDING_MODEL)
+    private final EmbeddingModel documentEmbeddingModel;
+
+    // 적재 배치와 _default 이동 쓰기의 직렬화
+    private final Object writeLock = new Object();
+
+    // 이동 중 적재 배치가 반영한 문서 ID (writeLock 보호, 이동 중이 아니면 null)
+    private Set<String> touchedIds;
+
+    @Value("${spring.ai.vectorstore.milvus.collection-name:vector_store}")
+    private String collectionName;
+
+    @Value("${diary.vector.partition.count:16}")
+    private int partitionCount;
+
+    @Value("${diary.vector.partition.prefix:user_shard_}")
+    private String partitionPrefix;
+
+    // 기동 시 _default 파티션에 남은 기존 문서를 사용자 샤드로 이동
+    @Value("${diary.vector.partition.migrate-default:true}")
+    private boolean migrateDefault;
+
+    @Value("${diary.vector.partition.migrate-batch-size:500}")
+    private int migrateBatchSize;
+
+    /**
+     * 사용자 샤드 파티션 이름 (userId 가 없으면 _default)
+     */
+    public String partitionOf(Long userId) {
+        if (userId == null) {
+            return DEFAULT_PARTITION;
+        }
+        return partitionPrefix + Math.floorMod(Long.hashCode(userId), partitionCount);
+    }
+
+    /**
+     * 파티션 생성은 인덱스 확인(MilvusIndexManager)보다 먼저 수행하여 로드 시 함께 적재되도록 함
+     */
+    @Order(0)
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensurePartitions() {
+        try {
+            if (!hasCollection()) {
+                log.info("Milvus 컬렉션 없음 - 파티션 생성 생략: {}", collectionName);
+                return;
+            }
+            int created = createPartitions(collectionName);
+            if (created > 0) {
+                loadNewPartitions();
+            }
+            log.info("Milvus 사용자 샤드 파티션 {}개 확인 (신규 {}개)", partitionCount, created);
+        } catch (Exception e) {
+            log.error("Milvus 파티션 생성 실패: {}", e.getMessage(), e);
+            return;
+        }
+        if (migrateDefault) {
+            Thread thread = new Thread(this::migrateDefaultPartition, "milvus-partition-migrate");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    /**
+     * 컬렉션에 사용자 샤드 파티션을 만듭니다. (이미 있으면 건너뜀, 인덱스 재구축용 새 컬렉션에도 사용)
+     *
+     * @return 새로 만든 파티션 수
+     */
+    public int createPartitions(String collection) {
+        int created = 0;
+        for (int shard = 0; shard < partitionCount; shard++) {
+            String partition = partitionPrefix + shard;
+            R<Boolean> exists = milvusClient.hasPartition(HasPartitionParam.newBuilder()
+                    .withCollectionName(collection)
+                    .withPartitionName(partition)
+                    .build());
+            if (exists.getStatus() == R.Status.Success.getCode() && Boolean.TRUE.equals(exists.getData())) {
+                continue;
+            }
+            check(milvusClient.createPartition(CreatePartitionParam.newBuilder()
+                    .withCollectionName(collection)
+                    .withPartitionName(partition)
+                    .build()), "createPartition");
+            created++;
+        }
+        return created;
+    }
+
+    // 이미 로드된 컬렉션에 새로 만든 파티션도 검색 대상이 되도록 다시 로드 (인덱스가 없으면 MilvusIndexManager 가 로드)
+    private void loadNewPartitions() {
+        R<?> response = milvusClient.loadCollection(LoadCollectionParam.newBuilder()
+                .withCollectionName(collectionName)
+                .build());
+        if (response.getStatus() != R.Status.Success.getCode()) {
+            log.warn("Milvus 컬렉션 로드 보류: {}", response.getMessage());
+        }
+    }
+
+    /**
+     * 적재 배치 반영: 문서를 임베딩한 뒤 기존 벡터를 지우고(delete) 작성자의 샤드 파티션별로 insert 합니다.
+     * 임베딩(원격 호출)은 잠금 밖에서, 삭제와 insert 는 _default 이동과 겹치지 않도록 writeLock 안에서 수행합니다.
+     *
+     * @param ids       배치의 문서 ID 전체 (삭제 대상 포함)
+     * @param documents insert 할 문서 (임베딩은 배치 전체 1회)
+     * @param delete    ids 의 기존 벡터 삭제
+     */
+    public void replace(List<String> ids, List<Document> documents, Runnable delete) {
+        List<float[]> vectors = documents.isEmpty()
+                ? List.of()
+                : documentEmbeddingModel.embed(documents.stream().map(Document::getContent).toList());
+        synchronized (writeLock) {
+            if (touchedIds != null) {
+                touchedIds.addAll(ids);
+            }
+            delete.run();
+            insert(documents, vectors);
+        }
+    }
+
+    private void insert(List<Document> documents, List<float[]> vectors) {
+        if (documents.isEmpty()) {
+            return;
+        }
+        Map<String, List<Integer>> byPartition = new LinkedHashMap<>();
+        for (int i = 0; i < documents.size(); i++) {
+            Object userId = documents.get(i).getMetadata().get("userId");
+            String partition = partitionOf(userId instanceof Number number ? number.longValue() : null);
+            byPartition.computeIfAbsent(partition, key -> new ArrayList<>()).add(i);
+        }
+
+        byPartition.forEach((partition, indexes) -> {
+            List<String> ids = new ArrayList<>(indexes.size());
+            List<String> contents = new ArrayList<>(indexes.size());
+            List<JsonObject> metadata = new ArrayList<>(indexes.size());
+            List<List<Float>> embeddings = new ArrayList<>(indexes.size());
+            for (int index : indexes) {
+                Document document = documents.get(index);
+                ids.add(document.getId());
+                contents.add(document.getContent());
+                metadata.add(toJson(document.getMetadata()));
+                embeddings.add(toFloatList(vectors.get(index)));
+            }
+            insertRows(collectionName, partition, ids, contents, metadata, embeddings);
+        });
+    }
+
+    /**
+     * 조회한 문서(doc_id, content, metadata, embedding)를 벡터 그대로 대상 컬렉션의 작성자 샤드 파티션에 insert 합니다.
+     * (임베딩 재호출 없음, userId 가 없는 문서는 _default)
+     */
+    public void insertRecords(String collection, List<QueryResultsWrapper.RowRecord> rows) {
+        rows.stream()
+                .collect(Collectors.groupingBy(row -> partitionOf(userIdOf(row.get(METADATA_FIELD))),
+                        LinkedHashMap::new, Collectors.toList()))
+                .forEach((partition, partitionRows) -> moveRows(collection, partition, partitionRows));
+    }
+
+    /**
+     * _default 파티션의 기존 문서를 벡터 그대로 샤드 파티션으로 옮깁니다. (임베딩 재호출 없음)
+     * 인덱스 재구축과 같은 잠금으로 인스턴스 하나에서만 실행합니다.
+     */
+    public void migrateDefaultPartition() {
+        boolean executed = advisoryLockRepository.runExclusively(MilvusIndexManager.COLLECTION_LOCK_KEY, () -> {
+            synchronized (writeLock) {
+                touchedIds = new HashSet<>();
+            }
+            try {
+                migrateDefaultPartitionExclusively();
+            } finally {
+                synchronized (writeLock) {
+                    touchedIds = null;
+                }
+            }
+        });
+        if (!executed) {
+            log.info("Milvus 컬렉션 정비 작업이 다른 인스턴스에서 진행 중이어서 _default 파티션 이동을 건너뜁니다.");
+        }
+    }
+
+    /**
+     * 배치마다 샤드에서 같은 ID 를 먼저 지우고 insert 한 뒤 _default 에서 삭제하므로,
+     * 중간에 실패해 다시 실행해도 문서가 사라지거나 중복되지 않습니다.
+     * 조회 이후 적재 배치가 반영한 문서는 그 결과가 최신이므로 옮기지 않고 _default 의 구버전만 삭제합니다.
+     */
+    private void migrateDefaultPartitionExclusively() {
+        long moved = 0;
+        long skipped = 0;
+        try {
+            while (true) {
+                List<QueryResultsWrapper.RowRecord> rows = queryDefaultPartition();
+                if (rows.isEmpty()) {
+                    break;
+                }
+                List<String> processedIds = new ArrayList<>(rows.size());
+                synchronized (writeLock) {
+                    Map<String, List<QueryResultsWrapper.RowRecord>> byPartition = new LinkedHashMap<>();
+                    for (QueryResultsWrapper.RowRecord row : rows) {
+                        String id = String.valueOf(row.get(DOC_ID_FIELD));
+                        if (touchedIds.contains(id)) {
+                            processedIds.add(id);
+                            skipped++;
+                            continue;
+                        }
+                        byPartition.computeIfAbsent(partitionOf(userIdOf(row.get(METADATA_FIELD))), key -> new ArrayList<>())
+                                .add(row);
+                    }
+                    for (Map.Entry<String, List<QueryResultsWrapper.RowRecord>> entry : byPartition.entrySet()) {
+                        if (DEFAULT_PARTITION.equals(entry.getKey())) {
+                            continue;
+                        }
+                        List<String> ids = entry.getValue().stream().map(row -> String.valueOf(row.get(DOC_ID_FIELD))).toList();
+                        deleteFromPartition(entry.getKey(), ids);
+                        moveRows(collectionName, entry.getKey(), entry.getValue());
+                        processedIds.addAll(ids);
+                        moved += ids.size();
+                    }
+                    if (!processedIds.isEmpty()) {
+                        deleteFromPartition(DEFAULT_PARTITION, processedIds);
+                    }
+                }
+                if (processedIds.isEmpty()) {
+                    // userId 메타데이터가 없는 문서만 남음 (정합성 점검 대상)
+                    break;
+                }
+            }
+            if (moved > 0 || skipped > 0) {
+                log.info("Milvus _default 파티션 문서 {}건을 사용자 샤드로 이동 (이동 중 재적재되어 건너뜀 {}건)", moved, skipped);
+            }
+        } catch (Exception e) {
+            log.error("Milvus 파티션 이동 실패 ({}건 이동 후 중단): {}", moved, e.getMessage(), e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void moveRows(String collection, String partition, List<QueryResultsWrapper.RowRecord> rows) {
+        List<String> ids = new ArrayList<>(rows.size());
+        List<String> contents = new ArrayList<>(rows.size());
+        List<JsonObject> metadata = new ArrayList<>(rows.size());
+        List<List<Float>> embeddings = new ArrayList<>(rows.size());
+        for (QueryResultsWrapper.RowRecord row : rows) {
+            ids.add(String.valueOf(row.get(DOC_ID_FIELD)));
+            contents.add((String) row.get(CONTENT_FIELD));
+            metadata.add(JsonParser.parseString(String.valueOf(row.get(METADATA_FIELD))).getAsJsonObject());
+            embeddings.add((List<Float>) row.get(EMBEDDING_FIELD));
+        }
+        insertRows(collection, partition, ids, contents, metadata, embeddings);
+    }
+
+    private void insertRows(String collection, String partition, List<String> ids, List<String> contents,
+                            List<JsonObject> metadata, List<List<Float>> embeddings) {
+        check(milvusClient.insert(InsertParam.newBuilder()
+                .withCollectionName(collection)
+                .withPartitionName(partition)
+                .withFields(List.of(
+                        new InsertParam.Field(DOC_ID_FIELD, ids),
+                        new InsertParam.Field(CONTENT_FIELD, contents),
+                        new InsertParam.Field(METADATA_FIELD, metadata),
+                        new InsertParam.Field(EMBEDDING_FIELD, embeddings)))
+                .build()), "insert");
+    }
+
+    private List<QueryResultsWrapper.RowRecord> queryDefaultPartition() {
+        R<QueryResults> response = milvusClient.query(QueryParam.newBuilder()
+                .withCollectionName(collectionName)
+                .withPartitionNames(List.of(DEFAULT_PARTITION))
+                .withExpr(DOC_ID_FIELD + " != \"\"")
+                .withOutFields(List.of(DOC_ID_FIELD, CONTENT_FIELD, METADATA_FIELD, EMBEDDING_FIELD))
+                .withLimit((long) migrateBatchSize)
+                // 직전 배치 삭제가 반영된 상태로 다음 배치 조회
+                .withConsistencyLevel(ConsistencyLevelEnum.STRONG)
+                .build());
+        check(response, "query");
+        return new QueryResultsWrapper(response.getData()).getRowRecords();
+    }
+
+    private void deleteFromPartition(String partition, List<String> ids) {
+        String expr = ids.stream()
+                .map(id -> "\"" + id + "\"")
+                .collect(Collectors.joining(",", DOC_ID_FIELD + " in [", "]"));
+        check(milvusClient.delete(DeleteParam.newBuilder()
+                .withCollectionName(collectionName)
+                .withPartitionName(partition)
+                .withExpr(expr)
+                .build()), "delete");
+    }
+
+    private boolean hasCollection() {
+        R<Boolean> response = milvusClient.hasCollection(HasCollectionParam.newBuilder()
+                .withCollectionName(collectionName)
+                .build());
+        return response.getStatus() == R.Status.Success.getCode() && Boolean.TRUE.equals(response.getData());
+    }
+
+    // SDK 버전에 따라 JSON 필드가 gson/fastjson 객체로 오므로 문자열로 다시 파싱
+    private static Long userIdOf(Object metadata) {
+        if (metadata == null) {
+            return null;
+        }
+        try {
+            JsonObject json = JsonParser.parseString(String.valueOf(metadata)).getAsJsonObject();
+            return json.has("userId") && !json.get("userId").isJsonNull() ? json.get("userId").getAsLong() : null;
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static JsonObject toJson(Map<String, Object> metadata) {
+        JsonObject json = new JsonObject();
+        metadata.forEach((key, value) -> {
+            if (value instanceof Number number) {
+                json.addProperty(key, number);
+            } else if (value instanceof Boolean bool) {
+                json.addProperty(key, bool);
+            } else if (value != null) {
+                json.addProperty(key, value.toString());
+            }
+        });
+        return json;
+    }
+
+    private static List<Float> toFloatList(float[] values) {
+        List<Float> list = new ArrayList<>(values.length);
+        for (float value : values) {
+            list.add(value);
+        }
+        return list;
+    }
+
+    private static void check(R<?> response, String operation) {
+        if (response.getStatus() != R.Status.Success.getCode()) {
+            throw new IllegalStateException("Milvus " + operation + " 실패: " + response.getMessage());
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.petlog.record.infrastructure.milvus;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.petlog.record.entity.Diary;
+import com.petlog.record.repository.jdbc.AdvisoryLockRepository;
+import com.petlog.record.repository.jpa.DiaryRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.milvus.client.MilvusClient;
+import io.milvus.common.clientenum.ConsistencyLevelEnum;
+import io.milvus.grpc.QueryResults;
+import io.milvus.param.R;
+import io.milvus.param.dml.QueryParam;
+import io.milvus.response.QueryResultsWrapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Postgres 일기 ↔ Milvus 벡터 정합성 점검 (고아/구버전 문서 정리)
+ *
+ * WHY 필요?
+ * - 예전에는 수정할 때마다 새 문서(UUID)를 insert 하고 삭제 시 벡터를 지우지 않아, 같은 일기의 낡은 벡터와
+ *   삭제된 일기의 벡터가 컬렉션에 쌓여 검색 후보와 로드 메모리를 늘림
+ * - 삭제 요청이 큐 포화로 거절되거나 적재가 최종 실패한 경우도 주기적으로 바로잡아야 함
+ *
+ * diaryId 구간(window) 단위로 Milvus 문서(doc_id, metadata.diaryId)를 먼저 읽고 같은 구간의 Postgres ID 와 비교합니다.
+ * (Milvus 를 먼저 읽으므로 그 사이 새로 저장된 일기를 고아로 오인하지 않음)
+ * - Postgres 에 없는 diaryId 의 문서 → 삭제
+ * - doc_id 가 diaryId 가 아닌 구버전 문서 → 삭제 후, 새 ID 문서가 없으면 다시 적재
+ * - Postgres 에는 있는데 Milvus 문서가 없는 일기(적재 최종 실패/큐 거절) → 다시 적재
+ *
+ * 주기 점검은 인덱스 재구축/파티션 이동과 같은 advisory lock 으로 인스턴스 하나에서만 실행합니다.
+ *
+ * @author diary-team
+ * @since 2026-01-05
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DiaryVectorReconciler {
+
+    private static final String DOC_ID_FIELD = "doc_id";
+    private static final String METADATA_FIELD = "metadata";
+
+    private final MilvusClient milvusClient;
+    private final VectorStore vectorStore;
+    private final DiaryRepository diaryRepository;
+    private final DiaryVectorIndexer diaryVectorIndexer;
+    private final MeterRegistry meterRegistry;
+    private final ObjectMapper objectMapper;
+    private final AdvisoryLockRepository advisoryLockRepository;
+
+    @Value("${spring.ai.vectorstore.milvus.collection-name:vector_store}")
+    private String collectionName;
+
+    @Value("${diary.vector.reconcile.enabled:true}")
+    private boolean enabled;
+
+    // 한 번에 비교할 diaryId 구간 크기
+    @Value("${diary.vector.reconcile.window-size:1000}")
+    private long windowSize;
+
+    // 구간당 Milvus 조회 상한 (Milvus query limit 최대 16384)
+    @Value("${diary.vector.reconcile.query-limit:16384}")
+    private long queryLimit;
+
+    @Value("${diary.vector.reconcile.delete-batch-size:500}")
+    private int deleteBatchSize;
+
+    /**
+     * 점검 결과
+     *
+     * @param scanned   확인한 Milvus 문서 수
+     * @param purged    삭제한 문서 수 (고아 + 구버전)
+     * @param reindexed 다시 적재 요청한 일기 수
+     */
+    public record Result(long scanned, long purged, long reindexed) {}
+
+    @Scheduled(cron = "${diary.vector.reconcile.cron:0 30 4 * * *}")
+    public void scheduledReconcile() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            boolean executed = advisoryLockRepository.runExclusively(MilvusIndexManager.COLLECTION_LOCK_KEY, this::reconcile);
+            if (!executed) {
+                log.info("Milvus 컬렉션 정비 작업이 다른 인스턴스에서 진행 중이어서 정합성 점검을 건너뜁니다.");
+            }
+        } catch (Exception e) {
+            log.error("Milvus 정합성 점검 실패: {}", e.getMessage(), e);
+        }
+    }
+
+    public Result reconcile() {
+        long begin = System.currentTimeMillis();
+        Long maxId = diaryRepository.findMaxId();
+        long upper = maxId != null ? maxId : 0L;
+
+        long scanned = 0;
+        long purged = 0;
+        long reindexed = 0;
+        for (long from = 0; ; from += windowSize) {
+            // 마지막 구간은 상한 없이 조회하여 끝부분에서 삭제된 일기의 벡터까지 확인
+            boolean last = from + windowSize > upper;
+            Result window = reconcileWindow(from, last ? null : from + windowSize);
+            scanned += window.scanned();
+            purged += window.purged();
+            reindexed += window.reindexed();
+            if (last) {
+                break;
+            }
+        }
+
+        meterRegistry.counter("diary.vector.reconcile.documents", "result", "purged").increment(purged);
+        meterRegistry.counter("diary.vector.reconcile.documents", "result", "reindexed").increment(reindexed);
+        log.info("Milvus 정합성 점검 완료 - 확인 {}건, 삭제 {}건, 재적재 {}건 ({}ms)",
+                scanned, purged, reindexed, System.currentTimeMillis() - begin);
+        return new Result(scanned, purged, reindexed);
+    }
+
+    /**
+     * [from, to) 구간 점검 (to 가 null 이면 from 이상 전체)
+     */
+    private Result reconcileWindow(long from, Long to) {
+        List<QueryResultsWrapper.RowRecord> rows = queryDocuments(from, to);
+        boolean truncated = rows.size() >= queryLimit;
+        if (truncated) {
+            log.warn("Milvus 정합성 점검 - 구간 [{}, {}) 문서가 조회 상한({})에 도달, 나머지는 다음 점검에서 처리", from, to, queryLimit);
+        }
+        Set<Long> existing = new HashSet<>(diaryRepository.findIdsInRange(from, to != null ? to : Long.MAX_VALUE));
+        if (rows.isEmpty() && existing.isEmpty()) {
+            return new Result(0, 0, 0);
+        }
+
+        List<String> purge = new ArrayList<>();
+        Set<Long> current = new HashSet<>();
+        Set<Long> legacy = new HashSet<>();
+        for (QueryResultsWrapper.RowRecord row : rows) {
+            String docId = String.valueOf(row.get(DOC_ID_FIELD));
+            Long diaryId = diaryIdOf(row.get(METADATA_FIELD));
+            if (diaryId == null) {
+                continue;
+            }
+            if (!existing.contains(diaryId)) {
+                purge.add(docId);
+            } else if (!docId.equals(DiaryVectorIndexer.documentId(diaryId))) {
+                purge.add(docId);
+                legacy.add(diaryId);
+            } else {
+                current.add(diaryId);
+            }
+        }
+
+        for (int i = 0; i < purge.size(); i += deleteBatchSize) {
+            vectorStore.delete(purge.subList(i, Math.min(i + deleteBatchSize, purge.size())));
+        }
+
+        // 구버전 문서만 있던 일기와 벡터가 아예 없는 일기는 diaryId 문서로 다시 적재
+        // (조회 상한에 걸린 구간은 누락 여부를 알 수 없으므로 구버전만 처리)
+        legacy.removeAll(current);
+        Set<Long> reindex = new HashSet<>(legacy);
+        if (!truncated) {
+            reindex.addAll(existing);
+        }
+        reindex.removeAll(current);
+        if (!reindex.isEmpty()) {
+            List<Document> documents = diaryRepository.findAllById(reindex).stream()
+                    .map(DiaryVectorIndexer::toDocument)
+                    .toList();
+            diaryVectorIndexer.enqueueAll(documents);
+        }
+        if (!purge.isEmpty() || !reindex.isEmpty()) {
+            log.info("Milvus 정합성 점검 - 구간 [{}, {}) 삭제 {}건, 재적재 {}건 (누락 {}건 포함)",
+                    from, to, purge.size(), reindex.size(), reindex.size() - legacy.size());
+        }
+        return new Result(rows.size(), purge.size(), reindex.size());
+    }
+
+    private List<QueryResultsWrapper.RowRecord> queryDocuments(long from, Long to) {
+        String expr = "metadata[\"diaryId\"] >= " + from + (to != null ? " && metadata[\"diaryId\"] < " + to : "");
+        R<QueryResults> response = milvusClient.query(QueryParam.newBuilder()
+                .withCollectionName(collectionName)
+                .withExpr(expr)
+                .withOutFields(List.of(DOC_ID_FIELD, METADATA_FIELD))
+                .withLimit(queryLimit)
+                // 직전 삭제/insert 까지 반영된 상태로 비교
+                .withConsistencyLevel(ConsistencyLevelEnum.STRONG)
+                .build());
+        if (response.getStatus() != R.Status.Success.getCode()) {
+            throw new IllegalStateException("Milvus 문서 조회 실패: " + response.getMessage());
+        }
+        return new QueryResultsWrapper(response.getData()).getRowRecords();
+    }
+
+    // SDK 버전에 따라 JSON 필드가 gson/fastjson 객체로 오므로 문자열로 다시 파싱
+    private Long diaryIdOf(Object metadata) {
+        if (metadata == null) {
+            return null;
+        }
+        try {
+            JsonNode diaryId = objectMapper.readTree(String.valueOf(metadata)).get("diaryId");
+            return diaryId != null && diaryId.canConvertToLong() ? diaryId.asLong() : null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package com.petlog.record.infrastructure.milvus;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.petlog.record.exception.BusinessException;
+import com.petlog.record.exception.ErrorCode;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.milvus.client.MilvusClient;
+import io.milvus.common.clientenum.ConsistencyLevelEnum;
+import io.milvus.grpc.SearchResults;
+import io.milvus.param.MetricType;
+import io.milvus.param.R;
+import io.milvus.param.dml.SearchParam;
+import io.milvus.response.QueryResultsWrapper;
+import io.milvus.response.SearchResultsWrapper;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 일기 벡터 유사도 검색 (Milvus, 메타데이터 사전 필터링)
+ *
+ * WHY 필요?
+ * - 일기는 userId/petId/date 메타데이터와 함께 Milvus 에 적재되지만 읽는 경로가 없어 클라이언트가 전체 일기를 훑음
+ * - VectorStore.similaritySearch 는 매 호출마다 질의를 임베딩하므로, 같은 검색어 반복 시 임베딩 비용이 중복 발생
+ * - 질의 임베딩을 캐시하고, Milvus 불리언 표현식(metadata["userId"] == ...)으로 ANN 탐색 단계에서 먼저 걸러
+ *   다른 사용자의 일기가 top-k 를 차지하지 않도록 함
+ *
+ * 필드 이름은 Spring AI MilvusVectorStore 기본 스키마(metadata, embedding)를 따릅니다.
+ *
+ * @author diary-team
+ * @since 2026-01-05
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DiaryVectorSearcher {
+
+    private static final String METADATA_FIELD = "metadata";
+    private static final String EMBEDDING_FIELD = "embedding";
+    private static final String DISTANCE_FIELD = "distance";
+
+    private final EmbeddingModel embeddingModel;
+    private final MilvusClient milvusClient;
+    private final MeterRegistry meterRegistry;
+    private final ObjectMapper objectMapper;
+    private final MilvusIndexManager milvusIndexManager;
+    private final DiaryVectorPartitions diaryVectorPartitions;
+
+    @Value("${spring.ai.vectorstore.milvus.collection-name:vector_store}")
+    private String collectionName;
+
+    @Value("${diary.search.embedding-cache.max-size:10000}")
+    private long embeddingCacheMaxSize;
+
+    @Value("${diary.search.embedding-cache.ttl-minutes:60}")
+    private long embeddingCacheTtlMinutes;
+
+    // 정규화한 검색어 → 임베딩 (값은 읽기 전용으로만 사용)
+    private Cache<String, float[]> queryEmbeddings;
+
+    @PostConstruct
+    void init() {
+        this.queryEmbeddings = Caffeine.newBuilder()
+                .maximumSize(embeddingCacheMaxSize)
+                .expireAfterAccess(Duration.ofMinutes(embeddingCacheTtlMinutes))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, queryEmbeddings, "diary.search.query-embedding");
+    }
+
+    /**
+     * 검색 조건 (userId 는 필수, 나머지는 null 이면 조건 없음)
+     */
+    public record SearchQuery(String text, Long userId, Long petId, LocalDate from, LocalDate to, int topK) {}
+
+    /**
+     * 검색 결과 (점수는 코사인 유사도, 클수록 가까움)
+     */
+    public record Hit(Long diaryId, float score) {}
+
+    public List<Hit> search(SearchQuery query) {
+        long begin = System.nanoTime();
+        float[] embedding = embed(query.text());
+        String expr = filterExpression(query);
+
+        SearchParam param = SearchParam.newBuilder()
+                .withCollectionName(collectionName)
+                // 작성자 샤드 파티션만 탐색 (userId 조건은 같은 샤드의 다른 사용자 제외용)
+                .withPartitionNames(List.of(diaryVectorPartitions.partitionOf(query.userId())))
+                .withMetricType(MetricType.COSINE)
+                .withVectorFieldName(EMBEDDING_FIELD)
+                .withVectors(List.of(toFloatList(embedding)))
+                .withTopK(query.topK())
+                .withExpr(expr)
+                .withOutFields(List.of(METADATA_FIELD))
+                // 실제 적용된 인덱스 프로파일에 맞는 검색 파라미터 (nprobe / ef)
+                .withParams(milvusIndexManager.searchParams(query.topK()))
+                .withConsistencyLevel(ConsistencyLevelEnum.BOUNDED)
+                .build();
+
+        long searchBegin = System.nanoTime();
+        R<SearchResults> response = milvusClient.search(param);
+        record("milvus", searchBegin);
+        if (response.getStatus() != R.Status.Success.getCode()) {
+            throw new BusinessException(ErrorCode.EXTERNAL_API_ERROR, "Milvus 검색 실패: " + response.getMessage());
+        }
+
+        SearchResultsWrapper wrapper = new SearchResultsWrapper(response.getData().getResults());
+        List<Hit> hits = new ArrayList<>();
+        for (QueryResultsWrapper.RowRecord row : wrapper.getRowRecords(0)) {
+            Long diaryId = diaryIdOf(row.get(METADATA_FIELD));
+            if (diaryId != null) {
+                hits.add(new Hit(diaryId, ((Number) row.get(DISTANCE_FIELD)).floatValue()));
+            }
+        }
+        record("total", begin);
+        log.debug("일기 벡터 검색 - expr: {}, topK: {}, 결과 {}건", expr, query.topK(), hits.size());
+        return hits;
+    }
+
+    /**
+     * 질의 임베딩 (캐시 확인 후 임베딩 호출은 캐시 잠금 밖에서 수행)
+     */
+    private float[] embed(String text) {
+        String key = normalize(text);
+        float[] cached = queryEmbeddings.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        long begin = System.nanoTime();
+        float[] embedding = embeddingModel.embed(key);
+        record("embed", begin);
+        queryEmbeddings.put(key, embedding);
+        return embedding;
+    }
+
+    /**
+     * Milvus 불리언 표현식 (JSON 메타데이터 필드 기준, 날짜는 ISO 문자열이라 사전순 비교 = 날짜 비교)
+     */
+    private String filterExpression(SearchQuery query) {
+        StringBuilder expr = new StringBuilder("metadata[\"userId\"] == ").append(query.userId());
+        if (query.petId() != null) {
+            expr.append(" && metadata[\"petId\"] == ").append(query.petId());
+        }
+        if (query.from() != null) {
+            expr.append(" && metadata[\"date\"] >= \"").append(query.from()).append('"');
+        }
+        if (query.to() != null) {
+            expr.append(" && metadata[\"date\"] <= \"").append(query.to()).append('"');
+        }
+        return expr.toString();
+    }
+
+    // SDK 버전에 따라 JSON 필드가 gson/fastjson 객체로 오므로 문자열로 다시 파싱
+    private Long diaryIdOf(Object metadata) {
+        if (metadata == null) {
+            return null;
+        }
+        try {
+            JsonNode diaryId = objectMapper.readTree(String.valueOf(metadata)).get("diaryId");
+            return diaryId != null && diaryId.canConvertToLong() ? diaryId.asLong() : null;
+        } catch (Exception e) {
+            log.warn("검색 결과 메타데이터 파싱 실패: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    // 대소문자/공백 차이만 있는 검색어는 같은 임베딩을 재사용
+    private static String normalize(String text) {
+        return text.strip().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    private static List<Float> toFloatList(float[] values) {
+        List<Float> list = new ArrayList<>(values.length);
+        for (float value : values) {
+            list.add(value);
+        }
+        return list;
+    }
+
+    private void record(String stage, long beginNanos) {
+        Timer.builder("diary.search.latency")
+                .description("일기 벡터 검색 단계별 지연 시간")
+                .tag("stage", stage)
+                .tag("index", milvusIndexManager.activeProfile().name())
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(System.nanoTime() - beginNanos, TimeUnit.NANOSECONDS);
+    }
+}
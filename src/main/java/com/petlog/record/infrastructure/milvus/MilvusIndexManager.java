@@ -0,0 +1,370 @@
+package com.petlog.record.infrastructure.milvus;
+
+import com.petlog.record.entity.Diary;
+import com.petlog.record.repository.jdbc.AdvisoryLockRepository;
+import com.petlog.record.repository.jpa.DiaryRepository;
+import io.milvus.client.MilvusClient;
+import io.milvus.common.clientenum.ConsistencyLevelEnum;
+import io.milvus.grpc.DescribeCollectionResponse;
+import io.milvus.grpc.DescribeIndexResponse;
+import io.milvus.grpc.QueryResults;
+import io.milvus.param.MetricType;
+import io.milvus.param.R;
+import io.milvus.param.alias.AlterAliasParam;
+import io.milvus.param.collection.CreateCollectionParam;
+import io.milvus.param.collection.DescribeCollectionParam;
+import io.milvus.param.collection.DropCollectionParam;
+import io.milvus.param.collection.FlushParam;
+import io.milvus.param.collection.HasCollectionParam;
+import io.milvus.param.collection.LoadCollectionParam;
+import io.milvus.param.dml.QueryParam;
+import io.milvus.param.index.CreateIndexParam;
+import io.milvus.param.index.DescribeIndexParam;
+import io.milvus.response.DescCollResponseWrapper;
+import io.milvus.response.DescIndexResponseWrapper;
+import io.milvus.response.QueryResultsWrapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 일기 벡터 인덱스 관리 (프로파일 선택 + 재구축)
+ *
+ * WHY 필요?
+ * - 인덱스가 IVF_FLAT(nlist=128) 로 고정되어 컬렉션이 커질수록 검색이 느려지고 로드 메모리가 커짐
+ * - 프로파일(IVF_FLAT / IVF_SQ8 / IVF_PQ / HNSW)과 파라미터를 설정으로 고르고,
+ *   검색 파라미터(nprobe / ef)도 실제 적용된 인덱스에 맞춰 DiaryVectorSearcher 에 제공
+ *
+ * 기동 시 인덱스가 없으면 설정된 프로파일로 생성하고, 다른 종류의 인덱스가 있으면
+ * rebuild-on-startup 일 때만 백그라운드에서 재구축합니다.
+ * Milvus 는 필드당 인덱스 하나만 허용하므로 재구축은 새 컬렉션(shadow)에 인덱스를 만들고 문서를 벡터 그대로 복사한 뒤
+ * 별칭(collection-name)을 새 컬렉션으로 바꾸는 방식으로 수행하여, 재구축 중에도 기존 컬렉션으로 검색합니다.
+ * 검색 중인 컬렉션은 삭제하지 않으므로 collection-name 이 실제 컬렉션 이름이면 재구축하지 않으며,
+ * 별칭 생성과 설정 변경은 별도 이전 작업으로 먼저 수행해야 합니다.
+ * 재구축은 advisory lock 으로 한 인스턴스에서만 실행하고, 다른 인스턴스는 주기적으로 인덱스를 다시 확인하여
+ * 검색 파라미터 기준(activeProfile)을 맞춥니다.
+ *
+ * @author diary-team
+ * @since 2026-01-05
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MilvusIndexManager {
+
+    // 인덱스 재구축 / _default 파티션 이동 등 컬렉션 정비 작업 잠금 (인스턴스 간 1개만 실행)
+    static final long COLLECTION_LOCK_KEY = 7_320_240_201L;
+
+    private static final String DOC_ID_FIELD = "doc_id";
+    private static final String CONTENT_FIELD = "content";
+    private static final String METADATA_FIELD = "metadata";
+    private static final String EMBEDDING_FIELD = "embedding";
+
+    // Milvus query limit 최대값
+    private static final long COPY_QUERY_LIMIT = 16384;
+
+    // 복사 시작 시각 이전에 커밋된 수정까지 다시 적재하도록 둔 여유 (인스턴스 간 시계 차이 / 진행 중 트랜잭션)
+    private static final long CATCH_UP_MARGIN_MINUTES = 5;
+
+    private final MilvusClient milvusClient;
+    private final DiaryVectorPartitions diaryVectorPartitions;
+    private final DiaryVectorIndexer diaryVectorIndexer;
+    private final DiaryVectorReconciler diaryVectorReconciler;
+    private final DiaryRepository diaryRepository;
+    private final AdvisoryLockRepository advisoryLockRepository;
+
+    @Value("${spring.ai.vectorstore.milvus.collection-name:vector_store}")
+    private String collectionName;
+
+    @Value("${diary.vector.index.profile:IVF_FLAT}")
+    private MilvusIndexProfile configuredProfile;
+
+    // 설정과 다른 인덱스가 있으면 기동 시 재구축
+    @Value("${diary.vector.index.rebuild-on-startup:false}")
+    private boolean rebuildOnStartup;
+
+    // IVF 계열: 클러스터 수 / 검색 시 탐색할 클러스터 수
+    @Value("${diary.vector.index.nlist:128}")
+    private int nlist;
+
+    @Value("${diary.vector.index.nprobe:16}")
+    private int nprobe;
+
+    // IVF_PQ: 부분 공간 수 (차원 1536 의 약수) / 코드 비트 수
+    @Value("${diary.vector.index.pq-m:64}")
+    private int pqM;
+
+    @Value("${diary.vector.index.pq-nbits:8}")
+    private int pqNbits;
+
+    // HNSW: 노드당 연결 수 / 구축 시 후보 수 / 검색 시 후보 수 (top-k 이상으로 보정)
+    @Value("${diary.vector.index.hnsw-m:16}")
+    private int hnswM;
+
+    @Value("${diary.vector.index.ef-construction:200}")
+    private int efConstruction;
+
+    @Value("${diary.vector.index.ef:64}")
+    private int ef;
+
+    // 재구축 시 한 번에 복사할 diaryId 구간 크기
+    @Value("${diary.vector.index.rebuild-window-size:1000}")
+    private long rebuildWindowSize;
+
+    // 실제 적용된 인덱스 프로파일 (검색 파라미터 기준, 다른 인스턴스의 재구축은 주기적으로 반영)
+    private volatile MilvusIndexProfile activeProfile;
+
+    @Order(1)
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureIndex() {
+        this.activeProfile = configuredProfile;
+        try {
+            if (!hasCollection()) {
+                log.info("Milvus 컬렉션 없음 - 인덱스 확인 생략: {}", collectionName);
+                return;
+            }
+            DescIndexResponseWrapper.IndexDesc current = describeIndex(collectionName);
+            if (current == null) {
+                log.info("Milvus 인덱스 없음 - {} 프로파일로 생성", configuredProfile);
+                createIndex(collectionName, configuredProfile);
+                load(collectionName);
+                return;
+            }
+            MilvusIndexProfile existing = MilvusIndexProfile.of(current.getIndexType());
+            this.activeProfile = existing != null ? existing : configuredProfile;
+            if (existing == configuredProfile) {
+                log.info("Milvus 인덱스 프로파일: {}", existing);
+            } else if (rebuildOnStartup) {
+                Thread thread = new Thread(() -> rebuild(configuredProfile), "milvus-index-rebuild");
+                thread.setDaemon(true);
+                thread.start();
+            } else {
+                log.warn("Milvus 인덱스({})가 설정된 프로파일({})과 다릅니다. rebuild-on-startup 으로 재구축하세요.",
+                        current.getIndexType(), configuredProfile);
+            }
+        } catch (Exception e) {
+            log.error("Milvus 인덱스 확인 실패: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 다른 인스턴스가 재구축했을 수 있으므로 현재 인덱스 종류를 주기적으로 다시 읽습니다.
+     */
+    @Scheduled(fixedDelayString = "${diary.vector.index.refresh-interval-ms:60000}")
+    public void refreshActiveProfile() {
+        try {
+            DescIndexResponseWrapper.IndexDesc current = describeIndex(collectionName);
+            MilvusIndexProfile profile = current != null ? MilvusIndexProfile.of(current.getIndexType()) : null;
+            if (profile != null && profile != activeProfile) {
+                log.info("Milvus 인덱스 프로파일 변경 감지: {} → {}", activeProfile, profile);
+                this.activeProfile = profile;
+            }
+        } catch (Exception e) {
+            log.debug("Milvus 인덱스 확인 실패: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 인덱스를 지정한 프로파일로 다시 만듭니다. (검색 중단 없음)
+     * 새 컬렉션 생성 → 인덱스 생성/로드 → 문서 복사 → 별칭 전환 → 복사 중 변경분 재적재 → 기존 컬렉션 삭제
+     *
+     * @return 이 인스턴스에서 재구축을 실행했으면 true, 다른 인스턴스가 정비 작업 중이면 false
+     */
+    public boolean rebuild(MilvusIndexProfile profile) {
+        boolean executed = advisoryLockRepository.runExclusively(COLLECTION_LOCK_KEY, () -> rebuildOnline(profile));
+        if (!executed) {
+            log.warn("Milvus 컬렉션 정비 작업이 다른 인스턴스에서 진행 중이어서 재구축을 건너뜁니다.");
+        }
+        return executed;
+    }
+
+    private void rebuildOnline(MilvusIndexProfile profile) {
+        long begin = System.currentTimeMillis();
+        LocalDateTime copyStartedAt = LocalDateTime.now().minusMinutes(CATCH_UP_MARGIN_MINUTES);
+        String source = physicalName(collectionName);
+        if (source.equals(collectionName)) {
+            // 실제 컬렉션은 같은 이름의 별칭을 만들 수 없어 전환 불가 (기존 컬렉션을 지우지 않도록 재구축 중단)
+            log.error("Milvus 인덱스 재구축 불가 - collection-name({})이 별칭이 아닌 실제 컬렉션입니다. "
+                    + "먼저 이 컬렉션을 가리키는 별칭을 만들고(예: {}_live → {}) collection-name 을 그 별칭으로 바꾼 뒤 재구축하세요.",
+                    collectionName, collectionName, collectionName);
+            return;
+        }
+        String shadow = source.replaceFirst("_\\d+$", "") + "_" + begin;
+        boolean swapped = false;
+        try {
+            log.info("Milvus 인덱스 재구축 시작: {} → {} ({} → {})", activeProfile(), profile, source, shadow);
+            createShadowCollection(source, shadow);
+            diaryVectorPartitions.createPartitions(shadow);
+            createIndex(shadow, profile);
+            load(shadow);
+
+            long copied = copyDocuments(source, shadow);
+            check(milvusClient.flush(FlushParam.newBuilder().addCollectionName(shadow).build()), "flush");
+
+            check(milvusClient.alterAlias(AlterAliasParam.newBuilder()
+                    .withCollectionName(shadow)
+                    .withAlias(collectionName)
+                    .build()), "alterAlias");
+            swapped = true;
+            this.activeProfile = profile;
+
+            // 복사 후 기존 컬렉션에만 반영된 수정/삭제를 새 컬렉션에 다시 반영 (별칭으로 적재되므로 새 컬렉션 대상)
+            List<Diary> changed = diaryRepository.findAllByUpdatedAtGreaterThanEqual(copyStartedAt);
+            diaryVectorIndexer.enqueueAll(changed.stream().map(DiaryVectorIndexer::toDocument).toList());
+            diaryVectorReconciler.reconcile();
+
+            // 별칭이 더 이상 가리키지 않는 이전 컬렉션만 삭제
+            check(milvusClient.dropCollection(DropCollectionParam.newBuilder()
+                    .withCollectionName(source)
+                    .build()), "dropCollection");
+            log.info("Milvus 인덱스 재구축 완료: {} - 복사 {}건, 재적재 {}건 ({}ms)",
+                    profile, copied, changed.size(), System.currentTimeMillis() - begin);
+        } catch (Exception e) {
+            log.error("Milvus 인덱스 재구축 실패: {}", e.getMessage(), e);
+            if (!swapped) {
+                // 별칭 전환 전 실패는 기존 컬렉션으로 계속 검색, 만들던 컬렉션만 정리
+                dropQuietly(shadow);
+            }
+        }
+    }
+
+    public MilvusIndexProfile activeProfile() {
+        return activeProfile != null ? activeProfile : configuredProfile;
+    }
+
+    /**
+     * 현재 인덱스에 맞는 검색 파라미터 (JSON)
+     * 다른 인스턴스의 재구축이 아직 반영되지 않았을 때도 검색되도록 두 계열 키를 함께 보냄 (인덱스와 무관한 키는 무시됨)
+     */
+    public String searchParams(int topK) {
+        int searchEf = Math.max(ef, topK);
+        return switch (activeProfile()) {
+            case HNSW -> "{\"ef\":" + searchEf + ",\"nprobe\":" + nprobe + "}";
+            case IVF_FLAT, IVF_SQ8, IVF_PQ -> "{\"nprobe\":" + nprobe + ",\"ef\":" + searchEf + "}";
+        };
+    }
+
+    private String buildParams(MilvusIndexProfile profile) {
+        return switch (profile) {
+            case HNSW -> "{\"M\":" + hnswM + ",\"efConstruction\":" + efConstruction + "}";
+            case IVF_PQ -> "{\"nlist\":" + nlist + ",\"m\":" + pqM + ",\"nbits\":" + pqNbits + "}";
+            case IVF_FLAT, IVF_SQ8 -> "{\"nlist\":" + nlist + "}";
+        };
+    }
+
+    /**
+     * 기존 컬렉션과 같은 스키마/샤드 수로 새 컬렉션을 만듭니다.
+     */
+    private void createShadowCollection(String source, String shadow) {
+        DescCollResponseWrapper described = describeCollection(source);
+        check(milvusClient.createCollection(CreateCollectionParam.newBuilder()
+                .withCollectionName(shadow)
+                .withFieldTypes(described.getFields())
+                .withShardsNum(described.getShardNumber())
+                .build()), "createCollection");
+    }
+
+    /**
+     * 기존 컬렉션의 문서를 diaryId 구간별로 벡터 그대로 복사합니다. (DiaryVectorReconciler 와 같은 구간 방식)
+     * diaryId 메타데이터가 없는 구버전 문서는 검색 결과로 쓰이지 않으므로 복사하지 않습니다.
+     */
+    private long copyDocuments(String source, String target) {
+        Long maxId = diaryRepository.findMaxId();
+        long upper = maxId != null ? maxId : 0L;
+        long copied = 0;
+        for (long from = 0; ; from += rebuildWindowSize) {
+            boolean last = from + rebuildWindowSize > upper;
+            String expr = "metadata[\"diaryId\"] >= " + from + (last ? "" : " && metadata[\"diaryId\"] < " + (from + rebuildWindowSize));
+            R<QueryResults> response = milvusClient.query(QueryParam.newBuilder()
+                    .withCollectionName(source)
+                    .withExpr(expr)
+                    .withOutFields(List.of(DOC_ID_FIELD, CONTENT_FIELD, METADATA_FIELD, EMBEDDING_FIELD))
+                    .withLimit(COPY_QUERY_LIMIT)
+                    .withConsistencyLevel(ConsistencyLevelEnum.STRONG)
+                    .build());
+            check(response, "query");
+            List<QueryResultsWrapper.RowRecord> rows = new QueryResultsWrapper(response.getData()).getRowRecords();
+            if (rows.size() >= COPY_QUERY_LIMIT) {
+                log.warn("Milvus 인덱스 재구축 - 구간 [{}, ...) 문서가 조회 상한({})에 도달, 누락분은 정합성 점검에서 재적재", from, COPY_QUERY_LIMIT);
+            }
+            if (!rows.isEmpty()) {
+                diaryVectorPartitions.insertRecords(target, rows);
+                copied += rows.size();
+            }
+            if (last) {
+                return copied;
+            }
+        }
+    }
+
+    // 별칭이면 실제 컬렉션 이름, 아니면 그대로
+    private String physicalName(String name) {
+        return describeCollection(name).getCollectionName();
+    }
+
+    private DescCollResponseWrapper describeCollection(String name) {
+        R<DescribeCollectionResponse> response = milvusClient.describeCollection(DescribeCollectionParam.newBuilder()
+                .withCollectionName(name)
+                .build());
+        check(response, "describeCollection");
+        return new DescCollResponseWrapper(response.getData());
+    }
+
+    private void dropQuietly(String collection) {
+        try {
+            milvusClient.dropCollection(DropCollectionParam.newBuilder().withCollectionName(collection).build());
+        } catch (Exception e) {
+            log.warn("Milvus 재구축용 컬렉션 삭제 실패: {} ({})", collection, e.getMessage());
+        }
+    }
+
+    private void createIndex(String collection, MilvusIndexProfile profile) {
+        check(milvusClient.createIndex(CreateIndexParam.newBuilder()
+                .withCollectionName(collection)
+                .withFieldName(EMBEDDING_FIELD)
+                .withIndexType(profile.indexType())
+                .withMetricType(MetricType.COSINE)
+                .withExtraParam(buildParams(profile))
+                .withSyncMode(Boolean.TRUE)
+                .build()), "createIndex");
+    }
+
+    private void load(String collection) {
+        check(milvusClient.loadCollection(LoadCollectionParam.newBuilder()
+                .withCollectionName(collection)
+                .build()), "loadCollection");
+    }
+
+    // 임베딩 필드 인덱스 (없으면 null)
+    private DescIndexResponseWrapper.IndexDesc describeIndex(String collection) {
+        R<DescribeIndexResponse> response = milvusClient.describeIndex(DescribeIndexParam.newBuilder()
+                .withCollectionName(collection)
+                .withFieldName(EMBEDDING_FIELD)
+                .build());
+        if (response.getStatus() != R.Status.Success.getCode() || response.getData() == null) {
+            return null;
+        }
+        return new DescIndexResponseWrapper(response.getData()).getIndexDescByFieldName(EMBEDDING_FIELD);
+    }
+
+    private boolean hasCollection() {
+        R<Boolean> response = milvusClient.hasCollection(HasCollectionParam.newBuilder()
+                .withCollectionName(collectionName)
+                .build());
+        return response.getStatus() == R.Status.Success.getCode() && Boolean.TRUE.equals(response.getData());
+    }
+
+    private static void check(R<?> response, String operation) {
+        if (response.getStatus() != R.Status.Success.getCode()) {
+            throw new IllegalStateException("Milvus " + operation + " 실패: " + response.getMessage());
+        }
+    }
+}
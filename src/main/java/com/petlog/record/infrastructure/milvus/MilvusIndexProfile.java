@@ -0,0 +1,41 @@
+package com.petlog.record.infrastructure.milvus;
+
+import io.milvus.param.IndexType;
+
+/**
+ * 일기 벡터 인덱스 프로파일 (diary.vector.index.profile)
+ *
+ * - IVF_FLAT : 원본 벡터 보관, 정확도 높음 / 메모리 가장 큼 (기존 기본값)
+ * - IVF_SQ8  : 스칼라 8bit 양자화, 메모리 약 1/4 / 정확도 소폭 하락
+ * - IVF_PQ   : 곱 양자화, 메모리 가장 작음 / 정확도 하락 폭 큼 (pq-m 은 차원의 약수)
+ * - HNSW     : 그래프 인덱스, 지연 시간 가장 짧음 / 메모리 큼 (M, efConstruction, ef)
+ *
+ * @author diary-team
+ * @since 2026-01-05
+ */
+public enum MilvusIndexProfile {
+
+    IVF_FLAT(IndexType.IVF_FLAT),
+    IVF_SQ8(IndexType.IVF_SQ8),
+    IVF_PQ(IndexType.IVF_PQ),
+    HNSW(IndexType.HNSW);
+
+    private final IndexType indexType;
+
+    MilvusIndexProfile(IndexType indexType) {
+        this.indexType = indexType;
+    }
+
+    public IndexType indexType() {
+        return indexType;
+    }
+
+    public static MilvusIndexProfile of(IndexType indexType) {
+        for (MilvusIndexProfile profile : values()) {
+            if (profile.indexType == indexType) {
+                return profile;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,87 @@
+package com.petlog.record.infrastructure.weather;
+
+import com.petlog.record.util.GeoKdTree;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * ASOS 관측소 카탈로그
+ *
+ * WHY 필요?
+ * - 코드에 하드코딩된 일부 관측소 대신 전체 관측소 목록(CSV)을 로드
+ * - k-d 트리 + 하버사인 거리로 가장 가까운 관측소를 O(log n) 에 탐색
+ *
+ * CSV 형식: stn_id,name,latitude,longitude ('#' 으로 시작하는 줄은 주석)
+ */
+@Slf4j
+@Component
+public class AsosStationCatalogue {
+
+    // 카탈로그가 비었을 때의 기본 관측소 (서울)
+    public static final int DEFAULT_STATION_ID = 108;
+
+    @Value("${external.weather.station-catalogue:classpath:weather/asos-stations.csv}")
+    private Resource catalogueResource;
+
+    private volatile GeoKdTree<Station> index = new GeoKdTree<>(List.of(), Station::latitude, Station::longitude);
+
+    @PostConstruct
+    void load() throws IOException {
+        List<Station> stations = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(catalogueResource.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] columns = line.split(",");
+                if (columns.length < 4) {
+                    log.warn("잘못된 관측소 행을 건너뜁니다: {}", line);
+                    continue;
+                }
+                stations.add(new Station(
+                        Integer.parseInt(columns[0].trim()),
+                        columns[1].trim(),
+                        Double.parseDouble(columns[2].trim()),
+                        Double.parseDouble(columns[3].trim())
+                ));
+            }
+        }
+        this.index = new GeoKdTree<>(stations, Station::latitude, Station::longitude);
+        log.info("ASOS 관측소 카탈로그 로드 완료: {}개", stations.size());
+    }
+
+    /**
+     * 가장 가까운 관측소 ID (카탈로그가 비어 있으면 서울)
+     */
+    public int nearestStationId(double lat, double lng) {
+        Station station = nearestStation(lat, lng);
+        return station != null ? station.stationId() : DEFAULT_STATION_ID;
+    }
+
+    /**
+     * 가장 가까운 관측소 (카탈로그가 비어 있으면 null)
+     */
+    public Station nearestStation(double lat, double lng) {
+        GeoKdTree.Nearest<Station> nearest = index.nearest(lat, lng);
+        return nearest != null ? nearest.item() : null;
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    public record Station(int stationId, String name, double latitude, double longitude) {}
+}
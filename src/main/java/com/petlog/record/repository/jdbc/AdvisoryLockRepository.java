@@ -0,0 +1,68 @@
+package com.petlog.record.repository.jdbc;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * 세션 범위 Postgres advisory lock (여러 인스턴스 중 하나만 작업 수행)
+ *
+ * WHY 필요?
+ * - pg_try_advisory_xact_lock 은 트랜잭션이 끝나야 풀리므로, Kafka 전송/Milvus 작업처럼 오래 걸리는 외부 I/O 동안
+ *   트랜잭션(과 행 잠금)을 계속 열어 두어야 함
+ * - 커넥션 하나에서 pg_try_advisory_lock 으로 잠그고 작업이 끝나면 같은 커넥션에서 해제하여,
+ *   작업 중의 DB 쓰기는 각자 짧은 트랜잭션으로 처리할 수 있도록 함
+ *
+ * 잠금을 잡은 동안 커넥션 하나를 점유하며 트랜잭션은 열지 않습니다. (커넥션이 끊기면 잠금도 자동 해제)
+ *
+ * @author diary-team
+ * @since 2026-01-05
+ */
+@Slf4j
+@Repository
+@RequiredArgsConstructor
+public class AdvisoryLockRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * 잠금을 얻은 경우에만 작업을 실행합니다.
+     *
+     * @return 작업을 실행했으면 true, 다른 인스턴스가 잠금을 가지고 있으면 false
+     */
+    public boolean runExclusively(long lockKey, Runnable task) {
+        Boolean executed = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            if (!call(connection, "SELECT pg_try_advisory_lock(?)", lockKey)) {
+                return false;
+            }
+            try {
+                task.run();
+                return true;
+            } finally {
+                try {
+                    call(connection, "SELECT pg_advisory_unlock(?)", lockKey);
+                } catch (SQLException e) {
+                    // 해제 실패 시에도 커넥션이 닫히면 잠금은 풀림
+                    log.warn("advisory lock 해제 실패 - key: {}, {}", lockKey, e.getMessage());
+                }
+            }
+        });
+        return Boolean.TRUE.equals(executed);
+    }
+
+    private static boolean call(Connection connection, String sql, long lockKey) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setLong(1, lockKey);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() && resultSet.getBoolean(1);
+            }
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.petlog.record.repository.jdbc;
+
+import com.petlog.record.entity.Diary;
+import com.petlog.record.entity.DiaryImage;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 일기 일괄 가져오기용 JDBC 배치 insert
+ *
+ * WHY 필요?
+ * - 엔티티 ID 가 IDENTITY 전략이라 Hibernate 는 insert 마다 생성 키를 받아야 해서 JDBC 배치를 끔
+ * - 식별자 컬럼의 시퀀스에서 필요한 개수만큼 ID 를 한 번에 받아 두고, 테이블별로 batchUpdate 로 묶어 insert
+ *   (reWriteBatchedInserts 설정 시 드라이버가 다중 VALUES insert 로 재작성)
+ *
+ * 기존 테이블/ID 전략은 그대로 두며, 같은 시퀀스를 쓰므로 일반 저장 경로와 ID 가 충돌하지 않습니다.
+ *
+ * @author diary-team
+ * @since 2026-01-05
+ */
+@Repository
+@RequiredArgsConstructor
+public class DiaryBulkInsertRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // JPA 와 같은 스키마 사용 (운영: diary)
+    @Value("${spring.jpa.properties.hibernate.default_schema:}")
+    private String schema;
+
+    @Value("${diary.import.jdbc-batch-size:500}")
+    private int batchSize;
+
+    /**
+     * 테이블 식별자 시퀀스에서 count 개의 ID 를 한 번의 쿼리로 발급합니다.
+     */
+    public List<Long> nextIds(String table, String idColumn, int count) {
+        if (count == 0) {
+            return List.of();
+        }
+        return jdbcTemplate.queryForList(
+                "SELECT nextval(pg_get_serial_sequence(?, ?)) FROM generate_series(1, ?)",
+                Long.class, table(table), idColumn, count);
+    }
+
+    public void insertDiaries(List<Diary> diaries, LocalDateTime now) {
+        jdbcTemplate.batchUpdate("INSERT INTO " + table("diaries")
+                        + " (diary_id, title, user_id, pet_id, content, visibility, is_ai_gen, location_name,"
+                        + " latitude, longitude, date, weather, mood, created_at, updated_at)"
+                        + " VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                diaries, batchSize, (ps, diary) -> {
+                    ps.setLong(1, diary.getDiaryId());
+                    ps.setString(2, diary.getTitle());
+                    ps.setLong(3, diary.getUserId());
+                    ps.setLong(4, diary.getPetId());
+                    ps.setString(5, diary.getContent());
+                    ps.setString(6, diary.getVisibility().name());
+                    ps.setBoolean(7, diary.getIsAiGen());
+                    ps.setString(8, diary.getLocationName());
+                    ps.setObject(9, diary.getLatitude(), Types.DOUBLE);
+                    ps.setObject(10, diary.getLongitude(), Types.DOUBLE);
+                    ps.setDate(11, Date.valueOf(diary.getDate()));
+                    ps.setString(12, diary.getWeather());
+                    ps.setString(13, diary.getMood());
+                    ps.setTimestamp(14, Timestamp.valueOf(now));
+                    ps.setTimestamp(15, Timestamp.valueOf(now));
+                });
+    }
+
+    public void insertImages(List<DiaryImage> images, LocalDateTime now) {
+        jdbcTemplate.batchUpdate("INSERT INTO " + table("diary_images")
+                        + " (image_id, diary_id, user_id, image_url, img_order, main_image, source, created_at, updated_at)"
+                        + " VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                images, batchSize, (ps, image) -> {
+                    ps.setLong(1, image.getImageId());
+                    ps.setLong(2, image.getDiary().getDiaryId());
+                    ps.setLong(3, image.getUserId());
+                    ps.setString(4, image.getImageUrl());
+                    ps.setInt(5, image.getImgOrder());
+                    ps.setBoolean(6, image.getMainImage());
+                    ps.setString(7, image.getSource().name());
+                    ps.setTimestamp(8, Timestamp.valueOf(now));
+                    ps.setTimestamp(9, Timestamp.valueOf(now));
+                });
+    }
+
+    /**
+     * 일기-보관함 연결 (archiveLinks: [diaryId, archiveId])
+     */
+    public void insertArchiveLinks(List<long[]> archiveLinks, LocalDateTime now) {
+        jdbcTemplate.batchUpdate("INSERT INTO " + table("diary_archives")
+                        + " (diary_id, archive_id, created_at, updated_at) VALUES (?, ?, ?, ?)",
+                archiveLinks, batchSize, (ps, link) -> {
+                    ps.setLong(1, link[0]);
+                    ps.setLong(2, link[1]);
+                    ps.setTimestamp(3, Timestamp.valueOf(now));
+                    ps.setTimestamp(4, Timestamp.valueOf(now));
+                });
+    }
+
+    private String table(String name) {
+        return schema == null || schema.isBlank() ? name : schema + "." + name;
+    }
+}
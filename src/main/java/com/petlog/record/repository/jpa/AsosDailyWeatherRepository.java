@@ -0,0 +1,41 @@
+package com.petlog.record.repository.jpa;
+
+import com.petlog.record.entity.AsosDailyWeather;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface AsosDailyWeatherRepository extends JpaRepository<AsosDailyWeather, Long> {
+
+    // 1. 단건 조회 (관측소 + 날짜)
+    Optional<AsosDailyWeather> findByStationIdAndObservedDate(Integer stationId, LocalDate observedDate);
+
+    // 2. 이미 저장된 날짜 목록 (백필 시 원격 호출 대상 계산용)
+    @Query("SELECT a.observedDate FROM AsosDailyWeather a WHERE a.stationId = :stationId AND a.observedDate BETWEEN :start AND :end")
+    List<LocalDate> findObservedDates(@Param("stationId") Integer stationId,
+                                      @Param("start") LocalDate start,
+                                      @Param("end") LocalDate end);
+
+    // 3. 일자료 저장 - 다른 요청/인스턴스가 먼저 저장한 날짜는 건너뜀 (한 건 충돌로 나머지가 버려지지 않도록 행 단위)
+    @Modifying
+    @Transactional
+    @Query(value = """
+        INSERT INTO {h-schema}asos_daily_weather (station_id, observed_date, weather, sum_rn, avg_tca, created_at)
+        VALUES (:stationId, :observedDate, :weather,
+                CAST(:sumRn AS double precision), CAST(:avgTca AS double precision), now())
+        ON CONFLICT (station_id, observed_date) DO NOTHING
+    """, nativeQuery = true)
+    int insertIfAbsent(@Param("stationId") Integer stationId,
+                       @Param("observedDate") LocalDate observedDate,
+                       @Param("weather") String weather,
+                       @Param("sumRn") Double sumRn,
+                       @Param("avgTca") Double avgTca);
+}
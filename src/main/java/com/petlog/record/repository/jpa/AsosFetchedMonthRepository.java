@@ -0,0 +1,34 @@
+package com.petlog.record.repository.jpa;
+
+import com.petlog.record.entity.AsosFetchedMonth;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface AsosFetchedMonthRepository extends JpaRepository<AsosFetchedMonth, Long> {
+
+    List<AsosFetchedMonth> findByStationIdAndMonthStartBetween(Integer stationId, LocalDate fromMonth, LocalDate toMonth);
+
+    /**
+     * 조회 완료 시점을 기록합니다. (이미 더 뒤까지 기록되어 있으면 유지)
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+        INSERT INTO {h-schema}asos_fetched_month (station_id, month_start, fetched_through, updated_at)
+        VALUES (:stationId, :monthStart, :fetchedThrough, now())
+        ON CONFLICT (station_id, month_start) DO UPDATE
+        SET fetched_through = GREATEST(asos_fetched_month.fetched_through, EXCLUDED.fetched_through),
+            updated_at = now()
+    """, nativeQuery = true)
+    int markFetched(@Param("stationId") Integer stationId,
+                    @Param("monthStart") LocalDate monthStart,
+                    @Param("fetchedThrough") LocalDate fetchedThrough);
+}
@@ -0,0 +1,45 @@
+package com.petlog.record.repository.jpa;
+
+import com.petlog.record.entity.DiaryOutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface DiaryOutboxRepository extends JpaRepository<DiaryOutboxEvent, Long> {
+
+    // 미전송 이벤트를 생성 순서대로 조회
+    @Query(value = """
+        SELECT * FROM {h-schema}diary_outbox o
+        WHERE o.published_at IS NULL
+        ORDER BY o.id
+        LIMIT :limit
+    """, nativeQuery = true)
+    List<DiaryOutboxEvent> findUnpublishedBatch(@Param("limit") int limit);
+
+    // 전송 확인된 이벤트 완료 처리 (Kafka 전송 후 짧은 트랜잭션에서 호출)
+    @Modifying
+    @Query("""
+        UPDATE DiaryOutboxEvent o
+        SET o.publishedAt = :publishedAt, o.attempts = o.attempts + 1, o.lastError = null
+        WHERE o.id IN :ids
+    """)
+    int markPublished(@Param("ids") List<Long> ids, @Param("publishedAt") LocalDateTime publishedAt);
+
+    // 릴레이 지연(lag) 측정용: 가장 오래된 미전송 이벤트 생성 시각
+    @Query("SELECT MIN(o.createdAt) FROM DiaryOutboxEvent o WHERE o.publishedAt IS NULL")
+    Optional<LocalDateTime> findOldestUnpublishedCreatedAt();
+
+    long countByPublishedAtIsNull();
+
+    // 전송 완료된 오래된 이벤트 정리
+    @Modifying
+    @Query("DELETE FROM DiaryOutboxEvent o WHERE o.publishedAt IS NOT NULL AND o.publishedAt < :before")
+    int deletePublishedBefore(@Param("before") LocalDateTime before);
+}
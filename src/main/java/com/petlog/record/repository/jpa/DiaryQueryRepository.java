@@ -1,18 +1,48 @@
 package com.petlog.record.repository.jpa;
 
 import com.petlog.record.entity.Diary;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
 public interface DiaryQueryRepository extends JpaRepository<Diary, Long> {
 
+    // 목록 응답(DiaryResponse)이 이미지까지 직렬화하므로 images 를 함께 fetch join 하여
+    // 일기마다 이미지 SELECT 가 추가로 나가는 N+1 을 막습니다.
+
     // 1. 캘린더용 날짜별 조회
+    @EntityGraph(attributePaths = "images")
     List<Diary> findAllByUserIdAndDate(Long userId, LocalDate date);
 
     // 2. AI 다이어리 보관함 조회 (isAiGen = true 인 것만)
+    @EntityGraph(attributePaths = "images")
     List<Diary> findAllByUserIdAndIsAiGenOrderByCreatedAtDesc(Long userId, Boolean isAiGen);
+
+    // 3. AI 다이어리 보관함 커서 조회 (createdAt DESC, diaryId DESC)
+    // 컬렉션 fetch join 은 LIMIT 과 함께 쓰면 메모리 페이징이 되므로 images 는 @BatchSize 로 로딩
+    @Query("""
+        SELECT d FROM Diary d
+        WHERE d.userId = :userId AND d.isAiGen = true
+        ORDER BY d.createdAt DESC, d.diaryId DESC
+    """)
+    List<Diary> findAiDiariesFirstPage(@Param("userId") Long userId, Limit limit);
+
+    @Query("""
+        SELECT d FROM Diary d
+        WHERE d.userId = :userId AND d.isAiGen = true
+          AND (d.createdAt < :createdAt OR (d.createdAt = :createdAt AND d.diaryId < :diaryId))
+        ORDER BY d.createdAt DESC, d.diaryId DESC
+    """)
+    List<Diary> findAiDiariesAfter(@Param("userId") Long userId,
+                                   @Param("createdAt") LocalDateTime createdAt,
+                                   @Param("diaryId") Long diaryId,
+                                   Limit limit);
 }
@@ -1,12 +1,14 @@
 package com.petlog.record.repository.jpa;
 
 import com.petlog.record.entity.Diary;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
@@ -26,4 +28,82 @@ public interface DiaryRepository extends JpaRepository<Diary, Long> {
      */
     @Query("SELECT DISTINCT d.petId, d.userId FROM Diary d WHERE d.date BETWEEN :start AND :end")
     List<Object[]> findDistinctPetAndUserByDateBetween(@Param("start") LocalDate start, @Param("end") LocalDate end);
-}
\ No newline at end of file
+
+    /**
+     * 리캡 배치용: 대상 (petId, userId) 쌍을 키 순서대로 페이지 단위 조회 (키셋)
+     * 전체 목록을 한 번에 메모리에 올리지 않고 마지막 키 이후부터 limit 건씩 가져옵니다.
+     */
+    @Query("""
+        SELECT DISTINCT d.petId, d.userId FROM Diary d
+        WHERE d.date BETWEEN :start AND :end
+        ORDER BY d.petId, d.userId
+    """)
+    List<Object[]> findRecapTargetsFirstPage(@Param("start") LocalDate start, @Param("end") LocalDate end, Limit limit);
+
+    @Query("""
+        SELECT DISTINCT d.petId, d.userId FROM Diary d
+        WHERE d.date BETWEEN :start AND :end
+          AND (d.petId > :petId OR (d.petId = :petId AND d.userId > :userId))
+        ORDER BY d.petId, d.userId
+    """)
+    List<Object[]> findRecapTargetsAfter(@Param("start") LocalDate start, @Param("end") LocalDate end,
+                                         @Param("petId") Long petId, @Param("userId") Long userId,
+                                         Limit limit);
+
+    // 리캡 배치 진행률(ETA) 계산용 전체 대상 수
+    @Query(value = """
+        SELECT COUNT(*) FROM (
+            SELECT DISTINCT d.pet_id, d.user_id FROM {h-schema}diaries d
+            WHERE d.date BETWEEN :start AND :end
+        ) t
+    """, nativeQuery = true)
+    long countRecapTargets(@Param("start") LocalDate start, @Param("end") LocalDate end);
+
+    /**
+     * 리캡 대표 이미지 샘플링 (DB 에서 URL 만 선택)
+     * 주(week)별로 무작위 순번을 매긴 뒤 순번 → 무작위 순으로 정렬하므로,
+     * 각 주에서 한 장씩 돌아가며 뽑혀 기간 전체에 고르게 분산됩니다.
+     */
+    @Query(value = """
+        SELECT t.image_url FROM (
+            SELECT i.image_url,
+                   ROW_NUMBER() OVER (PARTITION BY date_trunc('week', d.date) ORDER BY random()) AS rn
+            FROM {h-schema}diary_images i
+            JOIN {h-schema}diaries d ON d.diary_id = i.diary_id
+            WHERE d.pet_id = :petId
+              AND d.date BETWEEN :start AND :end
+              AND i.main_image = true
+              AND i.image_url <> ''
+        ) t
+        ORDER BY t.rn, random()
+        LIMIT :limit
+    """, nativeQuery = true)
+    List<String> sampleMainImageUrls(@Param("petId") Long petId,
+                                     @Param("start") LocalDate start,
+                                     @Param("end") LocalDate end,
+                                     @Param("limit") int limit);
+
+    // 리캡 분석 입력: 엔티티/이미지 컬렉션을 로딩하지 않고 날짜와 본문만 조회
+    @Query("""
+        SELECT d.date, d.content FROM Diary d
+        WHERE d.petId = :petId AND d.date BETWEEN :start AND :end
+        ORDER BY d.date, d.diaryId
+    """)
+    List<Object[]> findDateAndContentByPetIdAndDateBetween(@Param("petId") Long petId,
+                                                           @Param("start") LocalDate start,
+                                                           @Param("end") LocalDate end);
+
+    // 의미 검색 결과 본문 조회: 작성자 일기만 이미지와 함께 한 번에 로딩 (트랜잭션 밖에서 응답 변환 가능)
+    @Query("SELECT DISTINCT d FROM Diary d LEFT JOIN FETCH d.images WHERE d.diaryId IN :ids AND d.userId = :userId")
+    List<Diary> findAllWithImagesByIdInAndUserId(@Param("ids") List<Long> ids, @Param("userId") Long userId);
+
+    // 벡터 정합성 점검: ID 구간별 존재하는 일기 ID (PK 인덱스 범위 스캔)
+    @Query("SELECT d.diaryId FROM Diary d WHERE d.diaryId >= :from AND d.diaryId < :to")
+    List<Long> findIdsInRange(@Param("from") Long from, @Param("to") Long to);
+
+    // 벡터 인덱스 재구축: 문서 복사 이후 수정된 일기 (새 컬렉션에 다시 적재)
+    List<Diary> findAllByUpdatedAtGreaterThanEqual(LocalDateTime since);
+
+    @Query("SELECT MAX(d.diaryId) FROM Diary d")
+    Long findMaxId();
+}
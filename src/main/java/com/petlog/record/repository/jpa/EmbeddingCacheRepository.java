@@ -0,0 +1,26 @@
+package com.petlog.record.repository.jpa;
+
+import com.petlog.record.entity.EmbeddingCacheEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface EmbeddingCacheRepository extends JpaRepository<EmbeddingCacheEntry, String> {
+
+    /**
+     * 같은 텍스트를 동시에 임베딩해도 충돌 없이 한 건만 남도록 충돌 시 무시합니다.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+        INSERT INTO {h-schema}embedding_cache (content_hash, model, dimensions, embedding, created_at)
+        VALUES (:contentHash, :model, :dimensions, :embedding, now())
+        ON CONFLICT (content_hash) DO NOTHING
+    """, nativeQuery = true)
+    int insertIfAbsent(@Param("contentHash") String contentHash, @Param("model") String model,
+                       @Param("dimensions") int dimensions, @Param("embedding") byte[] embedding);
+}
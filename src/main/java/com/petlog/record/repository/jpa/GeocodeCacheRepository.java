@@ -0,0 +1,25 @@
+package com.petlog.record.repository.jpa;
+
+import com.petlog.record.entity.GeocodeCacheEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface GeocodeCacheRepository extends JpaRepository<GeocodeCacheEntry, String> {
+
+    /**
+     * 여러 인스턴스가 같은 셀을 동시에 저장해도 호출자 트랜잭션이 깨지지 않도록 충돌 시 무시합니다.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+        INSERT INTO {h-schema}geocode_cache (geohash, address_name, created_at)
+        VALUES (:geohash, :addressName, now())
+        ON CONFLICT (geohash) DO NOTHING
+    """, nativeQuery = true)
+    int insertIfAbsent(@Param("geohash") String geohash, @Param("addressName") String addressName);
+}
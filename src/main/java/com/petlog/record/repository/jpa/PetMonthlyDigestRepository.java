@@ -0,0 +1,37 @@
+package com.petlog.record.repository.jpa;
+
+import com.petlog.record.entity.PetMonthlyDigest;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+@Repository
+public interface PetMonthlyDigestRepository extends JpaRepository<PetMonthlyDigest, Long> {
+
+    Optional<PetMonthlyDigest> findByPetIdAndMonthStart(Long petId, LocalDate monthStart);
+
+    /**
+     * 같은 달의 첫 일기가 동시에 저장되어도 행이 하나만 생기도록 충돌 시 무시합니다.
+     */
+    @Modifying
+    @Query(value = """
+        INSERT INTO {h-schema}pet_monthly_digests
+            (pet_id, user_id, month_start, diary_count, images_seen,
+             mood_counts, weather_counts, image_sample, diary_facts, created_at, updated_at)
+        VALUES (:petId, :userId, :monthStart, 0, 0, '{}', '{}', '[]', '[]', now(), now())
+        ON CONFLICT (pet_id, month_start) DO NOTHING
+    """, nativeQuery = true)
+    int insertIfAbsent(@Param("petId") Long petId, @Param("userId") Long userId, @Param("monthStart") LocalDate monthStart);
+
+    // 증분 갱신은 행 잠금 후 수행 (같은 달 일기 동시 저장 시 갱신 유실 방지)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT d FROM PetMonthlyDigest d WHERE d.petId = :petId AND d.monthStart = :monthStart")
+    Optional<PetMonthlyDigest> findForUpdate(@Param("petId") Long petId, @Param("monthStart") LocalDate monthStart);
+}
@@ -0,0 +1,16 @@
+package com.petlog.record.repository.jpa;
+
+import com.petlog.record.entity.RecapBatchCheckpoint;
+import com.petlog.record.entity.RecapBatchStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface RecapBatchCheckpointRepository extends JpaRepository<RecapBatchCheckpoint, LocalDate> {
+
+    // 미완료 배치 (재시작 후 이어서 처리할 대상, 실제 실행 여부는 기간별 advisory lock 으로 판단)
+    List<RecapBatchCheckpoint> findAllByStatus(RecapBatchStatus status);
+}
@@ -2,11 +2,19 @@ package com.petlog.record.repository.jpa;
 
 import com.petlog.record.entity.Recap;
 import com.petlog.record.entity.RecapStatus;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface RecapRepository extends JpaRepository<Recap, Long> {
@@ -19,4 +27,81 @@ public interface RecapRepository extends JpaRepository<Recap, Long> {
 
     List<Recap> findAllByStatus(RecapStatus status); // 추가
 
-}
\ No newline at end of file
+    /**
+     * 처리 시점이 된 WAITING 리캡(기간 종료 + 백오프 경과)과 점유가 만료된 IN_PROGRESS 리캡을 잠급니다.
+     * SKIP LOCKED 로 다른 인스턴스가 잠근 행은 건너뛰므로 여러 인스턴스가 대기열을 나눠 처리합니다.
+     * 호출자 트랜잭션 안에서 점유(claim) 상태로 바꾼 뒤 커밋해야 합니다.
+     */
+    @Query(value = """
+        SELECT * FROM {h-schema}recaps r
+        WHERE (r.status = 'WAITING' AND r.period_end < :today AND (r.lease_until IS NULL OR r.lease_until < :now))
+           OR (r.status = 'IN_PROGRESS' AND r.period_end < :today AND r.lease_until < :now)
+        ORDER BY r.period_end, r.recap_id
+        LIMIT :limit
+        FOR UPDATE SKIP LOCKED
+    """, nativeQuery = true)
+    List<Recap> lockDueWaitingRecaps(@Param("today") LocalDate today,
+                                     @Param("now") LocalDateTime now,
+                                     @Param("limit") int limit);
+
+    /**
+     * 점유 중인 리캡을 다시 확인/저장하기 위해 행을 잠급니다. (점유 쿼리의 SKIP LOCKED 가 이 행을 건너뜀)
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM Recap r WHERE r.recapId = :recapId")
+    Optional<Recap> findByIdForUpdate(@Param("recapId") Long recapId);
+
+    /**
+     * 작업을 시작할 때 점유를 연장합니다. 이미 다른 워커가 점유했다면 0 을 반환합니다.
+     */
+    @Modifying
+    @Query("""
+        UPDATE Recap r SET r.leaseUntil = :leaseUntil
+        WHERE r.recapId = :recapId AND r.status = com.petlog.record.entity.RecapStatus.IN_PROGRESS
+          AND r.claimedBy = :workerId
+    """)
+    int extendLease(@Param("recapId") Long recapId,
+                    @Param("workerId") String workerId,
+                    @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    // 리캡 배치: 같은 기간의 리캡이 이미 있으면 건너뜀 (재실행 시 중복 생성 방지, 예약된 WAITING 리캡은 워커가 처리)
+    boolean existsByPetIdAndPeriodStartAndPeriodEnd(Long petId, LocalDate periodStart, LocalDate periodEnd);
+
+    // 3. 커서 조회 (createdAt DESC, recapId DESC) - 사용자별
+    @Query("""
+        SELECT r FROM Recap r
+        WHERE r.userId = :userId
+        ORDER BY r.createdAt DESC, r.recapId DESC
+    """)
+    List<Recap> findByUserFirstPage(@Param("userId") Long userId, Limit limit);
+
+    @Query("""
+        SELECT r FROM Recap r
+        WHERE r.userId = :userId
+          AND (r.createdAt < :createdAt OR (r.createdAt = :createdAt AND r.recapId < :recapId))
+        ORDER BY r.createdAt DESC, r.recapId DESC
+    """)
+    List<Recap> findByUserAfter(@Param("userId") Long userId,
+                                @Param("createdAt") LocalDateTime createdAt,
+                                @Param("recapId") Long recapId,
+                                Limit limit);
+
+    // 4. 커서 조회 - 펫별
+    @Query("""
+        SELECT r FROM Recap r
+        WHERE r.petId = :petId
+        ORDER BY r.createdAt DESC, r.recapId DESC
+    """)
+    List<Recap> findByPetFirstPage(@Param("petId") Long petId, Limit limit);
+
+    @Query("""
+        SELECT r FROM Recap r
+        WHERE r.petId = :petId
+          AND (r.createdAt < :createdAt OR (r.createdAt = :createdAt AND r.recapId < :recapId))
+        ORDER BY r.createdAt DESC, r.recapId DESC
+    """)
+    List<Recap> findByPetAfter(@Param("petId") Long petId,
+                               @Param("createdAt") LocalDateTime createdAt,
+                               @Param("recapId") Long recapId,
+                               Limit limit);
+}
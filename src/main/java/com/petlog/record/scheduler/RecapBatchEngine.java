@@ -0,0 +1,257 @@
+package com.petlog.record.scheduler;
+
+import com.petlog.record.config.AsyncConfig;
+import com.petlog.record.dto.request.RecapRequest;
+import com.petlog.record.entity.RecapBatchCheckpoint;
+import com.petlog.record.repository.jdbc.AdvisoryLockRepository;
+import com.petlog.record.repository.jpa.DiaryRepository;
+import com.petlog.record.repository.jpa.RecapBatchCheckpointRepository;
+import com.petlog.record.repository.jpa.RecapRepository;
+import com.petlog.record.service.RecapService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 월간 리캡 배치 엔진
+ *
+ * WHY 필요?
+ * - 기존 배치는 대상 (petId, userId) 전체를 한 번에 조회한 뒤 LLM 호출을 한 건씩 순차 실행 → 수 시간 소요
+ * - 대상은 키셋 페이지로 스트리밍, 각 페이지는 고정 크기 풀(recapBatchExecutor)에서 병렬 생성
+ * - LLM 호출은 LlmRateLimiter(RPM/TPM) 를 거치므로 동시성을 높여도 할당량을 넘지 않음
+ * - 페이지가 끝날 때마다 RECAP_BATCH_CHECKPOINTS 에 마지막 키를 기록 → 재시작 시 이어서 처리
+ *   (체크포인트 이후 일부 재처리되더라도 같은 기간의 리캡이 이미 있으면 건너뜀)
+ * - 기간별 advisory lock 을 잡은 인스턴스 하나만 실행 (다른 인스턴스는 cron/재개 요청을 건너뜀)
+ *   잠금은 실행 인스턴스의 커넥션이 끊기면 풀리므로, 중단된 배치는 다른 인스턴스가 이어받음
+ * - 생성에 실패한 대상은 WAITING 리캡으로 등록하여 WaitingRecapWorker 가 백오프 후 다시 생성
+ *
+ * 메트릭: recap.batch.targets{result}, recap.batch.throughput.per.minute, recap.batch.remaining, recap.batch.eta.seconds
+ *
+ * @author diary-team
+ * @since 2026-01-05
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RecapBatchEngine {
+
+    private static final String DEFAULT_PET_NAME = "우리 아이";
+
+    // 기간별 advisory lock 키 = 기준값 + 기간 시작일(epoch day)
+    private static final long BATCH_LOCK_KEY_BASE = 7_320_250_000_000L;
+
+    private final RecapService recapService;
+    private final DiaryRepository diaryRepository;
+    private final RecapRepository recapRepository;
+    private final RecapBatchCheckpointRepository checkpointRepository;
+    private final AdvisoryLockRepository advisoryLockRepository;
+    private final MeterRegistry meterRegistry;
+
+    @Qualifier(AsyncConfig.RECAP_BATCH_EXECUTOR)
+    private final Executor recapBatchExecutor;
+
+    // 한 번에 조회/제출하는 대상 수 (페이지 완료 시마다 체크포인트 저장)
+    @Value("${diary.recap.batch.page-size:100}")
+    private int pageSize;
+
+    // 실패한 대상을 WAITING 으로 다시 처리하기까지의 대기 시간
+    @Value("${diary.recap.waiting.retry-backoff-minutes:5}")
+    private long retryBackoffMinutes;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    // 진행률 메트릭 (현재 실행 중인 배치 기준)
+    private final AtomicLong remaining = new AtomicLong();
+    private final AtomicLong throughputPerMinute = new AtomicLong();
+    private final AtomicLong etaSeconds = new AtomicLong();
+
+    private final Map<Outcome, Counter> outcomeCounters = new EnumMap<>(Outcome.class);
+
+    @PostConstruct
+    void registerMetrics() {
+        Gauge.builder("recap.batch.remaining", remaining, AtomicLong::get)
+                .description("현재 배치에서 남은 리캡 생성 대상 수")
+                .register(meterRegistry);
+        Gauge.builder("recap.batch.throughput.per.minute", throughputPerMinute, AtomicLong::get)
+                .description("현재 배치의 분당 처리 대상 수")
+                .register(meterRegistry);
+        Gauge.builder("recap.batch.eta.seconds", etaSeconds, AtomicLong::get)
+                .description("현재 배치의 예상 남은 시간")
+                .register(meterRegistry);
+        for (Outcome outcome : Outcome.values()) {
+            outcomeCounters.put(outcome, meterRegistry.counter("recap.batch.targets", "result", outcome.name().toLowerCase()));
+        }
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    /**
+     * 기간의 리캡 배치를 실행합니다. 이전 실행의 체크포인트가 있으면 이어서 처리합니다.
+     * 같은 인스턴스에서 이미 실행 중이거나 다른 인스턴스가 같은 기간을 실행 중이면 아무 것도 하지 않습니다.
+     */
+    public void run(LocalDate periodStart, LocalDate periodEnd) {
+        if (!running.compareAndSet(false, true)) {
+            log.info("[Batch] 이미 리캡 배치가 실행 중입니다. (요청 기간: {} ~ {})", periodStart, periodEnd);
+            return;
+        }
+        try {
+            boolean owned = advisoryLockRepository.runExclusively(BATCH_LOCK_KEY_BASE + periodStart.toEpochDay(),
+                    () -> execute(periodStart, periodEnd));
+            if (!owned) {
+                log.info("[Batch] 다른 인스턴스가 {} ~ {} 리캡 배치를 실행 중입니다.", periodStart, periodEnd);
+            }
+        } finally {
+            running.set(false);
+            remaining.set(0);
+            throughputPerMinute.set(0);
+            etaSeconds.set(0);
+        }
+    }
+
+    private void execute(LocalDate periodStart, LocalDate periodEnd) {
+        RecapBatchCheckpoint checkpoint = checkpointRepository.findById(periodStart)
+                .orElseGet(() -> RecapBatchCheckpoint.start(periodStart, periodEnd));
+        if (checkpoint.isCompleted()) {
+            log.info("[Batch] {} ~ {} 리캡 배치는 이미 완료되었습니다.", periodStart, periodEnd);
+            return;
+        }
+
+        long total = diaryRepository.countRecapTargets(periodStart, periodEnd);
+        checkpoint.updateTotal(total);
+        checkpoint = checkpointRepository.save(checkpoint);
+
+        long alreadyProcessed = checkpoint.processedCount();
+        log.info("[Batch] 리캡 배치 시작 - 기간: {} ~ {}, 대상: {}건, 이전 진행: {}건",
+                periodStart, periodEnd, total, alreadyProcessed);
+
+        long startNanos = System.nanoTime();
+        long processedThisRun = 0;
+
+        while (true) {
+            List<Object[]> page = checkpoint.getLastPetId() == null
+                    ? diaryRepository.findRecapTargetsFirstPage(periodStart, periodEnd, Limit.of(pageSize))
+                    : diaryRepository.findRecapTargetsAfter(periodStart, periodEnd,
+                            checkpoint.getLastPetId(), checkpoint.getLastUserId(), Limit.of(pageSize));
+            if (page.isEmpty()) {
+                break;
+            }
+
+            Map<Outcome, Long> tally = processPage(page, periodStart, periodEnd);
+
+            Object[] last = page.get(page.size() - 1);
+            checkpoint.advance((Long) last[0], (Long) last[1],
+                    tally.getOrDefault(Outcome.GENERATED, 0L),
+                    tally.getOrDefault(Outcome.SKIPPED, 0L),
+                    tally.getOrDefault(Outcome.FAILED, 0L));
+            checkpoint = checkpointRepository.save(checkpoint);
+
+            processedThisRun += page.size();
+            updateProgress(total, checkpoint.processedCount(), processedThisRun, startNanos);
+            log.info("[Batch] 진행 {}/{} (생성 {}, 건너뜀 {}, 실패 {}) - {}건/분, 남은 시간 약 {}초",
+                    checkpoint.processedCount(), total,
+                    checkpoint.getGeneratedCount(), checkpoint.getSkippedCount(), checkpoint.getFailedCount(),
+                    throughputPerMinute.get(), etaSeconds.get());
+
+            if (page.size() < pageSize) {
+                break;
+            }
+        }
+
+        checkpoint.complete();
+        checkpointRepository.save(checkpoint);
+        log.info("[Batch] 리캡 배치 완료 - 기간: {} ~ {}, 생성 {}, 건너뜀 {}, 실패 {}",
+                periodStart, periodEnd,
+                checkpoint.getGeneratedCount(), checkpoint.getSkippedCount(), checkpoint.getFailedCount());
+    }
+
+    /**
+     * 페이지의 모든 대상을 병렬로 처리하고 결과별 건수를 돌려줍니다.
+     * 체크포인트는 페이지 전체가 끝난 뒤에만 전진하므로 중간에 종료되면 해당 페이지부터 다시 처리합니다.
+     */
+    private Map<Outcome, Long> processPage(List<Object[]> page, LocalDate periodStart, LocalDate periodEnd) {
+        List<CompletableFuture<Outcome>> futures = new ArrayList<>(page.size());
+        for (Object[] pair : page) {
+            Long petId = (Long) pair[0];
+            Long userId = (Long) pair[1];
+            futures.add(CompletableFuture.supplyAsync(
+                    () -> processTarget(petId, userId, periodStart, periodEnd), recapBatchExecutor));
+        }
+
+        Map<Outcome, Long> tally = new EnumMap<>(Outcome.class);
+        for (CompletableFuture<Outcome> future : futures) {
+            tally.merge(future.join(), 1L, Long::sum);
+        }
+        return tally;
+    }
+
+    private Outcome processTarget(Long petId, Long userId, LocalDate periodStart, LocalDate periodEnd) {
+        Outcome outcome;
+        try {
+            if (recapRepository.existsByPetIdAndPeriodStartAndPeriodEnd(petId, periodStart, periodEnd)) {
+                outcome = Outcome.SKIPPED;
+            } else {
+                RecapRequest.Generate request = RecapRequest.Generate.builder()
+                        .petId(petId)
+                        .userId(userId)
+                        .periodStart(periodStart)
+                        .periodEnd(periodEnd)
+                        .petName(DEFAULT_PET_NAME) // MSA 구조상 이름을 알 수 없으므로 기본값 사용
+                        .build();
+                Long recapId = recapService.createAiRecap(request);
+                log.debug("[Batch] 펫 ID: {} - 리캡 생성 완료 (ID: {})", petId, recapId);
+                outcome = Outcome.GENERATED;
+            }
+        } catch (Exception e) {
+            log.warn("[Batch] 펫 ID: {} - 생성 실패, WAITING 으로 재시도 등록 (사유: {})", petId, e.getMessage());
+            requeue(petId, userId, periodStart, periodEnd);
+            outcome = Outcome.FAILED;
+        }
+        outcomeCounters.get(outcome).increment();
+        return outcome;
+    }
+
+    // 체크포인트가 지나가도 누락되지 않도록 WaitingRecapWorker 의 대기열(WAITING 리캡)에 남김
+    private void requeue(Long petId, Long userId, LocalDate periodStart, LocalDate periodEnd) {
+        try {
+            recapService.requeueFailedRecap(petId, userId, periodStart, periodEnd,
+                    LocalDateTime.now().plusMinutes(retryBackoffMinutes));
+        } catch (Exception e) {
+            log.error("[Batch] 펫 ID: {} - 재시도 등록 실패 (사유: {})", petId, e.getMessage());
+        }
+    }
+
+    private void updateProgress(long total, long processed, long processedThisRun, long startNanos) {
+        long left = Math.max(0, total - processed);
+        double elapsedMinutes = Math.max(1, System.nanoTime() - startNanos) / (double) TimeUnit.MINUTES.toNanos(1);
+        double perMinute = processedThisRun / elapsedMinutes;
+
+        remaining.set(left);
+        throughputPerMinute.set(Math.round(perMinute));
+        etaSeconds.set(perMinute > 0 ? Math.round(left / perMinute * 60) : -1);
+    }
+
+    private enum Outcome {
+        GENERATED, SKIPPED, FAILED
+    }
+}
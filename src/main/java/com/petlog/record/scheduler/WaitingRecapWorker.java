@@ -0,0 +1,162 @@
+package com.petlog.record.scheduler;
+
+import com.petlog.record.config.AsyncConfig;
+import com.petlog.record.entity.Recap;
+import com.petlog.record.repository.jpa.RecapRepository;
+import com.petlog.record.service.RecapService;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.InetAddress;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 예약(WAITING) 리캡 처리 워커
+ *
+ * WHY 필요?
+ * - 기존 방식은 매분 WAITING 리캡 전체를 읽어 순차 처리 → 인스턴스가 여러 개면 같은 행을 중복 처리
+ * - RECAPS 테이블을 작업 큐로 사용: FOR UPDATE SKIP LOCKED 로 처리 시점이 된 행만 점유(IN_PROGRESS + lease)
+ * - 점유한 워커가 죽으면 lease 가 만료된 뒤 다른 워커가 다시 점유
+ * - 월간 배치와 실행 풀을 공유하므로 풀의 여유분만큼만 점유하고, 작업 시작 시 lease 를 다시 연장
+ *   (큐에서 기다리는 동안 lease 가 만료되어 다른 인스턴스가 같은 LLM 작업을 반복하지 않도록)
+ * - 대기 행이 없으면 (status, period_end) 인덱스를 타는 조회 한 번으로 끝남
+ *
+ * @author diary-team
+ * @since 2026-01-05
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class WaitingRecapWorker {
+
+    private final RecapRepository recapRepository;
+    private final RecapService recapService;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Qualifier(AsyncConfig.RECAP_BATCH_EXECUTOR)
+    private final ThreadPoolTaskExecutor recapBatchExecutor;
+
+    // 한 번에 점유할 최대 리캡 수 (실행 풀의 여유 스레드 수를 넘지 않음)
+    @Value("${diary.recap.waiting.claim-size:20}")
+    private int claimSize;
+
+    // 점유 유지 시간 (이 시간 안에 생성을 끝내지 못하면 다른 워커가 가져감)
+    @Value("${diary.recap.waiting.lease-minutes:10}")
+    private long leaseMinutes;
+
+    // 기간 내 일기가 없을 때 다시 확인하기까지의 시간
+    @Value("${diary.recap.waiting.no-diary-retry-hours:24}")
+    private long noDiaryRetryHours;
+
+    // 실패 시 재시도 간격 (시도 횟수에 따라 2배씩, 최대 max-backoff)
+    @Value("${diary.recap.waiting.retry-backoff-minutes:5}")
+    private long retryBackoffMinutes;
+
+    @Value("${diary.recap.waiting.max-backoff-minutes:360}")
+    private long maxBackoffMinutes;
+
+    private final String workerId = resolveWorkerId();
+
+    /**
+     * 처리 시점이 된 리캡을 점유하여 병렬로 생성합니다.
+     * @return 점유한 리캡 수
+     */
+    public int processDueRecaps() {
+        int capacity = Math.min(claimSize, freeCapacity());
+        if (capacity <= 0) {
+            return 0;
+        }
+        List<Recap> claimed = claim(capacity);
+        if (claimed.isEmpty()) {
+            return 0;
+        }
+        log.info("[Waiting] 리캡 {}건 점유 (worker: {})", claimed.size(), workerId);
+
+        List<CompletableFuture<Void>> futures = new ArrayList<>(claimed.size());
+        for (Recap recap : claimed) {
+            futures.add(CompletableFuture.runAsync(() -> process(recap), recapBatchExecutor));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        return claimed.size();
+    }
+
+    /**
+     * 잠금 → 점유 상태 변경 → 커밋을 짧은 트랜잭션 하나로 수행합니다.
+     * AI 호출은 커밋 이후에 하므로 행 잠금을 오래 잡지 않습니다.
+     */
+    private List<Recap> claim(int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime leaseUntil = now.plusMinutes(leaseMinutes);
+        List<Recap> claimed = transactionTemplate.execute(status -> {
+            List<Recap> due = recapRepository.lockDueWaitingRecaps(LocalDate.now(), now, limit);
+            due.forEach(recap -> recap.claim(workerId, leaseUntil));
+            return due;
+        });
+        return claimed != null ? claimed : List.of();
+    }
+
+    // 실행 풀에서 바로 시작할 수 있는 작업 수 (실행 중 + 대기 중 작업 제외)
+    private int freeCapacity() {
+        return recapBatchExecutor.getMaxPoolSize() - recapBatchExecutor.getActiveCount()
+                - recapBatchExecutor.getThreadPoolExecutor().getQueue().size();
+    }
+
+    private void process(Recap recap) {
+        Long recapId = recap.getRecapId();
+        try {
+            // 큐에서 기다린 시간만큼 lease 가 줄었으므로 시작 시점 기준으로 연장 (이미 넘어갔으면 건너뜀)
+            LocalDateTime leaseUntil = LocalDateTime.now().plusMinutes(leaseMinutes);
+            Integer extended = transactionTemplate.execute(status -> recapRepository.extendLease(recapId, workerId, leaseUntil));
+            if (extended == null || extended == 0) {
+                log.warn("[Waiting] 리캡 ID: {} - 시작 전에 점유가 다른 워커로 넘어가 건너뜁니다.", recapId);
+                meterRegistry.counter("recap.waiting.processed", "result", "lease_lost").increment();
+                return;
+            }
+            if (recapService.completeClaimedRecap(recapId, workerId)) {
+                meterRegistry.counter("recap.waiting.processed", "result", "generated").increment();
+                return;
+            }
+            log.warn("[Waiting] 리캡 ID: {} - 기간 내 일기 없음, {}시간 후 재확인", recapId, noDiaryRetryHours);
+            recapService.releaseClaimedRecap(recapId, workerId, LocalDateTime.now().plusHours(noDiaryRetryHours));
+            meterRegistry.counter("recap.waiting.processed", "result", "no_diary").increment();
+        } catch (Exception e) {
+            Duration backoff = backoff(recap.getAttempts());
+            log.error("[Waiting] 리캡 ID: {} 처리 실패, {}분 후 재시도", recapId, backoff.toMinutes(), e);
+            meterRegistry.counter("recap.waiting.processed", "result", "failed").increment();
+            try {
+                recapService.releaseClaimedRecap(recapId, workerId, LocalDateTime.now().plus(backoff));
+            } catch (Exception releaseError) {
+                // 해제에 실패해도 lease 만료 후 다시 점유됨
+                log.warn("[Waiting] 리캡 ID: {} 점유 해제 실패: {}", recapId, releaseError.getMessage());
+            }
+        }
+    }
+
+    private Duration backoff(int attempts) {
+        long minutes = retryBackoffMinutes << Math.min(attempts, 16);
+        return Duration.ofMinutes(Math.min(minutes, maxBackoffMinutes));
+    }
+
+    private static String resolveWorkerId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "unknown";
+        }
+        return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
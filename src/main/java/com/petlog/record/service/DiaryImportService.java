@@ -0,0 +1,14 @@
+package com.petlog.record.service;
+
+import com.petlog.record.dto.request.DiaryRequest;
+import com.petlog.record.dto.response.DiaryImportResponse;
+
+public interface DiaryImportService {
+
+    /**
+     * 일기/이미지/보관함 연결을 JDBC 배치로 한 트랜잭션에 저장합니다.
+     * 사진 메타데이터는 MongoDB 에 한 번에 저장하고, 벡터 적재는 커밋 후 백그라운드로 넘깁니다.
+     * 저장 전에 요청에 나온 사용자/펫을 각각 한 번씩 검증하며, photoArchiveId 가 있으면 거부합니다.
+     */
+    DiaryImportResponse importDiaries(DiaryRequest.BulkImport request);
+}
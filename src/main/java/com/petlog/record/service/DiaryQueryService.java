@@ -1,5 +1,6 @@
 package com.petlog.record.service;
 
+import com.petlog.record.dto.response.CursorPageResponse;
 import com.petlog.record.dto.response.DiaryResponse;
 
 import java.time.LocalDate;
@@ -12,4 +13,7 @@ public interface DiaryQueryService {
 
     // 보관함용: AI 다이어리 전체 조회
     List<DiaryResponse> getAiDiaries(Long userId);
+
+    // 보관함용: AI 다이어리 커서 조회 (최신순)
+    CursorPageResponse<DiaryResponse> getAiDiaries(Long userId, String cursor, int size);
 }
\ No newline at end of file
@@ -0,0 +1,12 @@
+package com.petlog.record.service;
+
+import com.petlog.record.dto.response.DiarySearchResponse;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface DiarySearchService {
+
+    // 의미 검색: 사용자(필수)/펫/기간으로 먼저 거른 뒤 유사도 순 top-k
+    List<DiarySearchResponse> search(Long userId, String query, Long petId, LocalDate from, LocalDate to, int topK);
+}
@@ -6,6 +6,7 @@ import com.petlog.record.dto.response.DiaryResponse;
 import com.petlog.record.entity.Diary;
 import com.petlog.record.entity.Visibility;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -14,7 +15,10 @@ public interface DiaryService {
 
 
     // // AI 미리보기 생성 (DB 저장 X)
-    AiDiaryResponse previewAiDiary(Long userId, Long petId, List<DiaryRequest.Image> images, List<MultipartFile> imageFiles, Double latitude, Double longitude, String date);
+    AiDiaryResponse previewAiDiary(Long userId, Long petId, List<DiaryRequest.Image> images, List<MultipartFile> imageFiles, Double latitude, Double longitude, String date, String idempotencyKey);
+
+    // AI 미리보기 스트리밍 (SSE, 제목/본문 조각 → 보정 정보 → 최종 결과)
+    SseEmitter previewAiDiaryStream(Long userId, Long petId, List<DiaryRequest.Image> images, List<MultipartFile> imageFiles, Double latitude, Double longitude, String date);
 
     // 최종 일기 저장 (DB 저장 O)
     Long saveDiary(DiaryRequest.Create request);
@@ -0,0 +1,34 @@
+package com.petlog.record.service;
+
+import com.petlog.record.entity.Diary;
+import com.petlog.record.entity.PetMonthlyDigest;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+public interface PetMonthlyDigestService {
+
+    /**
+     * 일기 저장/수정 후 해당 월 집계에 반영합니다. (일기와 같은 트랜잭션)
+     * @param previousDate 수정 전 일기 날짜 (월이 바뀐 경우 이전 월 집계에서 제거, 생성 시 null)
+     */
+    void applyDiary(Diary diary, LocalDate previousDate);
+
+    /**
+     * 일괄 가져온 일기들을 월 집계에 반영합니다. (일기와 같은 트랜잭션, (펫, 월)마다 잠금 1회)
+     */
+    void applyDiaries(List<Diary> diaries);
+
+    /**
+     * 삭제된 일기를 해당 월 집계에서 제거합니다.
+     */
+    void removeDiary(Diary diary);
+
+    Optional<PetMonthlyDigest> findMonth(Long petId, LocalDate monthStart);
+
+    /**
+     * 기존 일기로 월 집계를 다시 만듭니다. (기능 도입 이전 데이터 보정용)
+     */
+    PetMonthlyDigest rebuild(Long petId, Long userId, LocalDate monthStart, List<Diary> diaries);
+}
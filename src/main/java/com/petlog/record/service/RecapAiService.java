@@ -1,6 +1,8 @@
 package com.petlog.record.service;
 
 import com.petlog.record.dto.response.RecapAiResponse;
+
+import java.time.LocalDate;
 import java.util.List;
 
 public interface RecapAiService {
@@ -11,6 +13,12 @@ public interface RecapAiService {
 
     /**
      * 특정 연도/월 정보를 포함하여 일기 내용을 분석합니다.
+     * 일기 분량이 많으면 주 단위로 나누어 요약(map)한 뒤 최종 리캡으로 합칩니다(reduce).
+     */
+    RecapAiResponse analyzeMonth(String petName, int year, int month, List<DiaryEntry> diaryEntries);
+
+    /**
+     * 리캡 분석 입력 (작성일 + 본문)
      */
-    RecapAiResponse analyzeMonth(String petName, int year, int month, List<String> diaryEntries);
-}
\ No newline at end of file
+    record DiaryEntry(LocalDate date, String content) {}
+}
@@ -1,7 +1,10 @@
 package com.petlog.record.service;
 
 import com.petlog.record.dto.request.RecapRequest;
+import com.petlog.record.dto.response.CursorPageResponse;
 import com.petlog.record.dto.response.RecapResponse;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface RecapService {
@@ -12,6 +15,22 @@ public interface RecapService {
 
     Long createWaitingRecap(RecapRequest.Create request);
 
+    /**
+     * 배치에서 생성에 실패한 대상을 WAITING 리캡으로 등록하여 retryAt 이후 워커가 다시 생성하도록 합니다.
+     */
+    void requeueFailedRecap(Long petId, Long userId, LocalDate periodStart, LocalDate periodEnd, LocalDateTime retryAt);
+
+    /**
+     * 워커가 점유한 WAITING 리캡을 제자리에서 생성 완료합니다.
+     * @return 생성 완료 여부 (점유 만료 또는 기간 내 일기가 없으면 false)
+     */
+    boolean completeClaimedRecap(Long recapId, String workerId);
+
+    /**
+     * 점유를 해제하고 retryAt 이후 다시 처리되도록 합니다.
+     */
+    void releaseClaimedRecap(Long recapId, String workerId, LocalDateTime retryAt);
+
     /**
      * 특정 리캡의 상세 정보를 조회합니다. (보안 검증 포함)
      */
@@ -20,4 +39,11 @@ public interface RecapService {
     List<RecapResponse.Simple> getAllRecaps(Long userId);
 
     List<RecapResponse.Simple> getRecapsByPet(Long petId);
+
+    /**
+     * 사용자별/펫별 리캡 커서 조회 (최신순)
+     */
+    CursorPageResponse<RecapResponse.Simple> getAllRecaps(Long userId, String cursor, int size);
+
+    CursorPageResponse<RecapResponse.Simple> getRecapsByPet(Long petId, String cursor, int size);
 }
\ No newline at end of file
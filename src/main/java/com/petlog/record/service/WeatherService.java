@@ -8,4 +8,7 @@ public interface WeatherService {
 
     // [추가] 과거 날씨 (날짜, 위도, 경도 -> 관측소 매핑 -> ASOS 일자료)
     String getPastWeather(LocalDate date, double lat, double lng);
+
+    // [추가] 과거 날씨 백필 (관측소별 기간 단위로 ASOS 일자료를 받아 저장, 저장된 건수 반환)
+    int backfillPastWeather(int stationId, LocalDate start, LocalDate end);
 }
\ No newline at end of file
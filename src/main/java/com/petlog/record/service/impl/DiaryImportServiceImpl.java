@@ -0,0 +1,184 @@
+package com.petlog.record.service.impl;
+
+import com.petlog.record.client.PetClient;
+import com.petlog.record.client.UserClient;
+import com.petlog.record.dto.request.DiaryRequest;
+import com.petlog.record.dto.response.DiaryImportResponse;
+import com.petlog.record.entity.Diary;
+import com.petlog.record.entity.DiaryImage;
+import com.petlog.record.entity.ImageSource;
+import com.petlog.record.entity.Visibility;
+import com.petlog.record.entity.mongo.PhotoMetadata;
+import com.petlog.record.exception.BusinessException;
+import com.petlog.record.exception.EntityNotFoundException;
+import com.petlog.record.exception.ErrorCode;
+import com.petlog.record.infrastructure.milvus.DiaryVectorIndexer;
+import com.petlog.record.repository.jdbc.DiaryBulkInsertRepository;
+import com.petlog.record.repository.mongo.PhotoMetadataRepository;
+import com.petlog.record.service.DiaryImportService;
+import com.petlog.record.service.PetMonthlyDigestService;
+import feign.FeignException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.document.Document;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DiaryImportServiceImpl implements DiaryImportService {
+
+    private final DiaryBulkInsertRepository diaryBulkInsertRepository;
+    private final PhotoMetadataRepository photoMetadataRepository;
+    private final PetMonthlyDigestService petMonthlyDigestService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final UserClient userClient;
+    private final PetClient petClient;
+    private final TransactionTemplate transactionTemplate;
+
+    @Override
+    public DiaryImportResponse importDiaries(DiaryRequest.BulkImport request) {
+        List<DiaryRequest.Create> items = request.getDiaries();
+        long startedAt = System.currentTimeMillis();
+
+        // 0. 요청 검증 (원격 호출은 트랜잭션 밖에서, 사용자/펫별 1회)
+        if (items.stream().anyMatch(item -> item.getPhotoArchiveId() != null)) {
+            // 일기 저장 경로에서도 photoArchiveId 는 저장되지 않으므로, 조용히 버리지 않고 거부 (보관함은 archiveIds 로 연결)
+            throw new BusinessException(ErrorCode.INVALID_PARAMETER, "일괄 가져오기는 photoArchiveId 를 지원하지 않습니다. archiveIds 를 사용하세요.");
+        }
+        items.stream().map(DiaryRequest.Create::getUserId).filter(Objects::nonNull).distinct().forEach(this::validateUser);
+        items.stream().map(DiaryRequest.Create::getPetId).filter(Objects::nonNull).distinct().forEach(this::validatePet);
+
+        DiaryImportResponse response = transactionTemplate.execute(status -> insertAll(items));
+        log.info("일기 일괄 가져오기 완료 - 일기 {}건, 이미지 {}건 ({}ms)",
+                response.getImportedCount(), response.getImageCount(), System.currentTimeMillis() - startedAt);
+        return response;
+    }
+
+    private DiaryImportResponse insertAll(List<DiaryRequest.Create> items) {
+        LocalDateTime now = LocalDateTime.now();
+
+        // 1. ID 선발급 (테이블별 쿼리 1회)
+        int imageCount = items.stream().mapToInt(item -> imagesOf(item).size()).sum();
+        List<Long> diaryIds = diaryBulkInsertRepository.nextIds("diaries", "diary_id", items.size());
+        List<Long> imageIds = diaryBulkInsertRepository.nextIds("diary_images", "image_id", imageCount);
+
+        // 2. 메모리에서 행 구성
+        List<Diary> diaries = new ArrayList<>(items.size());
+        List<DiaryImage> images = new ArrayList<>(imageCount);
+        List<long[]> archiveLinks = new ArrayList<>();
+        List<PhotoMetadata> metadata = new ArrayList<>();
+        int imageIndex = 0;
+        for (int i = 0; i < items.size(); i++) {
+            DiaryRequest.Create item = items.get(i);
+            Diary diary = toDiary(diaryIds.get(i), item);
+            diaries.add(diary);
+
+            List<DiaryRequest.Image> itemImages = imagesOf(item);
+            for (int order = 0; order < itemImages.size(); order++) {
+                DiaryRequest.Image imageDto = itemImages.get(order);
+                Long imageId = imageIds.get(imageIndex++);
+                DiaryImage image = DiaryImage.builder()
+                        .imageId(imageId)
+                        .userId(item.getUserId())
+                        .imageUrl(imageDto.getImageUrl())
+                        .imgOrder(imageDto.getImgOrder() != null ? imageDto.getImgOrder() : order + 1)
+                        .mainImage(imageDto.getMainImage() != null ? imageDto.getMainImage() : order == 0)
+                        .source(imageDto.getSource() != null ? imageDto.getSource() : ImageSource.GALLERY)
+                        .build();
+                diary.addImage(image);
+                images.add(image);
+
+                if (imageDto.getMetadata() != null && !imageDto.getMetadata().isEmpty()) {
+                    metadata.add(PhotoMetadata.builder()
+                            .imageId(imageId)
+                            .metadata(imageDto.getMetadata())
+                            .build());
+                }
+            }
+            if (item.getArchiveIds() != null) {
+                for (Long archiveId : item.getArchiveIds()) {
+                    archiveLinks.add(new long[]{diary.getDiaryId(), archiveId});
+                }
+            }
+        }
+
+        // 3. 테이블별 JDBC 배치 insert (부모 → 자식 순)
+        diaryBulkInsertRepository.insertDiaries(diaries, now);
+        diaryBulkInsertRepository.insertImages(images, now);
+        diaryBulkInsertRepository.insertArchiveLinks(archiveLinks, now);
+
+        // 4. 펫 월간 집계는 (펫, 월) 단위로 한 번씩만 잠금/갱신
+        petMonthlyDigestService.applyDiaries(diaries);
+
+        // 5. 사진 메타데이터는 insertMany 한 번으로 저장
+        if (!metadata.isEmpty()) {
+            photoMetadataRepository.insert(metadata);
+        }
+
+        // 6. 벡터 적재는 커밋 후 백그라운드에서 큐에 등록 (요청 스레드에서 임베딩하지 않음)
+        List<Document> documents = diaries.stream().map(DiaryVectorIndexer::toDocument).toList();
+        eventPublisher.publishEvent(new DiaryVectorIndexer.BulkIndexRequest(documents));
+
+        log.debug("일기 일괄 insert - 일기 {}건, 이미지 {}건, 보관함 연결 {}건, 메타데이터 {}건",
+                diaries.size(), images.size(), archiveLinks.size(), metadata.size());
+
+        return DiaryImportResponse.builder()
+                .importedCount(diaries.size())
+                .imageCount(images.size())
+                .diaryIds(diaryIds)
+                .build();
+    }
+
+    private Diary toDiary(Long diaryId, DiaryRequest.Create item) {
+        return Diary.builder()
+                .diaryId(diaryId)
+                .userId(item.getUserId())
+                .petId(item.getPetId())
+                .title(item.getTitle())
+                .content(item.getContent())
+                .mood(item.getMood())
+                .weather(item.getWeather())
+                .isAiGen(item.getIsAiGen() != null ? item.getIsAiGen() : Boolean.FALSE)
+                .visibility(item.getVisibility() != null ? item.getVisibility() : Visibility.PRIVATE)
+                .latitude(item.getLatitude())
+                .longitude(item.getLongitude())
+                .locationName(item.getLocationName())
+                .date(item.getDate() != null ? item.getDate() : LocalDate.now())
+                .build();
+    }
+
+    private void validateUser(Long userId) {
+        try { userClient.getUserInfo(userId); } catch (Exception e) { throw new EntityNotFoundException(ErrorCode.USER_NOT_FOUND); }
+    }
+
+    private void validatePet(Long petId) {
+        try { petClient.getPetInfo(petId); } catch (FeignException e) { throw new EntityNotFoundException(ErrorCode.PET_NOT_FOUND); }
+    }
+
+    // images 우선, 없으면 하위 호환용 imageUrls (saveDiary 와 같은 규칙)
+    private List<DiaryRequest.Image> imagesOf(DiaryRequest.Create item) {
+        if (item.getImages() != null && !item.getImages().isEmpty()) {
+            return item.getImages();
+        }
+        if (item.getImageUrls() == null) {
+            return List.of();
+        }
+        List<DiaryRequest.Image> images = new ArrayList<>(item.getImageUrls().size());
+        for (String url : item.getImageUrls()) {
+            images.add(DiaryRequest.Image.builder()
+                    .imageUrl(url)
+                    .source(ImageSource.ARCHIVE)
+                    .build());
+        }
+        return images;
+    }
+}
@@ -1,10 +1,13 @@
 package com.petlog.record.service.impl;
 
+import com.petlog.record.dto.response.CursorPageResponse;
 import com.petlog.record.dto.response.DiaryResponse;
 import com.petlog.record.entity.Diary;
 import com.petlog.record.repository.jpa.DiaryQueryRepository;
 import com.petlog.record.service.DiaryQueryService;
+import com.petlog.record.util.KeysetCursor;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -38,4 +41,18 @@ public class DiaryQueryServiceImpl implements DiaryQueryService {
                 .map(DiaryResponse::fromEntity)
                 .collect(Collectors.toList());
     }
-}
\ No newline at end of file
+
+    @Override
+    public CursorPageResponse<DiaryResponse> getAiDiaries(Long userId, String cursor, int size) {
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        size = CursorPageResponse.normalizeSize(size);
+        // 다음 페이지 존재 여부 확인을 위해 1건 더 조회
+        Limit limit = Limit.of(size + 1);
+        List<Diary> rows = after == null
+                ? diaryQueryRepository.findAiDiariesFirstPage(userId, limit)
+                : diaryQueryRepository.findAiDiariesAfter(userId, after.createdAt(), after.id(), limit);
+
+        return CursorPageResponse.of(rows, size, DiaryResponse::fromEntity,
+                diary -> new KeysetCursor(diary.getCreatedAt(), diary.getDiaryId()));
+    }
+}
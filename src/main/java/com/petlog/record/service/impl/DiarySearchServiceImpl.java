@@ -0,0 +1,75 @@
+package com.petlog.record.service.impl;
+
+import com.petlog.record.dto.response.DiaryResponse;
+import com.petlog.record.dto.response.DiarySearchResponse;
+import com.petlog.record.entity.Diary;
+import com.petlog.record.exception.BusinessException;
+import com.petlog.record.exception.ErrorCode;
+import com.petlog.record.infrastructure.milvus.DiaryVectorSearcher;
+import com.petlog.record.repository.jpa.DiaryRepository;
+import com.petlog.record.service.DiarySearchService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DiarySearchServiceImpl implements DiarySearchService {
+
+    private final DiaryVectorSearcher diaryVectorSearcher;
+    private final DiaryRepository diaryRepository;
+
+    @Value("${diary.search.max-top-k:50}")
+    private int maxTopK;
+
+    @Value("${diary.search.max-query-length:200}")
+    private int maxQueryLength;
+
+    @Override
+    public List<DiarySearchResponse> search(Long userId, String query, Long petId, LocalDate from, LocalDate to, int topK) {
+        if (query == null || query.isBlank()) {
+            throw new BusinessException(ErrorCode.INVALID_PARAMETER, "검색어를 입력해주세요.");
+        }
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new BusinessException(ErrorCode.INVALID_PARAMETER, "검색 시작일이 종료일보다 늦습니다.");
+        }
+        String text = query.length() > maxQueryLength ? query.substring(0, maxQueryLength) : query;
+        int limit = Math.max(1, Math.min(topK, maxTopK));
+
+        List<DiaryVectorSearcher.Hit> hits = diaryVectorSearcher.search(
+                new DiaryVectorSearcher.SearchQuery(text, userId, petId, from, to, limit));
+        if (hits.isEmpty()) {
+            return List.of();
+        }
+
+        // 본문/이미지는 DB 기준 (벡터 적재 지연으로 삭제된 일기가 남아 있을 수 있어 DB 에 없는 결과는 제외)
+        // Milvus 검색 동안 커넥션을 잡지 않도록 트랜잭션은 이 조회(리포지토리 기본 읽기 전용)에만 사용
+        List<Long> diaryIds = hits.stream().map(DiaryVectorSearcher.Hit::diaryId).distinct().toList();
+        Map<Long, Diary> diaries = diaryRepository.findAllWithImagesByIdInAndUserId(diaryIds, userId)
+                .stream()
+                .collect(Collectors.toMap(Diary::getDiaryId, Function.identity()));
+
+        List<DiarySearchResponse> results = new ArrayList<>(hits.size());
+        for (DiaryVectorSearcher.Hit hit : hits) {
+            // 같은 일기의 문서가 여러 개면 점수가 가장 높은(먼저 온) 것만 사용
+            Diary diary = diaries.remove(hit.diaryId());
+            if (diary != null) {
+                results.add(DiarySearchResponse.builder()
+                        .score(hit.score())
+                        .diary(DiaryResponse.fromEntity(diary))
+                        .build());
+            }
+        }
+        log.info("일기 의미 검색 - 사용자: {}, 펫: {}, 결과 {}건", userId, petId, results.size());
+        return results;
+    }
+}
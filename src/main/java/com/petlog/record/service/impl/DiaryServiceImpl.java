@@ -1,10 +1,9 @@
 package com.petlog.record.service.impl;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.petlog.record.client.ImageClient;
 import com.petlog.record.client.PetClient;
 import com.petlog.record.client.UserClient;
+import com.petlog.record.config.AsyncConfig;
 //import com.petlog.record.dto.DiaryEventMessage;
 import com.petlog.record.dto.request.DiaryRequest;
 import com.petlog.record.dto.response.AiDiaryResponse;
@@ -21,53 +20,57 @@ import com.petlog.record.repository.jpa.DiaryRepository;
 import com.petlog.record.repository.mongo.PhotoMetadataRepository;
 import com.petlog.record.service.DiaryService;
 import com.petlog.record.service.DiaryStyleService;
+import com.petlog.record.service.PetMonthlyDigestService;
 import com.petlog.record.service.WeatherService;
 import com.petlog.record.util.LatXLngY;
-
-// ✅ Milvus 관련 임포트가 정확히 선언되어야 합니다.
-import io.milvus.client.MilvusClient;
-import io.milvus.param.R;
-import io.milvus.param.collection.HasCollectionParam;
-import io.milvus.param.collection.FlushParam;
+import com.petlog.record.util.StreamingJsonFieldExtractor;
 
 import feign.FeignException;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.chat.model.ChatResponse;
 import org.springframework.ai.chat.messages.SystemMessage;
 import org.springframework.ai.chat.messages.UserMessage;
-import org.springframework.ai.chat.model.ChatModel;
 import org.springframework.ai.chat.prompt.Prompt;
-import org.springframework.ai.chat.prompt.PromptTemplate;
 import org.springframework.ai.converter.BeanOutputConverter;
 import org.springframework.ai.document.Document;
 import org.springframework.ai.model.Media;
-import org.springframework.ai.openai.OpenAiChatOptions;
-import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.ApplicationEventPublisher;
-import org.springframework.core.io.Resource;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpMethod;
-import org.springframework.http.ResponseEntity;
-import com.petlog.record.infrastructure.kafka.DiaryEventProducer; // ✅ 추가
-import org.springframework.scheduling.annotation.Async;
+import com.petlog.record.infrastructure.ai.AiPreviewCache;
+import com.petlog.record.infrastructure.ai.ChatModelRouter;
+import com.petlog.record.infrastructure.ai.LlmRateLimiter;
+import com.petlog.record.infrastructure.ai.PromptRegistry;
+import com.petlog.record.infrastructure.image.ImagePreprocessor;
+import com.petlog.record.infrastructure.kafka.DiaryEventOutbox;
+import com.petlog.record.infrastructure.milvus.DiaryVectorIndexer;
+import com.petlog.record.infrastructure.geocode.ReverseGeocodingService;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.transaction.event.TransactionPhase;
-import org.springframework.transaction.event.TransactionalEventListener;
-import org.springframework.util.MimeTypeUtils;
-import org.springframework.web.client.RestTemplate;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import reactor.core.Disposable;
 
-import java.net.URL;
+import java.io.IOException;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -78,6 +81,7 @@ public class DiaryServiceImpl implements DiaryService {
 
     private final DiaryRepository diaryRepository;
     private final DiaryStyleService diaryStyleService;
+    private final PetMonthlyDigestService petMonthlyDigestService;
     private final DiaryArchiveRepository diaryArchiveRepository;
     private final PhotoMetadataRepository photoMetadataRepository; // ✅ 추가 주입
 
@@ -85,111 +89,458 @@ public class DiaryServiceImpl implements DiaryService {
     private final PetClient petClient;
     private final ImageClient imageClient;
 
-    private final ChatModel chatModel;
+    private final ChatModelRouter chatModelRouter;
+    private final LlmRateLimiter llmRateLimiter;
+    private final PromptRegistry promptRegistry;
     private final WeatherService weatherService;
-    private final RestTemplate restTemplate;
+    private final ReverseGeocodingService reverseGeocodingService;
+    private final AiPreviewCache aiPreviewCache;
+    private final ImagePreprocessor imagePreprocessor;
 
-    // [Milvus] VectorStore 주입 (Spring AI가 설정파일 기반으로 자동 구성)
+    // [Milvus] 적재는 DiaryVectorIndexer 가 담당 (로그용 컬렉션명만 유지)
     // ✅ application.yml의 설정값을 읽어옵니다. (기본값: vector_store)
     @Value("${spring.ai.vectorstore.milvus.collection-name:vector_store}")
     private String collectionName;
 
-    private final VectorStore vectorStore;
-
-    // ✅ MilvusClient 추가 주입 (Flush 명령용)
-    private final MilvusClient milvusClient;
-
-    // ✅ Kafka Producer 주입
-    private final DiaryEventProducer diaryEventProducer;
+    // ✅ Kafka 이벤트는 Outbox 를 통해 전달 (DiaryOutboxRelay)
+    private final DiaryEventOutbox diaryEventOutbox;
 
     private final ApplicationEventPublisher eventPublisher; // ✅ 추가
 
+    // ✅ AI 미리보기 병렬 실행용 스레드 풀 (AsyncConfig)
+    @Qualifier(AsyncConfig.AI_PREVIEW_EXECUTOR)
+    private final Executor aiPreviewExecutor;
+
 //    // ✅ 1. KafkaTemplate 필드 선언 (이 부분이 없어서 빨간 줄이 뜹니다)
 //    private final KafkaTemplate<String, Object> kafkaTemplate;
 
-    @Value("classpath:prompts/diary-system.st")
-    private Resource systemPromptResource;
+    // AI 미리보기 단계별 타임아웃
+    @Value("${diary.preview.timeout.validation-ms:3000}")
+    private long validationTimeoutMs;
+
+    @Value("${diary.preview.timeout.upload-ms:15000}")
+    private long uploadTimeoutMs;
+
+    @Value("${diary.preview.timeout.weather-ms:3000}")
+    private long weatherTimeoutMs;
+
+    @Value("${diary.preview.timeout.ai-ms:60000}")
+    private long aiTimeoutMs;
+
+    // SSE 스트리밍 미리보기 전체 제한 시간
+    @Value("${diary.preview.timeout.stream-ms:90000}")
+    private long streamTimeoutMs;
+
+    // 모델 경로 선택 시 허용 지연 시간 (최근 지연이 이보다 긴 모델은 후순위)
+    @Value("${diary.preview.latency-budget-ms:15000}")
+    private long previewLatencyBudgetMs;
+
+    // 미리보기 시스템 프롬프트 (resources/prompts/diary-system.st, PromptRegistry 에서 기동 시 컴파일)
+    private static final String PREVIEW_SYSTEM_PROMPT = "diary-system";
+
+    private static final String PREVIEW_INSTRUCTION = "\n\n" +
+            "1. 사진의 상황을 파악하여 감성적이고 잘 어울리는 일기 제목(title)을 생성하세요.\n" +
+            "2. 보관함의 사진들을 분석하여 일기 내용(content)을 작성하세요.";
 
-    @Value("${kakao.rest-api-key}")
-    private String kakaoRestApiKey;
+    // 프롬프트 텍스트 입력 토큰 추정치 (모델 경로 선택용)
+    private int previewPromptTokens;
 
+    @PostConstruct
+    void initPreviewPrompt() {
+        String format = promptRegistry.converter(AiDiaryResponse.class).getFormat();
+        this.previewPromptTokens = llmRateLimiter.countTokens(previewSystemPrompt() + format);
+    }
+
+    private String previewSystemPrompt() {
+        return promptRegistry.render(PREVIEW_SYSTEM_PROMPT) + PREVIEW_INSTRUCTION;
+    }
+
+    // 응답 캐시 키의 프롬프트 버전 (템플릿 내용 해시, 핫 리로드 시 자동 변경)
+    private String previewPromptVersion() {
+        return promptRegistry.version(PREVIEW_SYSTEM_PROMPT);
+    }
+
+    // 이미지 수 + 프롬프트 크기 + 지연 예산 + 마감 시각(0 = 없음)으로 모델 경로 선택 조건 생성
+    private ChatModelRouter.RouteRequest previewRoute(List<String> imageUrls, long deadlineNanos) {
+        return new ChatModelRouter.RouteRequest(imageUrls.size(), previewPromptTokens, previewLatencyBudgetMs, deadlineNanos);
+    }
+
+    // AI 단계 제한 시간이 끝나는 시각 - 대체 경로까지 단계 타임아웃 안에서 끝나도록 라우터에 전달
+    private long previewDeadline() {
+        return System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(aiTimeoutMs);
+    }
+
+    /**
+     * AI 일기 미리보기
+     *
+     * 서로 독립적인 원격 호출(사용자/펫 검증, 날씨 조회)을 동시에 실행하고, 이미지 업로드는 검증이 통과한 뒤 시작합니다.
+     * (이미지 서비스에 보관함 삭제 API 가 없어 검증 실패 요청의 업로드는 되돌릴 수 없음)
+     * 이미지 URL 이 준비되는 즉시 AI 분석을 시작합니다.
+     * DB 쓰기가 없으므로 트랜잭션(커넥션)을 잡지 않습니다.
+     */
     @Override
-    @Transactional
-    public AiDiaryResponse previewAiDiary(Long userId, Long petId, List<DiaryRequest.Image> images, List<MultipartFile> imageFiles, Double latitude, Double longitude, String date) {
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public AiDiaryResponse previewAiDiary(Long userId, Long petId, List<DiaryRequest.Image> images, List<MultipartFile> imageFiles, Double latitude, Double longitude, String date, String idempotencyKey) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return generatePreview(userId, petId, images, imageFiles, latitude, longitude, date);
+        }
+        // 같은 멱등성 키의 재시도는 업로드/AI 호출 없이 첫 요청의 결과를 공유
+        String fingerprint = previewFingerprint(petId, images, imageFiles, latitude, longitude, date);
+        return aiPreviewCache.deduplicate(userId, idempotencyKey, fingerprint,
+                () -> generatePreview(userId, petId, images, imageFiles, latitude, longitude, date));
+    }
+
+    private AiDiaryResponse generatePreview(Long userId, Long petId, List<DiaryRequest.Image> images, List<MultipartFile> imageFiles, Double latitude, Double longitude, String date) {
         log.info("AI Diary Preview started. User: {}, Pet: {}", userId, petId);
-        validateUserAndPet(userId, petId);
+        long startedAt = System.nanoTime();
+        Map<String, Long> stepLatencies = new ConcurrentHashMap<>();
 
-        List<String> finalImageUrls = new ArrayList<>();
-        List<Long> finalArchiveIds = new ArrayList<>();
+        // 1. 독립 단계 동시 실행 (검증 / 날씨, 업로드는 검증 후)
+        CompletableFuture<Void> validation = CompletableFuture.allOf(
+                runStep("user", stepLatencies, validationTimeoutMs, () -> validateUser(userId)),
+                runStep("pet", stepLatencies, validationTimeoutMs, () -> validatePet(petId))
+        );
+
+        // 업로드는 검증 통과 후에만 시작 (없는 사용자/펫 요청으로 이미지 서비스에 보관함이 남지 않도록)
+        CompletableFuture<ArchiveResponse.CreateArchiveDtoList> upload = isActualFilePresent(imageFiles)
+                ? validation.thenCompose(ignored -> supplyStep("upload", stepLatencies, uploadTimeoutMs, () -> uploadImages(userId, imageFiles)))
+                : CompletableFuture.completedFuture(null);
+
+        CompletableFuture<String> weather = CompletableFuture.completedFuture(null);
+        if (latitude != null && longitude != null) {
+            // 기상청 Grid 변환 (LatXLngY는 기존에 있는 유틸 클래스 사용)
+            int[] grid = LatXLngY.convert(latitude, longitude);
+            weather = supplyStep("weather", stepLatencies, weatherTimeoutMs, () -> weatherService.getCurrentWeather(grid[0], grid[1]))
+                    .exceptionally(e -> {
+                        log.warn("날씨 조회 실패, AI 추측값 유지: {}", e.getMessage());
+                        return null;
+                    });
+        }
 
-        // 1. 이미지 처리 (보관함 선택 + 신규 업로드)
+        // 2. 이미지 URL 수집 (보관함 선택 + 신규 업로드 결과)
+        CompletableFuture<List<String>> imageUrls = upload.thenApply(archiveResponse -> collectImageUrls(images, archiveResponse));
+
+        // 3. 검증 통과 + URL 준비 즉시 AI 분석 시작 (마감 시각은 단계 타임아웃과 같은 시점부터 계산)
+        CompletableFuture<AiDiaryResponse> ai = validation
+                .thenCombine(imageUrls, (ignored, urls) -> urls)
+                .thenCompose(urls -> {
+                    long deadlineNanos = previewDeadline();
+                    return supplyStep("ai", stepLatencies, aiTimeoutMs,
+                            () -> aiPreviewCache.getOrGenerate(urls, previewPromptVersion(), chatModelRouter.routes(previewRoute(urls, 0)),
+                                    () -> generateContentWithAiFromUrls(urls, deadlineNanos)));
+                });
+
+        AiDiaryResponse aiResponse = await(ai);
+        ArchiveResponse.CreateArchiveDtoList archiveResponse = await(upload);
+
+        List<String> finalImageUrls = await(imageUrls);
+        List<Long> finalArchiveIds = collectArchiveIds(images, archiveResponse);
+
+        // ✅ [수정] 날짜 정보 보정 및 응답 객체 주입
+        aiResponse.setDate(parseDiaryDate(date)); // ✅ DTO에 날짜 세팅
+
+        // 4. 응답 객체에 이미지 정보 주입 (AiDiaryResponse에 @Setter가 있어야 함)
+        aiResponse.setImageUrls(finalImageUrls);
+        aiResponse.setArchiveIds(finalArchiveIds);
+
+        // 5. 실제 날씨로 보정 (AI가 추측한 날씨를 실제 날씨로 덮어씌움)
+        //    날씨 단계는 자체 타임아웃과 실패 시 null 대체가 있으므로 완료까지 기다림
+        String realWeather = await(weather);
+        if (realWeather != null && !realWeather.isEmpty()) {
+            log.info("실제 날씨 조회 성공: {}", realWeather);
+            aiResponse.setWeather(realWeather);
+        }
+
+        // 6. 위치명(LocationName) 보정 (선택 사항)
+        // 만약 프론트에서 보낸 위치 주소를 우선하고 싶다면 파라미터로 locationName도 받아서 여기서 setLocationName() 하면 됩니다.
+        // 현재는 AI 추측값 또는 프론트엔드의 로직을 따릅니다.
+
+        stepLatencies.put("total", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
+        aiResponse.setStepLatencies(stepLatencies);
+        log.info("AI Diary Preview 완료 - 단계별 소요(ms): {}", stepLatencies);
+
+        return aiResponse;
+    }
+
+    /**
+     * AI 일기 미리보기 (SSE 스트리밍)
+     *
+     * 요청 스레드는 SseEmitter 만 반환하고 즉시 풀려납니다.
+     * 모델의 스트리밍 응답에서 title/content 조각을 도착하는 대로 이벤트로 보내고,
+     * 날씨/위치 보정은 조회되는 즉시 별도 이벤트로, 마지막에 구조화된 전체 결과(result)를 보냅니다.
+     *
+     * 이벤트: title, content (조각), weather, location, result (AiDiaryResponse), error
+     */
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public SseEmitter previewAiDiaryStream(Long userId, Long petId, List<DiaryRequest.Image> images, List<MultipartFile> imageFiles, Double latitude, Double longitude, String date) {
+        log.info("AI Diary Preview (stream) started. User: {}, Pet: {}", userId, petId);
+        long startedAt = System.nanoTime();
+        Map<String, Long> stepLatencies = new ConcurrentHashMap<>();
+        SseEmitter emitter = new SseEmitter(streamTimeoutMs);
+        AtomicReference<Disposable> subscription = new AtomicReference<>();
+        // 클라이언트가 연결을 끊거나 타임아웃되면 모델 스트림도 중단
+        Runnable cancel = () -> {
+            Disposable disposable = subscription.get();
+            if (disposable != null) {
+                disposable.dispose();
+            }
+        };
+        emitter.onCompletion(cancel);
+        emitter.onTimeout(cancel);
+        emitter.onError(e -> cancel.run());
+
+        CompletableFuture<Void> validation = CompletableFuture.allOf(
+                runStep("user", stepLatencies, validationTimeoutMs, () -> validateUser(userId)),
+                runStep("pet", stepLatencies, validationTimeoutMs, () -> validatePet(petId))
+        );
+
+        // 업로드는 검증 통과 후에만 시작 (없는 사용자/펫 요청으로 이미지 서비스에 보관함이 남지 않도록)
+        CompletableFuture<ArchiveResponse.CreateArchiveDtoList> upload = isActualFilePresent(imageFiles)
+                ? validation.thenCompose(ignored -> supplyStep("upload", stepLatencies, uploadTimeoutMs, () -> uploadImages(userId, imageFiles)))
+                : CompletableFuture.completedFuture(null);
+
+        CompletableFuture<String> weather = CompletableFuture.completedFuture(null);
+        CompletableFuture<String> location = CompletableFuture.completedFuture(null);
+        if (latitude != null && longitude != null) {
+            int[] grid = LatXLngY.convert(latitude, longitude);
+            weather = supplyStep("weather", stepLatencies, weatherTimeoutMs, () -> weatherService.getCurrentWeather(grid[0], grid[1]))
+                    .exceptionally(e -> null);
+            location = supplyStep("location", stepLatencies, weatherTimeoutMs, () -> reverseGeocodingService.resolve(latitude, longitude))
+                    .exceptionally(e -> null);
+        }
+        // 보정 정보는 AI 응답과 무관하게 준비되는 즉시 전송
+        weather.thenAccept(value -> {
+            if (value != null && !value.isEmpty()) {
+                sendEvent(emitter, "weather", value);
+            }
+        });
+        location.thenAccept(value -> {
+            if (value != null && !value.isEmpty()) {
+                sendEvent(emitter, "location", value);
+            }
+        });
+
+        CompletableFuture<List<String>> imageUrls = upload.thenApply(archiveResponse -> collectImageUrls(images, archiveResponse));
+        CompletableFuture<String> finalWeather = weather;
+        CompletableFuture<String> finalLocation = location;
+
+        validation.thenCombine(imageUrls, (ignored, urls) -> urls)
+                .thenAccept(urls -> streamAiContent(emitter, subscription, urls, stepLatencies, aiResponse -> {
+                    // 날씨/위치 조회는 각자 타임아웃이 있으므로 기다려도 제한 시간 안에 끝남
+                    CompletableFuture.allOf(finalWeather, finalLocation).whenComplete((v, e) -> {
+                        aiResponse.setDate(parseDiaryDate(date));
+                        aiResponse.setImageUrls(urls);
+                        aiResponse.setArchiveIds(collectArchiveIds(images, upload.getNow(null)));
+                        String realWeather = finalWeather.getNow(null);
+                        if (realWeather != null && !realWeather.isEmpty()) {
+                            aiResponse.setWeather(realWeather);
+                        }
+                        String locationName = finalLocation.getNow(null);
+                        if (locationName != null && !locationName.isEmpty()) {
+                            aiResponse.setLocationName(locationName);
+                            aiResponse.setLatitude(latitude);
+                            aiResponse.setLongitude(longitude);
+                        }
+                        stepLatencies.put("total", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
+                        log.info("AI Diary Preview (stream) 완료 - 단계별 소요(ms): {}", stepLatencies);
+                        sendEvent(emitter, "result", aiResponse);
+                        emitter.complete();
+                    });
+                }))
+                .exceptionally(e -> {
+                    sendError(emitter, e);
+                    return null;
+                });
+
+        return emitter;
+    }
+
+    /**
+     * 모델 스트리밍 응답을 구독하여 title/content 조각을 전송하고, 완료되면 전체 JSON 을 파싱해 onResult 로 넘깁니다.
+     * 같은 이미지/프롬프트/모델의 응답이 캐시에 있으면 모델을 호출하지 않습니다.
+     */
+    private void streamAiContent(SseEmitter emitter, AtomicReference<Disposable> subscription, List<String> urls,
+                                 Map<String, Long> stepLatencies, Consumer<AiDiaryResponse> onResult) {
+        long deadlineNanos = previewDeadline();
+        AiDiaryResponse cached = aiPreviewCache.getIfPresent(urls, previewPromptVersion(), chatModelRouter.routes(previewRoute(urls, 0)));
+        if (cached != null) {
+            sendEvent(emitter, "title", cached.getTitle());
+            sendEvent(emitter, "content", cached.getContent());
+            onResult.accept(cached);
+            return;
+        }
+
+        BeanOutputConverter<AiDiaryResponse> converter = promptRegistry.converter(AiDiaryResponse.class);
+        Prompt prompt = buildPreviewPrompt(urls, converter);
+        StreamingJsonFieldExtractor extractor = new StreamingJsonFieldExtractor(Set.of("title", "content"));
+        StringBuilder fullText = new StringBuilder();
+        // 대체 경로가 응답했으면 그 경로의 키로 캐시
+        AtomicReference<String> answeredRoute = new AtomicReference<>();
+        long begin = System.nanoTime();
+
+        subscription.set(chatModelRouter.stream(prompt, previewRoute(urls, deadlineNanos))
+                .timeout(Duration.ofMillis(aiTimeoutMs))
+                .subscribe(
+                        routed -> {
+                            answeredRoute.set(routed.route());
+                            ChatResponse response = routed.response();
+                            String text = response.getResult() != null && response.getResult().getOutput() != null
+                                    ? response.getResult().getOutput().getContent()
+                                    : null;
+                            if (text == null || text.isEmpty()) {
+                                return;
+                            }
+                            fullText.append(text);
+                            extractor.feed(text).forEach((field, delta) -> sendEvent(emitter, field, delta));
+                        },
+                        error -> sendError(emitter, error),
+                        () -> {
+                            stepLatencies.put("ai", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - begin));
+                            try {
+                                AiDiaryResponse parsed = converter.convert(fullText.toString());
+                                if (answeredRoute.get() != null) {
+                                    aiPreviewCache.put(urls, previewPromptVersion(), answeredRoute.get(), parsed);
+                                }
+                                onResult.accept(parsed);
+                            } catch (Exception e) {
+                                sendError(emitter, e);
+                            }
+                        }));
+    }
+
+    private void sendEvent(SseEmitter emitter, String name, Object data) {
+        if (data == null) {
+            return;
+        }
+        try {
+            emitter.send(SseEmitter.event().name(name).data(data));
+        } catch (IOException | IllegalStateException e) {
+            // 클라이언트 연결 종료 등 - onCompletion/onError 에서 스트림을 정리함
+            log.debug("SSE 이벤트 전송 실패 ({}): {}", name, e.getMessage());
+        }
+    }
+
+    private void sendError(SseEmitter emitter, Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        String message;
+        if (cause instanceof BusinessException businessException) {
+            message = businessException.getErrorCode().getMessage();
+        } else if (cause instanceof TimeoutException) {
+            message = "AI 미리보기 처리 시간 초과";
+        } else {
+            message = "AI 일기 생성 실패";
+        }
+        log.warn("AI Diary Preview (stream) 실패: {}", cause.getMessage());
+        sendEvent(emitter, "error", message);
+        emitter.complete();
+    }
+
+    // 보관함 선택 이미지 + 신규 업로드 결과 URL (하나도 없으면 잘못된 요청)
+    private List<String> collectImageUrls(List<DiaryRequest.Image> images, ArchiveResponse.CreateArchiveDtoList archiveResponse) {
+        List<String> urls = new ArrayList<>();
         if (images != null) {
             for (DiaryRequest.Image img : images) {
                 if (ImageSource.ARCHIVE.equals(img.getSource()) && img.getArchiveId() != null) {
-                    finalImageUrls.add(img.getImageUrl());
-                    finalArchiveIds.add(img.getArchiveId());
+                    urls.add(img.getImageUrl());
                 }
             }
         }
+        if (archiveResponse != null) {
+            archiveResponse.getArchives().forEach(dto -> urls.add(dto.getUrl()));
+        }
+        if (urls.isEmpty()) {
+            throw new BusinessException(ErrorCode.INVALID_PARAMETER);
+        }
+        return urls;
+    }
 
-        if (isActualFilePresent(imageFiles)) {
-            try {
-                ArchiveResponse.CreateArchiveDtoList archiveResponse = imageClient.createArchive(userId, imageFiles);
-                for (ArchiveResponse.CreateArchiveDto dto : archiveResponse.getArchives()) {
-                    finalImageUrls.add(dto.getUrl());
-                    finalArchiveIds.add(dto.getArchiveId());
+    private List<Long> collectArchiveIds(List<DiaryRequest.Image> images, ArchiveResponse.CreateArchiveDtoList archiveResponse) {
+        List<Long> archiveIds = new ArrayList<>();
+        if (images != null) {
+            for (DiaryRequest.Image img : images) {
+                if (ImageSource.ARCHIVE.equals(img.getSource()) && img.getArchiveId() != null) {
+                    archiveIds.add(img.getArchiveId());
                 }
-            } catch (Exception e) {
-                log.error("Image Server Upload Failed", e);
-                throw new RuntimeException("이미지 서버 연동 실패");
             }
         }
-
-        if (finalImageUrls.isEmpty()) {
-            throw new BusinessException(ErrorCode.INVALID_PARAMETER);
+        if (archiveResponse != null) {
+            archiveResponse.getArchives().forEach(dto -> archiveIds.add(dto.getArchiveId()));
         }
+        return archiveIds;
+    }
 
-        // 2. AI 분석 실행
-        AiDiaryResponse aiResponse = generateContentWithAiFromUrls(finalImageUrls);
-
-        // ✅ [수정] 날짜 정보 보정 및 응답 객체 주입
-        LocalDate diaryDate;
+    private LocalDate parseDiaryDate(String date) {
         try {
-            diaryDate = (date != null && !date.isEmpty()) ? LocalDate.parse(date) : LocalDate.now();
+            return (date != null && !date.isEmpty()) ? LocalDate.parse(date) : LocalDate.now();
         } catch (DateTimeParseException e) {
             log.warn("Invalid date format: {}, defaulting to today", date);
-            diaryDate = LocalDate.now();
+            return LocalDate.now();
         }
-        aiResponse.setDate(diaryDate); // ✅ DTO에 날짜 세팅
-
+    }
 
-        // 3. 응답 객체에 이미지 정보 주입 (AiDiaryResponse에 @Setter가 있어야 함)
-        aiResponse.setImageUrls(finalImageUrls);
-        aiResponse.setArchiveIds(finalArchiveIds);
+    /**
+     * 멱등성 키 재사용 검증용 요청 요약 (같은 키로 다른 사진/펫을 보내면 거절)
+     */
+    private String previewFingerprint(Long petId, List<DiaryRequest.Image> images, List<MultipartFile> imageFiles, Double latitude, Double longitude, String date) {
+        StringBuilder sb = new StringBuilder()
+                .append(petId).append('|').append(latitude).append('|').append(longitude).append('|').append(date);
+        if (images != null) {
+            for (DiaryRequest.Image img : images) {
+                sb.append("|a:").append(img.getArchiveId()).append(':').append(img.getImageUrl());
+            }
+        }
+        if (imageFiles != null) {
+            for (MultipartFile file : imageFiles) {
+                sb.append("|f:").append(file.getOriginalFilename()).append(':').append(file.getSize());
+            }
+        }
+        return AiPreviewCache.sha256(sb.toString());
+    }
 
-        // 3. [NEW] 실제 날씨 조회 및 보정
-        if (latitude != null && longitude != null) {
-            try {
-                // 기상청 Grid 변환 (LatXLngY는 기존에 있는 유틸 클래스 사용)
-                int[] grid = LatXLngY.convert(latitude, longitude);
+    private CompletableFuture<Void> runStep(String step, Map<String, Long> stepLatencies, long timeoutMs, Runnable task) {
+        return supplyStep(step, stepLatencies, timeoutMs, () -> {
+            task.run();
+            return null;
+        });
+    }
 
-                // WeatherService를 통해 실제 날씨 조회
-                String realWeather = weatherService.getCurrentWeather(grid[0], grid[1]);
+    /**
+     * 전용 실행기에서 단계를 실행하고 소요 시간을 기록합니다. 단계별 타임아웃이 적용됩니다.
+     */
+    private <T> CompletableFuture<T> supplyStep(String step, Map<String, Long> stepLatencies, long timeoutMs, Supplier<T> task) {
+        return CompletableFuture.supplyAsync(() -> {
+                    long begin = System.nanoTime();
+                    try {
+                        return task.get();
+                    } finally {
+                        stepLatencies.put(step, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - begin));
+                    }
+                }, aiPreviewExecutor)
+                .orTimeout(timeoutMs, TimeUnit.MILLISECONDS)
+                .whenComplete((result, e) -> {
+                    if (e instanceof TimeoutException || (e != null && e.getCause() instanceof TimeoutException)) {
+                        log.warn("AI 미리보기 단계 타임아웃 - {} ({}ms)", step, timeoutMs);
+                    }
+                });
+    }
 
-                if (realWeather != null && !realWeather.isEmpty()) {
-                    log.info("실제 날씨 조회 성공: {}", realWeather);
-                    aiResponse.setWeather(realWeather); // AI가 추측한 날씨를 실제 날씨로 덮어씌움
-                }
-            } catch (Exception e) {
-                log.warn("날씨 조회 실패, AI 추측값 유지: {}", e.getMessage());
+    /**
+     * 비동기 단계 결과를 기다리며, 원래 발생한 예외로 되돌려 던집니다.
+     */
+    private <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof TimeoutException) {
+                throw new BusinessException(ErrorCode.EXTERNAL_API_ERROR, "AI 미리보기 처리 시간 초과");
+            }
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
             }
+            throw e;
         }
-
-        // 4. 위치명(LocationName) 보정 (선택 사항)
-        // 만약 프론트에서 보낸 위치 주소를 우선하고 싶다면 파라미터로 locationName도 받아서 여기서 setLocationName() 하면 됩니다.
-        // 현재는 AI 추측값 또는 프론트엔드의 로직을 따릅니다.
-
-        return aiResponse;
     }
 
     @Override
@@ -209,7 +560,7 @@ public class DiaryServiceImpl implements DiaryService {
 
         String finalLocationName = request.getLocationName();
         if ((finalLocationName == null || finalLocationName.isEmpty()) && request.getLatitude() != null && request.getLongitude() != null) {
-            finalLocationName = getAddressFromCoords(request.getLatitude(), request.getLongitude());
+            finalLocationName = reverseGeocodingService.resolve(request.getLatitude(), request.getLongitude());
         }
 
         // 2. Diary 엔티티 생성
@@ -298,107 +649,43 @@ public class DiaryServiceImpl implements DiaryService {
             }
         }
 
+        // 5. 펫 월간 집계 갱신 (리캡 생성 시 일기 재스캔 방지)
+        petMonthlyDigestService.applyDiary(savedDiary, null);
+
         // 7. [Milvus] 벡터 DB에 일기 내용 저장 (검색/RAG용)
         saveDiaryToVectorDB(savedDiary);
 
-        // ✅ 3. Kafka 전송을 위한 이벤트를 발행 (직접 호출 대신 이벤트만 던짐)
+        // ✅ 3. Kafka 전송용 이벤트를 같은 트랜잭션에서 Outbox 에 기록 (릴레이가 비동기 전송)
         String firstImageUrl = savedDiary.getImages().isEmpty() ? null : savedDiary.getImages().get(0).getImageUrl();
-        eventPublisher.publishEvent(new DiaryCreatedEvent(
+        diaryEventOutbox.diaryCreated(
                 savedDiary.getDiaryId(),
                 savedDiary.getUserId(),
                 savedDiary.getPetId(),
                 savedDiary.getContent(),
                 firstImageUrl
-        ));
+        );
 
         return savedDiary.getDiaryId();
     }
 
 
     /**
-     * ✅ 카프카 전송 전용 리스너
-     * propagation = Propagation.NOT_SUPPORTED 를 사용하여
-     * 클래스 레벨의 @Transactional 설정을 무시하고 트랜잭션 없이 실행되도록 합니다.
-     */
-    @Async
-    @Transactional(propagation = Propagation.NOT_SUPPORTED)
-    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
-    public void handleDiaryCreatedEvent(DiaryCreatedEvent event) {
-        log.info("DB 커밋 완료됨. 카프카 이벤트 발행을 시도합니다. DiaryId: {}", event.diaryId());
-        try {
-            diaryEventProducer.publishDiaryCreatedEvent(
-                    event.diaryId(), event.userId(), event.petId(), event.content(), event.imageUrl()
-            );
-        } catch (Exception e) {
-            log.error("Kafka 전송 실패 (하지만 DB는 이미 저장됨): {}", e.getMessage());
-        }
-    }
-
-    // 이벤트 객체 정의 (간단하게 레코드로 작성)
-    public record DiaryCreatedEvent(Long diaryId, Long userId, Long petId, String content, String imageUrl) {}
-
-
-    /**
-     * [Milvus] 생성된 일기를 벡터 DB에 저장하는 메서드
-     * Spring AI의 Document 객체로 변환하여 VectorStore에 저장합니다.
+     * [Milvus] 생성/수정된 일기를 벡터 DB 적재 파이프라인에 넘기는 메서드
+     * 실제 임베딩/insert/flush 는 트랜잭션 커밋 이후 DiaryVectorIndexer 가 배치로 처리합니다.
      */
     private void saveDiaryToVectorDB(Diary diary) {
         try {
-            log.info("Milvus Vector DB 저장 시작 (컬렉션: {}) - DiaryId: {}", collectionName, diary.getDiaryId());
-
-
-            // 1. 메타데이터 생성 (검색 시 필터링에 사용할 데이터)
-            Map<String, Object> metadata = new HashMap<>();
-            metadata.put("userId", diary.getUserId());
-            metadata.put("petId", diary.getPetId());
-            metadata.put("diaryId", diary.getDiaryId());
-            metadata.put("title", diary.getTitle()); // ✅ 검색 필터링/결과용 추가
-            metadata.put("date", diary.getDate().toString());
-            metadata.put("mood", diary.getMood());
-            if (diary.getWeather() != null) metadata.put("weather", diary.getWeather());
-            if (diary.getLocationName() != null) metadata.put("location", diary.getLocationName());
-
-            // 2. Document 생성 (내용 + 메타데이터)
-            // Embedding은 VectorStore가 설정된 모델(OpenAI 등)을 사용해 자동으로 수행함
-            Document document = new Document(diary.getContent(), metadata);
-
-            // 3. 저장
-            vectorStore.add(List.of(document));
-
-            // ✅ 2. 강제로 디스크에 쓰기 (Flush) - MinIO 용량 확인용
-            // 'spring_ai_vectors'는 Spring AI Milvus VectorStore의 기본 컬렉션명입니다.
-            // ✅ 2. 안전한 Flush 호출 (hasCollection 성공 시에만)
-            if (hasCollection(collectionName)) {
-                milvusClient.flush(FlushParam.newBuilder()
-                        .addCollectionName(collectionName)
-                        .build());
-                log.info("Milvus 저장 및 Flush 완료: {}", collectionName);
-            }
+            // 1~2. Document 생성 (내용 + 검색 필터링용 메타데이터)
+            // Embedding은 적재 파이프라인이 배치 단위로 한 번에 수행함
+            Document document = DiaryVectorIndexer.toDocument(diary);
 
-            log.info("Milvus 저장 완료");
+            // 3. 커밋 이후 적재 큐에 등록 (요청 스레드에서는 임베딩/flush 하지 않음)
+            eventPublisher.publishEvent(new DiaryVectorIndexer.IndexRequest(document));
+            log.info("Milvus 적재 요청 등록 (컬렉션: {}) - DiaryId: {}", collectionName, diary.getDiaryId());
 
         } catch (Exception e) {
-            // 벡터 DB 저장이 실패해도 메인 트랜잭션(RDB 저장)은 롤백되지 않도록 로그만 남김 (선택 사항)
-            log.error("Milvus Vector DB 저장 실패: {}", e.getMessage(), e);
-            // 필요 시 throw new BusinessException(ErrorCode.VECTOR_STORE_ERROR);
-        }
-    }
-
-    /**
-     * ✅ Milvus 컬렉션 존재 여부 확인 (빨간 줄 해결 버전)
-     */
-    private boolean hasCollection(String name) {
-        try {
-            // Milvus SDK의 응답은 R<Boolean> 타입입니다.
-            R<Boolean> response = milvusClient.hasCollection(HasCollectionParam.newBuilder()
-                    .withCollectionName(name)
-                    .build());
-
-            // 응답이 성공(Success)이고 데이터가 true일 때만 true 반환
-            return response.getStatus() == R.Status.Success.getCode() && Boolean.TRUE.equals(response.getData());
-        } catch (Exception e) {
-            log.error("Milvus 컬렉션 확인 중 오류 발생: {}", e.getMessage());
-            return false;
+            // 벡터 DB 적재 요청이 실패해도 메인 트랜잭션(RDB 저장)은 롤백되지 않도록 로그만 남김
+            log.error("Milvus 적재 요청 실패: {}", e.getMessage(), e);
         }
     }
 
@@ -413,33 +700,30 @@ public class DiaryServiceImpl implements DiaryService {
     }
 
 
-    // AI 분석 헬퍼 메서드 (URL 기반)
-    private AiDiaryResponse generateContentWithAiFromUrls(List<String> imageUrls) {
-        BeanOutputConverter<AiDiaryResponse> converter = new BeanOutputConverter<>(AiDiaryResponse.class);
-
-        // 1. 기본 시스템 프롬프트 렌더링
-        String baseSystemPrompt = new PromptTemplate(systemPromptResource).render();
-        //SystemMessage systemMessage = new SystemMessage(baseSystemPrompt + "\n\n보관함의 사진들을 분석하여 일기를 작성하세요.");
-        String customInstruction = "\n\n" +
-                "1. 사진의 상황을 파악하여 감성적이고 잘 어울리는 일기 제목(title)을 생성하세요.\n" +
-                "2. 보관함의 사진들을 분석하여 일기 내용(content)을 작성하세요.";
-
-        SystemMessage systemMessage = new SystemMessage(baseSystemPrompt + customInstruction);
-
+    // AI 분석 헬퍼 메서드 (URL 기반) - 실제로 응답한 경로와 함께 반환 (캐시 키용)
+    private AiPreviewCache.Generated generateContentWithAiFromUrls(List<String> imageUrls, long deadlineNanos) {
+        BeanOutputConverter<AiDiaryResponse> converter = promptRegistry.converter(AiDiaryResponse.class);
         try {
-            List<Media> mediaList = new ArrayList<>();
-            for (String url : imageUrls) {
-                mediaList.add(new Media(MimeTypeUtils.IMAGE_JPEG, new URL(url)));
-            }
-            UserMessage userMessage = new UserMessage("분석하여 JSON 형식으로 응답하세요.\n" + converter.getFormat(), mediaList);
-            Prompt prompt = new Prompt(List.of(systemMessage, userMessage), OpenAiChatOptions.builder().withModel("gpt-4o").build());
-            return converter.convert(chatModel.call(prompt).getResult().getOutput().getContent());
+            Prompt prompt = buildPreviewPrompt(imageUrls, converter);
+            ChatModelRouter.RoutedResponse routed = chatModelRouter.call(prompt, previewRoute(imageUrls, deadlineNanos));
+            return new AiPreviewCache.Generated(routed.route(),
+                    converter.convert(routed.response().getResult().getOutput().getContent()));
         } catch (Exception e) {
             log.error("AI 분석 실패", e);
             throw new RuntimeException("AI 일기 생성 실패");
         }
     }
 
+    // 미리보기 프롬프트 (시스템 프롬프트 + 이미지 + 출력 형식) - 일반/스트리밍 공용
+    private Prompt buildPreviewPrompt(List<String> imageUrls, BeanOutputConverter<AiDiaryResponse> converter) {
+        SystemMessage systemMessage = new SystemMessage(previewSystemPrompt());
+        // 원본 URL 대신 축소/재인코딩된 이미지를 base64 로 전송 (실패한 이미지는 URL 전달)
+        List<Media> mediaList = imagePreprocessor.toMediaList(imageUrls);
+        UserMessage userMessage = new UserMessage("분석하여 JSON 형식으로 응답하세요.\n" + converter.getFormat(), mediaList);
+        // 모델/옵션은 ChatModelRouter 가 경로별로 지정
+        return new Prompt(List.of(systemMessage, userMessage));
+    }
+
     @Override
     public DiaryResponse getDiary(Long diaryId) {
         // 1. PostgreSQL에서 일기 조회
@@ -489,6 +773,9 @@ public class DiaryServiceImpl implements DiaryService {
         Diary diary = diaryRepository.findById(diaryId)
                 .orElseThrow(() -> new EntityNotFoundException(ErrorCode.DIARY_NOT_FOUND));
 
+        LocalDate previousDate = diary.getDate();
+        Document previousDocument = DiaryVectorIndexer.toDocument(diary);
+
         // 1. 엔티티 수정 (제목 필드 반영)
         // Diary 엔티티의 update 메서드가 (title, content, visibility, weather, mood) 순서라고 가정합니다.
         diary.update(
@@ -500,22 +787,25 @@ public class DiaryServiceImpl implements DiaryService {
                 request.getMood()
         );
 
-        // 2. [Milvus] 벡터 DB 정보 갱신
-        // 제목이나 내용이 바뀌었으므로 임베딩을 다시 생성하여 저장합니다.
-        // Spring AI의 VectorStore.add는 보통 같은 ID(metadata의 diaryId)를 기반으로 덮어쓰기하거나 새로 생성합니다.
-        saveDiaryToVectorDB(diary);
+        // 월간 집계 갱신 (날짜가 다른 달로 바뀌면 이전 달에서 제거)
+        petMonthlyDigestService.applyDiary(diary, previousDate);
 
-        // 3. [Kafka] 수정 이벤트 발행
-        try {
-            diaryEventProducer.publishDiaryUpdatedEvent(
-                    diary.getDiaryId(),
-                    diary.getUserId(),
-                    diary.getPetId(),
-                    diary.getContent()
-            );
-        } catch (Exception e) {
-            log.error("Kafka 수정 이벤트 발행 실패: {}", e.getMessage());
+        // 2. [Milvus] 벡터 DB 정보 갱신
+        // 문서 ID 가 diaryId 이므로 적재 파이프라인이 기존 벡터를 지우고 새로 insert 합니다. (중복 없음)
+        // 본문이 그대로면 임베딩 캐시의 벡터를 재사용하고, 벡터 문서 자체가 같으면(공개 범위만 변경 등) 재적재하지 않습니다.
+        if (DiaryVectorIndexer.sameDocument(previousDocument, DiaryVectorIndexer.toDocument(diary))) {
+            log.debug("벡터 문서 변경 없음 - Milvus 재적재 생략. DiaryId: {}", diaryId);
+        } else {
+            saveDiaryToVectorDB(diary);
         }
+
+        // 3. [Kafka] 수정 이벤트를 Outbox 에 기록
+        diaryEventOutbox.diaryUpdated(
+                diary.getDiaryId(),
+                diary.getUserId(),
+                diary.getPetId(),
+                diary.getContent()
+        );
     }
 
 //    @Override
@@ -549,44 +839,35 @@ public class DiaryServiceImpl implements DiaryService {
 
         // 4. DB에서 삭제
         // 4. PostgreSQL 데이터 삭제
+        petMonthlyDigestService.removeDiary(diary);
         diaryRepository.delete(diary);
 
-        // 5. ✅ Kafka 삭제 이벤트 발행 (추출한 변수 사용)
+        // [Milvus] 커밋 이후 벡터 삭제
+        eventPublisher.publishEvent(new DiaryVectorIndexer.DeleteRequest(diaryId));
+
+        // 5. ✅ Kafka 삭제 이벤트를 Outbox 에 기록 (추출한 변수 사용)
+        diaryEventOutbox.diaryDeleted(diaryId, userId, petId);
+        log.info("Diary 삭제 이벤트 Outbox 기록: diaryId {}", diaryId);
+    }
+
+    private ArchiveResponse.CreateArchiveDtoList uploadImages(Long userId, List<MultipartFile> imageFiles) {
         try {
-            diaryEventProducer.publishDiaryDeletedEvent(diaryId, userId, petId);
-            log.info("Diary 삭제 이벤트 발행 성공: diaryId {}", diaryId);
+            return imageClient.createArchive(userId, imageFiles);
         } catch (Exception e) {
-            log.error("Diary 삭제 이벤트 발행 실패: {}", e.getMessage());
+            log.error("Image Server Upload Failed", e);
+            throw new RuntimeException("이미지 서버 연동 실패");
         }
     }
 
-    private void validateUserAndPet(Long userId, Long petId) {
+    private void validateUser(Long userId) {
         try { userClient.getUserInfo(userId); } catch (Exception e) { throw new EntityNotFoundException(ErrorCode.USER_NOT_FOUND); }
+    }
+
+    private void validatePet(Long petId) {
         try { petClient.getPetInfo(petId); } catch (FeignException e) { throw new EntityNotFoundException(ErrorCode.PET_NOT_FOUND); }
     }
 
     private boolean isActualFilePresent(List<MultipartFile> files) {
         return files != null && !files.isEmpty() && !files.get(0).isEmpty();
     }
-
-    private String getAddressFromCoords(Double lat, Double lng) {
-        try {
-            if (kakaoRestApiKey == null || kakaoRestApiKey.isEmpty()) return null;
-            String url = String.format("https://dapi.kakao.com/v2/local/geo/coord2regioncode.json?x=%s&y=%s", lng, lat);
-            HttpHeaders headers = new HttpHeaders();
-            headers.set("Authorization", "KakaoAK " + kakaoRestApiKey);
-            HttpEntity<String> entity = new HttpEntity<>(headers);
-            ResponseEntity<String> response = restTemplate.exchange(url, HttpMethod.GET, entity, String.class);
-            ObjectMapper mapper = new ObjectMapper();
-            JsonNode root = mapper.readTree(response.getBody());
-            JsonNode documents = root.path("documents");
-            if (documents.isArray() && documents.size() > 0) {
-                for (JsonNode doc : documents) {
-                    if ("H".equals(doc.path("region_type").asText())) return doc.path("address_name").asText();
-                }
-                return documents.get(0).path("address_name").asText();
-            }
-        } catch (Exception e) { log.error("주소 변환 실패"); }
-        return null;
-    }
 }
\ No newline at end of file
@@ -0,0 +1,138 @@
+package com.petlog.record.service.impl;
+
+import com.petlog.record.entity.Diary;
+import com.petlog.record.entity.DiaryImage;
+import com.petlog.record.entity.PetMonthlyDigest;
+import com.petlog.record.repository.jpa.PetMonthlyDigestRepository;
+import com.petlog.record.service.PetMonthlyDigestService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 펫 월간 일기 집계 (PET_MONTHLY_DIGESTS) 증분 갱신
+ *
+ * WHY 필요?
+ * - 리캡 생성마다 기간 내 일기 전체를 다시 읽어 이미지/텍스트를 추출하던 작업을 작성 시점으로 옮김
+ * - 리캡은 (펫, 월) 1행만 읽으면 momentCount, 대표 이미지, 분석 입력을 바로 얻음
+ *
+ * @author diary-team
+ * @since 2026-01-05
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PetMonthlyDigestServiceImpl implements PetMonthlyDigestService {
+
+    private final PetMonthlyDigestRepository petMonthlyDigestRepository;
+
+    // 리캡 분석 입력으로 보관할 본문 발췌 길이
+    @Value("${diary.recap.digest.excerpt-chars:500}")
+    private int excerptChars;
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void applyDiary(Diary diary, LocalDate previousDate) {
+        if (previousDate != null && !sameMonth(previousDate, diary.getDate())) {
+            lockMonth(diary.getPetId(), diary.getUserId(), monthStart(previousDate))
+                    .removeDiary(diary.getDiaryId());
+        }
+        if (diary.getDate() == null) {
+            return;
+        }
+        lockMonth(diary.getPetId(), diary.getUserId(), monthStart(diary.getDate()))
+                .addDiary(toFact(diary), ThreadLocalRandom.current());
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void applyDiaries(List<Diary> diaries) {
+        // (펫, 월) 단위로 묶어 행마다 한 번만 잠그고, 교착을 피하려고 항상 같은 순서로 잠금
+        Map<MonthKey, List<Diary>> byMonth = new TreeMap<>(
+                Comparator.comparing(MonthKey::petId).thenComparing(MonthKey::monthStart));
+        for (Diary diary : diaries) {
+            if (diary.getDate() == null) {
+                continue;
+            }
+            byMonth.computeIfAbsent(new MonthKey(diary.getPetId(), monthStart(diary.getDate())), key -> new ArrayList<>())
+                    .add(diary);
+        }
+        byMonth.forEach((key, monthDiaries) -> {
+            PetMonthlyDigest digest = lockMonth(key.petId(), monthDiaries.get(0).getUserId(), key.monthStart());
+            for (Diary diary : monthDiaries) {
+                digest.addDiary(toFact(diary), ThreadLocalRandom.current());
+            }
+        });
+        log.info("[Digest] 월간 집계 일괄 반영 - 일기 {}건, 월 {}개", diaries.size(), byMonth.size());
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void removeDiary(Diary diary) {
+        if (diary.getDate() == null) {
+            return;
+        }
+        petMonthlyDigestRepository.findForUpdate(diary.getPetId(), monthStart(diary.getDate()))
+                .ifPresent(digest -> digest.removeDiary(diary.getDiaryId()));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<PetMonthlyDigest> findMonth(Long petId, LocalDate monthStart) {
+        return petMonthlyDigestRepository.findByPetIdAndMonthStart(petId, monthStart);
+    }
+
+    @Override
+    @Transactional
+    public PetMonthlyDigest rebuild(Long petId, Long userId, LocalDate monthStart, List<Diary> diaries) {
+        PetMonthlyDigest digest = lockMonth(petId, userId, monthStart);
+        digest.reset();
+        for (Diary diary : diaries) {
+            digest.addDiary(toFact(diary), ThreadLocalRandom.current());
+        }
+        log.info("[Digest] 월간 집계 재생성 - 펫 ID: {}, 월: {}, 일기 {}건", petId, monthStart, diaries.size());
+        return digest;
+    }
+
+    private PetMonthlyDigest lockMonth(Long petId, Long userId, LocalDate monthStart) {
+        petMonthlyDigestRepository.insertIfAbsent(petId, userId, monthStart);
+        return petMonthlyDigestRepository.findForUpdate(petId, monthStart)
+                .orElseThrow(() -> new IllegalStateException("월간 집계 행을 찾을 수 없습니다: " + petId + ", " + monthStart));
+    }
+
+    private PetMonthlyDigest.DiaryFact toFact(Diary diary) {
+        String content = diary.getContent();
+        String excerpt = (content != null && content.length() > excerptChars) ? content.substring(0, excerptChars) : content;
+        List<String> mainImages = diary.getImages().stream()
+                .filter(img -> Boolean.TRUE.equals(img.getMainImage()))
+                .map(DiaryImage::getImageUrl)
+                .filter(Objects::nonNull)
+                .filter(url -> !url.isBlank())
+                .toList();
+        return new PetMonthlyDigest.DiaryFact(diary.getDiaryId(), diary.getDate(), diary.getMood(), diary.getWeather(),
+                excerpt, mainImages);
+    }
+
+    private record MonthKey(Long petId, LocalDate monthStart) {}
+
+    private static LocalDate monthStart(LocalDate date) {
+        return date.withDayOfMonth(1);
+    }
+
+    private static boolean sameMonth(LocalDate a, LocalDate b) {
+        return b != null && monthStart(a).equals(monthStart(b));
+    }
+}
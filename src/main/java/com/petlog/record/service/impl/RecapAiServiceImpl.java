@@ -1,51 +1,250 @@
 package com.petlog.record.service.impl;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.petlog.record.config.AsyncConfig;
 import com.petlog.record.dto.response.RecapAiResponse;
+import com.petlog.record.exception.BusinessException;
+import com.petlog.record.exception.ErrorCode;
+import com.petlog.record.infrastructure.ai.LlmRateLimiter;
+import com.petlog.record.infrastructure.ai.PromptRegistry;
 import com.petlog.record.service.RecapAiService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.prompt.ChatOptionsBuilder;
 import org.springframework.ai.chat.prompt.Prompt;
-import org.springframework.ai.chat.prompt.PromptTemplate;
 import org.springframework.ai.converter.BeanOutputConverter;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
 
+/**
+ * 월간 리캡 AI 분석
+ *
+ * 일기 분량이 single-pass-token-budget 이하이면 한 번의 호출로 리캡을 생성합니다.
+ * 그보다 많으면 계층적 map-reduce 로 처리합니다.
+ * - map: 주(월요일 시작) 단위로 일기를 묶고, chunk-token-budget 을 넘지 않도록 나눈 청크마다 부분 요약을 병렬 생성
+ *        (같은 입력의 부분 요약은 캐시하여 재생성/재시도 시 다시 호출하지 않음)
+ * - reduce: 주간 부분 요약들로 최종 제목/요약/하이라이트 생성
+ */
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class RecapAiServiceImpl implements RecapAiService {
 
+    private static final String ENTRY_SEPARATOR = "\n---\n";
+
+    // 프롬프트 템플릿 (resources/prompts/*.st, PromptRegistry 에서 기동 시 컴파일)
+    private static final String SINGLE_PASS_PROMPT = "recap-single-pass";
+    private static final String MAP_PROMPT = "recap-map";
+    private static final String REDUCE_PROMPT = "recap-reduce";
+
     private final ChatModel chatModel;
+    private final LlmRateLimiter llmRateLimiter;
+    private final PromptRegistry promptRegistry;
+    private final MeterRegistry meterRegistry;
+
+    @Qualifier(AsyncConfig.RECAP_MAP_EXECUTOR)
+    private final Executor recapMapExecutor;
+
+    // 이 토큰 수 이하이면 기존처럼 한 번에 분석
+    @Value("${diary.recap.map-reduce.single-pass-token-budget:6000}")
+    private int singlePassTokenBudget;
+
+    // map 단계 청크 하나에 담을 일기 토큰 상한
+    @Value("${diary.recap.map-reduce.chunk-token-budget:3000}")
+    private int chunkTokenBudget;
+
+    // map 단계 부분 요약 출력 토큰 상한
+    @Value("${diary.recap.map-reduce.partial-max-tokens:400}")
+    private int partialMaxTokens;
+
+    @Value("${diary.recap.map-reduce.cache.max-size:10000}")
+    private long partialCacheMaxSize;
+
+    @Value("${diary.recap.map-reduce.cache.ttl-hours:168}")
+    private long partialCacheTtlHours;
+
+    private Cache<String, String> partialSummaryCache;
+
+    @PostConstruct
+    void initCache() {
+        this.partialSummaryCache = Caffeine.newBuilder()
+                .maximumSize(partialCacheMaxSize)
+                .expireAfterWrite(Duration.ofHours(partialCacheTtlHours))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, partialSummaryCache, "recap.partial-summary");
+    }
 
     @Override
-    public RecapAiResponse analyzeMonth(String petName, int year, int month, List<String> diaryEntries) {
-        BeanOutputConverter<RecapAiResponse> converter = new BeanOutputConverter<>(RecapAiResponse.class);
-
-        String userPromptText = """
-                반려동물 {petName}의 {year}년 {month}월 일기 기록들입니다:
-                {diaries}
-                
-                위 기록들을 바탕으로 이번 달의 '월간 리캡'을 작성해주세요.
-                
-                [작성 지침]
-                1. 제목(title): 반드시 {year}년 {month}월이라는 구체적인 숫자를 포함하여 '2024년 3월의 소중한 기록'과 같은 스타일로 지어주세요. (202X년 X월과 같은 플레이스홀더를 사용하지 마세요.)
-                2. 요약(summary): 전체적인 일기 내용을 분석하여 보호자에게 보내는 편지 형식으로 따뜻하게 작성해주세요.
-                3. 하이라이트(highlights): 가장 인상 깊은 사건 3가지를 선정해 제목과 요약을 작성해주세요.
-                
-                {format}
-                """;
-
-        PromptTemplate promptTemplate = new PromptTemplate(userPromptText);
-        Prompt prompt = promptTemplate.create(Map.of(
+    public RecapAiResponse analyzeMonth(String petName, int year, int month, List<DiaryEntry> diaryEntries) {
+        List<DiaryEntry> entries = diaryEntries.stream()
+                .filter(entry -> entry.content() != null && !entry.content().isBlank())
+                .sorted(Comparator.comparing(DiaryEntry::date, Comparator.nullsLast(Comparator.naturalOrder())))
+                .collect(Collectors.toList());
+
+        String allDiaries = entries.stream().map(DiaryEntry::content).collect(Collectors.joining(ENTRY_SEPARATOR));
+        if (llmRateLimiter.countTokens(allDiaries) <= singlePassTokenBudget) {
+            return analyzeSinglePass(petName, year, month, allDiaries);
+        }
+
+        List<Chunk> chunks = splitIntoChunks(entries);
+        log.info("[RecapAI] map-reduce 분석 - 일기 {}건, 청크 {}개", entries.size(), chunks.size());
+        return reduce(petName, year, month, mapChunks(petName, chunks));
+    }
+
+    private RecapAiResponse analyzeSinglePass(String petName, int year, int month, String diaries) {
+        BeanOutputConverter<RecapAiResponse> converter = promptRegistry.converter(RecapAiResponse.class);
+        Prompt prompt = new Prompt(promptRegistry.render(SINGLE_PASS_PROMPT, Map.of(
+                "petName", petName,
+                "year", year,
+                "month", month,
+                "diaries", diaries,
+                "format", converter.getFormat()
+        )));
+        return converter.convert(call(prompt));
+    }
+
+    /**
+     * 주 단위로 묶은 뒤, 한 주의 분량이 청크 예산을 넘으면 여러 청크로 나눕니다.
+     * 일기 한 건이 예산보다 길면 예산에 맞게 잘라서 넣습니다.
+     */
+    private List<Chunk> splitIntoChunks(List<DiaryEntry> entries) {
+        Map<LocalDate, List<DiaryEntry>> byWeek = new TreeMap<>();
+        for (DiaryEntry entry : entries) {
+            LocalDate weekStart = entry.date() != null ? entry.date().with(DayOfWeek.MONDAY) : LocalDate.MIN;
+            byWeek.computeIfAbsent(weekStart, k -> new ArrayList<>()).add(entry);
+        }
+
+        List<Chunk> chunks = new ArrayList<>();
+        byWeek.forEach((weekStart, weekEntries) -> {
+            List<String> texts = new ArrayList<>();
+            int tokens = 0;
+            for (DiaryEntry entry : weekEntries) {
+                String text = truncateToBudget(formatEntry(entry));
+                int entryTokens = llmRateLimiter.countTokens(text);
+                if (!texts.isEmpty() && tokens + entryTokens > chunkTokenBudget) {
+                    chunks.add(new Chunk(weekStart, texts));
+                    texts = new ArrayList<>();
+                    tokens = 0;
+                }
+                texts.add(text);
+                tokens += entryTokens;
+            }
+            if (!texts.isEmpty()) {
+                chunks.add(new Chunk(weekStart, texts));
+            }
+        });
+        return chunks;
+    }
+
+    private List<String> mapChunks(String petName, List<Chunk> chunks) {
+        List<CompletableFuture<String>> futures = chunks.stream()
+                .map(chunk -> CompletableFuture.supplyAsync(
+                        () -> partialSummaryCache.get(cacheKey(petName, chunk), key -> summarizeChunk(petName, chunk)),
+                        recapMapExecutor))
+                .toList();
+        try {
+            List<String> summaries = new ArrayList<>(chunks.size());
+            for (int i = 0; i < chunks.size(); i++) {
+                Chunk chunk = chunks.get(i);
+                summaries.add("[" + chunk.weekStart() + " ~ " + chunk.weekStart().plusDays(6) + "]\n" + futures.get(i).join());
+            }
+            return summaries;
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException runtime ? runtime : e;
+        }
+    }
+
+    private String summarizeChunk(String petName, Chunk chunk) {
+        Prompt prompt = new Prompt(promptRegistry.render(MAP_PROMPT, Map.of(
+                "petName", petName,
+                "weekStart", chunk.weekStart(),
+                "weekEnd", chunk.weekStart().plusDays(6),
+                "diaries", String.join(ENTRY_SEPARATOR, chunk.texts())
+        )), ChatOptionsBuilder.builder().withMaxTokens(partialMaxTokens).build());
+        return call(prompt);
+    }
+
+    private RecapAiResponse reduce(String petName, int year, int month, List<String> weeklySummaries) {
+        BeanOutputConverter<RecapAiResponse> converter = promptRegistry.converter(RecapAiResponse.class);
+        Prompt prompt = new Prompt(promptRegistry.render(REDUCE_PROMPT, Map.of(
                 "petName", petName,
                 "year", year,
                 "month", month,
-                "diaries", String.join("\n---\n", diaryEntries),
+                "summaries", String.join("\n\n", weeklySummaries),
                 "format", converter.getFormat()
-        ));
+        )));
+        return converter.convert(call(prompt));
+    }
+
+    private String call(Prompt prompt) {
+        // 공급자 RPM/TPM 한도 내에서만 호출 (배치 병렬 실행 시 429 방지)
+        try {
+            llmRateLimiter.acquire(llmRateLimiter.estimateTokens(prompt.getContents()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException(ErrorCode.EXTERNAL_API_ERROR, "LLM 호출 대기 중 중단되었습니다.");
+        }
 
         var response = chatModel.call(prompt);
-        return converter.convert(response.getResult().getOutput().getContent());
+        return response.getResult().getOutput().getContent();
     }
-}
\ No newline at end of file
+
+    private String formatEntry(DiaryEntry entry) {
+        return entry.date() != null ? "(" + entry.date() + ") " + entry.content() : entry.content();
+    }
+
+    private String truncateToBudget(String text) {
+        if (llmRateLimiter.countTokens(text) <= chunkTokenBudget) {
+            return text;
+        }
+        // countTokens 는 길이에 비례하므로 비율로 잘라냄
+        int maxLength = (int) ((long) text.length() * chunkTokenBudget / llmRateLimiter.countTokens(text));
+        return text.substring(0, Math.max(1, maxLength));
+    }
+
+    /**
+     * 부분 요약 캐시 키: 템플릿 버전 + 펫 이름 + 청크 내용의 SHA-256
+     * (템플릿이나 일기 내용이 바뀌면 자동으로 다른 키가 됨)
+     */
+    private String cacheKey(String petName, Chunk chunk) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(promptRegistry.version(MAP_PROMPT).getBytes(StandardCharsets.UTF_8));
+            digest.update(petName.getBytes(StandardCharsets.UTF_8));
+            digest.update(chunk.weekStart().toString().getBytes(StandardCharsets.UTF_8));
+            for (String text : chunk.texts()) {
+                digest.update(ENTRY_SEPARATOR.getBytes(StandardCharsets.UTF_8));
+                digest.update(text.getBytes(StandardCharsets.UTF_8));
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record Chunk(LocalDate weekStart, List<String> texts) {}
+}
@@ -1,10 +1,11 @@
 package com.petlog.record.service.impl;
 
 import com.petlog.record.dto.request.RecapRequest;
+import com.petlog.record.dto.response.CursorPageResponse;
 import com.petlog.record.dto.response.RecapAiResponse;
 import com.petlog.record.dto.response.RecapResponse;
 import com.petlog.record.entity.Diary;
-import com.petlog.record.entity.DiaryImage;
+import com.petlog.record.entity.PetMonthlyDigest;
 import com.petlog.record.entity.Recap;
 import com.petlog.record.entity.RecapHighlight;
 import com.petlog.record.entity.RecapStatus;
@@ -12,17 +13,24 @@ import com.petlog.record.exception.EntityNotFoundException;
 import com.petlog.record.exception.ErrorCode;
 import com.petlog.record.repository.jpa.DiaryRepository;
 import com.petlog.record.repository.jpa.RecapRepository;
+import com.petlog.record.service.PetMonthlyDigestService;
 import com.petlog.record.service.RecapAiService;
 import com.petlog.record.service.RecapService;
+import com.petlog.record.util.KeysetCursor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.Objects;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -34,49 +42,33 @@ public class RecapServiceImpl implements RecapService {
     private final RecapRepository recapRepository;
     private final DiaryRepository diaryRepository;
     private final RecapAiService recapAiService;
+    private final PetMonthlyDigestService petMonthlyDigestService;
+    private final TransactionTemplate transactionTemplate;
 
+    // 리캡 대표 이미지 수
+    private static final int REPRESENTATIVE_IMAGE_COUNT = PetMonthlyDigest.SAMPLE_SIZE;
+
+    /**
+     * 입력 조회 → LLM 분석 → 저장을 각각 나누어, LLM 호출(레이트 리밋 대기 + map-reduce 포함) 동안
+     * 트랜잭션과 DB 커넥션을 잡지 않습니다. (배치 동시 실행 수만큼 커넥션이 묶여 HTTP 요청이 굶지 않도록)
+     */
     @Override
-    @Transactional
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Long createAiRecap(RecapRequest.Generate request) {
         log.info("[Recap] AI 리캡 생성 프로세스 시작 - 펫 ID: {}, 기간: {} ~ {}",
                 request.getPetId(), request.getPeriodStart(), request.getPeriodEnd());
 
-        List<Diary> diaries = diaryRepository.findAllByPetIdAndDateBetween(
-                request.getPetId(),
-                request.getPeriodStart(),
-                request.getPeriodEnd()
-        );
+        // 1. 입력 조회 (짧은 트랜잭션, 집계가 없는 달은 여기서 만들어 둠)
+        RecapSource source = transactionTemplate.execute(status -> loadSource(request.getPetId(), request.getUserId(),
+                request.getPeriodStart(), request.getPeriodEnd()));
 
-        if (diaries.isEmpty()) {
+        if (source == null || source.momentCount() == 0) {
             log.warn("[Recap] 해당 기간에 작성된 일기가 없어 생성을 중단합니다. (Pet ID: {})", request.getPetId());
             throw new RuntimeException("해당 기간에 작성된 일기가 없어 리캡을 생성할 수 없습니다.");
         }
 
-        // 일기별 대표 이미지(mainImage == true) 추출 및 랜덤 8장 선정
-        List<String> representativeImages = diaries.stream()
-                .flatMap(diary -> diary.getImages().stream())
-                .filter(img -> Boolean.TRUE.equals(img.getMainImage()))
-                .map(DiaryImage::getImageUrl)
-                .filter(Objects::nonNull)
-                .filter(url -> !url.isBlank())
-                .collect(Collectors.toList());
-
-        Collections.shuffle(representativeImages);
-        List<String> selectedImages = representativeImages.stream()
-                .limit(8)
-                .collect(Collectors.toList());
-
-        // AI 분석용 텍스트 추출
-        List<String> diaryTexts = diaries.stream()
-                .map(Diary::getContent)
-                .collect(Collectors.toList());
-
-        int year = request.getPeriodStart().getYear();
-        int month = request.getPeriodStart().getMonthValue();
-        String petName = (request.getPetName() != null && !request.getPetName().isBlank())
-                ? request.getPetName() : "우리 아이";
-
-        RecapAiResponse aiData = recapAiService.analyzeMonth(petName, year, month, diaryTexts);
+        // 2. LLM 분석 (트랜잭션 밖)
+        RecapAiResponse aiData = analyze(request.getPetName(), request.getPeriodStart(), source.entries());
 
         Recap recap = Recap.builder()
                 .userId(request.getUserId())
@@ -85,26 +77,76 @@ public class RecapServiceImpl implements RecapService {
                 .summary(aiData.getSummary())
                 .periodStart(request.getPeriodStart())
                 .periodEnd(request.getPeriodEnd())
-                .imageUrls(selectedImages)
-                .momentCount(diaries.size())
+                .imageUrls(source.imageUrls())
+                .momentCount(source.momentCount())
                 .status(RecapStatus.GENERATED)
                 .build();
+        toHighlights(aiData).forEach(recap::addHighlight);
 
-        if (aiData.getHighlights() != null) {
-            aiData.getHighlights().forEach(h ->
-                    recap.addHighlight(RecapHighlight.builder()
-                            .title(h.getTitle())
-                            .content(h.getContent())
-                            .build())
-            );
-        }
-
-        Recap savedRecap = recapRepository.save(recap);
+        // 3. 저장 (짧은 트랜잭션)
+        Recap savedRecap = transactionTemplate.execute(status -> recapRepository.save(recap));
         log.info("[Recap] AI 리캡 저장 완료 - Recap ID: {}", savedRecap.getRecapId());
 
         return savedRecap.getRecapId();
     }
 
+    /**
+     * 점유(IN_PROGRESS)한 예약 리캡을 AI 분석 결과로 제자리에서 완료합니다.
+     * 기존처럼 삭제 후 재생성하지 않으므로 리캡 ID 가 유지됩니다.
+     * LLM 호출은 트랜잭션 밖에서 하고, 저장 직전에 행을 잠근 뒤 점유를 다시 확인합니다.
+     * (호출 중 lease 가 만료되어 다른 워커가 가져간 경우 결과를 버림)
+     */
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public boolean completeClaimedRecap(Long recapId, String workerId) {
+        // 1. 점유 확인 + 입력 조회 (짧은 트랜잭션)
+        ClaimedSource claimed = transactionTemplate.execute(status -> {
+            Recap recap = recapRepository.findById(recapId)
+                    .orElseThrow(() -> new EntityNotFoundException(ErrorCode.RECAP_NOT_FOUND));
+            if (!recap.isClaimedBy(workerId)) {
+                log.warn("[Recap] 점유가 만료되어 다른 워커에게 넘어간 리캡입니다. (Recap ID: {})", recapId);
+                return null;
+            }
+            return new ClaimedSource(recap.getPeriodStart(),
+                    loadSource(recap.getPetId(), recap.getUserId(), recap.getPeriodStart(), recap.getPeriodEnd()));
+        });
+        if (claimed == null || claimed.source().momentCount() == 0) {
+            return false;
+        }
+        RecapSource source = claimed.source();
+
+        // 2. LLM 분석 (트랜잭션 밖)
+        RecapAiResponse aiData = analyze(null, claimed.periodStart(), source.entries());
+
+        // 3. 점유 재확인 후 저장 (짧은 트랜잭션, 행 잠금으로 동시 재점유와 겹치지 않도록)
+        Boolean completed = transactionTemplate.execute(status -> {
+            Recap recap = recapRepository.findByIdForUpdate(recapId).orElse(null);
+            if (recap == null || !recap.isClaimedBy(workerId)) {
+                log.warn("[Recap] 생성 중 점유가 만료되어 결과를 저장하지 않습니다. (Recap ID: {})", recapId);
+                return false;
+            }
+            recap.completeGeneration(aiData.getTitle(), aiData.getSummary(),
+                    source.imageUrls(), source.momentCount(), toHighlights(aiData));
+            return true;
+        });
+        if (Boolean.TRUE.equals(completed)) {
+            log.info("[Recap] 예약 리캡 생성 완료 - Recap ID: {}", recapId);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 점유를 해제하고 retryAt 이후에 다시 처리되도록 WAITING 으로 되돌립니다.
+     */
+    @Override
+    @Transactional
+    public void releaseClaimedRecap(Long recapId, String workerId, LocalDateTime retryAt) {
+        recapRepository.findById(recapId)
+                .filter(recap -> recap.isClaimedBy(workerId))
+                .ifPresent(recap -> recap.release(retryAt));
+    }
+
     /**
      * WAITING 상태의 리캡을 단순히 생성만 합니다.
      *
@@ -134,6 +176,25 @@ public class RecapServiceImpl implements RecapService {
         return savedRecap.getRecapId();
     }
 
+    @Override
+    @Transactional
+    public void requeueFailedRecap(Long petId, Long userId, LocalDate periodStart, LocalDate periodEnd, LocalDateTime retryAt) {
+        Recap recap = Recap.builder()
+                .userId(userId)
+                .petId(petId)
+                .title(periodStart.getYear() + "년 " + periodStart.getMonthValue() + "월의 추억")
+                .periodStart(periodStart)
+                .periodEnd(periodEnd)
+                .imageUrls(new ArrayList<>())
+                .momentCount(0)
+                .status(RecapStatus.WAITING)
+                .leaseUntil(retryAt) // WAITING 의 leaseUntil = 다음 재시도 가능 시각
+                .attempts(1)
+                .build();
+        Recap savedRecap = recapRepository.save(recap);
+        log.info("[Recap] 배치 실패 리캡을 WAITING 으로 등록 - Recap ID: {}, 재시도: {}", savedRecap.getRecapId(), retryAt);
+    }
+
     /**
      * 리캡 상세 조회 (보안 강화 버전)
      * @param recapId 조회할 리캡 ID
@@ -169,4 +230,89 @@ public class RecapServiceImpl implements RecapService {
                 .map(RecapResponse.Simple::fromEntity)
                 .collect(Collectors.toList());
     }
-}
\ No newline at end of file
+
+    @Override
+    public CursorPageResponse<RecapResponse.Simple> getAllRecaps(Long userId, String cursor, int size) {
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        size = CursorPageResponse.normalizeSize(size);
+        Limit limit = Limit.of(size + 1);
+        List<Recap> rows = after == null
+                ? recapRepository.findByUserFirstPage(userId, limit)
+                : recapRepository.findByUserAfter(userId, after.createdAt(), after.id(), limit);
+        return toCursorPage(rows, size);
+    }
+
+    @Override
+    public CursorPageResponse<RecapResponse.Simple> getRecapsByPet(Long petId, String cursor, int size) {
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        size = CursorPageResponse.normalizeSize(size);
+        Limit limit = Limit.of(size + 1);
+        List<Recap> rows = after == null
+                ? recapRepository.findByPetFirstPage(petId, limit)
+                : recapRepository.findByPetAfter(petId, after.createdAt(), after.id(), limit);
+        return toCursorPage(rows, size);
+    }
+
+    private CursorPageResponse<RecapResponse.Simple> toCursorPage(List<Recap> rows, int size) {
+        return CursorPageResponse.of(rows, size, RecapResponse.Simple::fromEntity,
+                recap -> new KeysetCursor(recap.getCreatedAt(), recap.getRecapId()));
+    }
+
+    /**
+     * 리캡 입력 (일기 수, 대표 이미지, 분석용 일기)
+     * 기간이 한 달 전체이면 PET_MONTHLY_DIGESTS 1행만 읽고, 그 외 기간은 일기를 조회합니다.
+     * 집계가 없는 달(기능 도입 이전 데이터)은 한 번 스캔하여 집계를 만들어 둡니다.
+     */
+    private RecapSource loadSource(Long petId, Long userId, LocalDate periodStart, LocalDate periodEnd) {
+        boolean wholeMonth = periodStart.getDayOfMonth() == 1
+                && periodEnd.equals(periodStart.withDayOfMonth(periodStart.lengthOfMonth()));
+        if (wholeMonth) {
+            PetMonthlyDigest digest = petMonthlyDigestService.findMonth(petId, periodStart).orElse(null);
+            if (digest == null) {
+                List<Diary> diaries = diaryRepository.findAllByPetIdAndDateBetween(petId, periodStart, periodEnd);
+                digest = petMonthlyDigestService.rebuild(petId, userId, periodStart, diaries);
+            }
+            List<String> images = new ArrayList<>(digest.sampledImageUrls());
+            Collections.shuffle(images);
+            List<RecapAiService.DiaryEntry> entries = digest.getDiaryFacts().stream()
+                    .map(fact -> new RecapAiService.DiaryEntry(fact.date(), fact.excerpt()))
+                    .collect(Collectors.toList());
+            return new RecapSource(digest.getDiaryCount(), images, entries);
+        }
+
+        // 임의 기간: 본문은 (날짜, 내용)만, 대표 이미지는 DB 에서 주별 층화 샘플링으로 8장만 조회
+        List<RecapAiService.DiaryEntry> entries = diaryRepository
+                .findDateAndContentByPetIdAndDateBetween(petId, periodStart, periodEnd).stream()
+                .map(row -> new RecapAiService.DiaryEntry((LocalDate) row[0], (String) row[1]))
+                .collect(Collectors.toList());
+        if (entries.isEmpty()) {
+            return new RecapSource(0, List.of(), entries);
+        }
+        List<String> images = new ArrayList<>(diaryRepository.sampleMainImageUrls(
+                petId, periodStart, periodEnd, REPRESENTATIVE_IMAGE_COUNT));
+        // SQL 결과는 주별 순번 순으로 정렬되어 있으므로 노출 순서만 한 번 더 섞음
+        Collections.shuffle(images);
+        return new RecapSource(entries.size(), images, entries);
+    }
+
+    private RecapAiResponse analyze(String petName, LocalDate periodStart, List<RecapAiService.DiaryEntry> diaryTexts) {
+        String name = (petName != null && !petName.isBlank()) ? petName : "우리 아이";
+        return recapAiService.analyzeMonth(name, periodStart.getYear(), periodStart.getMonthValue(), diaryTexts);
+    }
+
+    private List<RecapHighlight> toHighlights(RecapAiResponse aiData) {
+        if (aiData.getHighlights() == null) {
+            return List.of();
+        }
+        return aiData.getHighlights().stream()
+                .map(h -> RecapHighlight.builder()
+                        .title(h.getTitle())
+                        .content(h.getContent())
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    private record RecapSource(int momentCount, List<String> imageUrls, List<RecapAiService.DiaryEntry> entries) {}
+
+    private record ClaimedSource(LocalDate periodStart, RecapSource source) {}
+}
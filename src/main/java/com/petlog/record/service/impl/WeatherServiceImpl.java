@@ -2,7 +2,20 @@ package com.petlog.record.service.impl;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.petlog.record.entity.AsosDailyWeather;
+import com.petlog.record.exception.BusinessException;
+import com.petlog.record.exception.ErrorCode;
+import com.petlog.record.infrastructure.weather.AsosStationCatalogue;
+import com.petlog.record.repository.jpa.AsosDailyWeatherRepository;
+import com.petlog.record.repository.jpa.AsosFetchedMonthRepository;
 import com.petlog.record.service.WeatherService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
@@ -10,14 +23,24 @@ import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
 
 import java.net.URI;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Predicate;
 
 @Slf4j
 @Service
+@RequiredArgsConstructor
 public class WeatherServiceImpl implements WeatherService {
 
     @Value("${external.weather.api-key}")
@@ -26,9 +49,21 @@ public class WeatherServiceImpl implements WeatherService {
     @Value("${external.weather.asos-api-key:${external.weather.api-key}}") // ASOS용 (설정 없으면 기본 키 사용)
     private String asosServiceKey;
 
-    private final RestTemplate restTemplate = new RestTemplate();
+    // ✅ RestTemplateConfig 의 공용 빈 사용 (연결/읽기 타임아웃 적용)
+    private final RestTemplate restTemplate;
+    private final MeterRegistry meterRegistry;
+    private final AsosDailyWeatherRepository asosDailyWeatherRepository;
+    private final AsosFetchedMonthRepository asosFetchedMonthRepository;
+    private final AsosStationCatalogue asosStationCatalogue;
     private final ObjectMapper objectMapper = new ObjectMapper();
 
+    // 초단기예보 캐시 최대 격자 수
+    @Value("${external.weather.forecast-cache.max-size:20000}")
+    private long forecastCacheMaxSize;
+
+    // 초단기예보 캐시: (nx, ny, base_date, base_time) 슬롯 단위, 다음 발표 시각(:45)에 만료
+    private Cache<ForecastSlot, String> forecastCache;
+
     // 1. 초단기예보 API (현재 날씨용)
     private static final String FCST_API_URL = "http://apis.data.go.kr/1360000/VilageFcstInfoService_2.0/getUltraSrtFcst";
 
@@ -36,112 +71,250 @@ public class WeatherServiceImpl implements WeatherService {
     // 활용신청 필요: https://www.data.go.kr/data/15059093/openapi.do
     private static final String ASOS_API_URL = "http://apis.data.go.kr/1360000/AsosDalyInfoService/getWthrDataList";
 
-    // 주요 관측소 목록 (ID, 위도, 경도) - 간소화를 위해 주요 도시만 등록
-    // 실제로는 DB에 전체 관측소 데이터를 넣고 쿼리하는 것이 좋음
-    private static final Map<Integer, double[]> STATIONS = new HashMap<>();
-    static {
-        STATIONS.put(108, new double[]{37.5714, 126.9658}); // 서울
-        STATIONS.put(112, new double[]{37.4527, 126.7073}); // 인천
-        STATIONS.put(119, new double[]{37.2574, 127.0219}); // 수원
-        STATIONS.put(98,  new double[]{37.9026, 127.0607}); // 동두천
-        STATIONS.put(101, new double[]{37.8858, 127.7306}); // 춘천
-        STATIONS.put(105, new double[]{37.7515, 128.8910}); // 강릉
-        STATIONS.put(131, new double[]{36.6392, 127.4407}); // 청주
-        STATIONS.put(133, new double[]{36.3720, 127.3721}); // 대전
-        STATIONS.put(143, new double[]{35.8779, 128.6014}); // 대구
-        STATIONS.put(146, new double[]{35.8215, 127.1550}); // 전주
-        STATIONS.put(156, new double[]{35.1729, 126.8916}); // 광주
-        STATIONS.put(159, new double[]{35.1047, 129.0324}); // 부산
-        STATIONS.put(184, new double[]{33.5141, 126.5297}); // 제주
-        // ... 필요 시 더 추가
+    // ASOS 범위 조회 시 페이지 크기 (API 최대 999)
+    private static final int ASOS_PAGE_SIZE = 999;
+
+    // ASOS 응답 코드 (정상 / 자료 없음)
+    private static final String ASOS_SUCCESS = "00";
+    private static final String ASOS_NO_DATA = "03";
+
+    // 전일 자료가 늦게 반영될 수 있어 최근 N일은 결측으로 기록하지 않음
+    private static final int ASOS_SETTLE_DAYS = 3;
+
+    // 백필 요청 1회 최대 기간 (일)
+    @Value("${external.weather.backfill-max-days:366}")
+    private int backfillMaxDays;
+
+    @PostConstruct
+    void initForecastCache() {
+        this.forecastCache = Caffeine.newBuilder()
+                .maximumSize(forecastCacheMaxSize)
+                .expireAfter(new Expiry<ForecastSlot, String>() {
+                    @Override
+                    public long expireAfterCreate(ForecastSlot key, String value, long currentTime) {
+                        return untilNextPublish(LocalDateTime.now()).toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(ForecastSlot key, String value, long currentTime, long currentDuration) {
+                        return untilNextPublish(LocalDateTime.now()).toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterRead(ForecastSlot key, String value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, forecastCache, "weather.forecast");
     }
 
     @Override
     public String getCurrentWeather(int nx, int ny) {
-        // ... (기존 코드와 동일: 초단기예보 호출 로직) ...
         try {
-            LocalDateTime now = LocalDateTime.now();
-            if (now.getMinute() < 45) {
-                now = now.minusHours(1);
-            }
-            String baseDate = now.format(DateTimeFormatter.ofPattern("yyyyMMdd"));
-            String baseTime = now.format(DateTimeFormatter.ofPattern("HH30"));
-
-            URI uri = UriComponentsBuilder.fromHttpUrl(FCST_API_URL)
-                    .queryParam("serviceKey", serviceKey)
-                    .queryParam("pageNo", 1)
-                    .queryParam("numOfRows", 60)
-                    .queryParam("dataType", "JSON")
-                    .queryParam("base_date", baseDate)
-                    .queryParam("base_time", baseTime)
-                    .queryParam("nx", nx)
-                    .queryParam("ny", ny)
-                    .build(false)
-                    .toUri();
-
-            String response = restTemplate.getForObject(uri, String.class);
-            return parseFcstResponse(response);
+            // 같은 슬롯에 대한 동시 요청은 하나의 외부 호출을 공유 (Caffeine 요청 병합)
+            return forecastCache.get(ForecastSlot.of(nx, ny, LocalDateTime.now()), this::fetchForecast);
         } catch (Exception e) {
             log.error("Failed to get current weather", e);
             return "맑음";
         }
     }
 
+    // 초단기예보 API 호출 (실패 시 예외 → 캐시에 저장되지 않음)
+    private String fetchForecast(ForecastSlot slot) {
+        URI uri = UriComponentsBuilder.fromHttpUrl(FCST_API_URL)
+                .queryParam("serviceKey", serviceKey)
+                .queryParam("pageNo", 1)
+                .queryParam("numOfRows", 60)
+                .queryParam("dataType", "JSON")
+                .queryParam("base_date", slot.baseDate())
+                .queryParam("base_time", slot.baseTime())
+                .queryParam("nx", slot.nx())
+                .queryParam("ny", slot.ny())
+                .build(false)
+                .toUri();
+
+        String response = restTemplate.getForObject(uri, String.class);
+        String weather = parseFcstResponse(response);
+        if (weather == null) {
+            throw new IllegalStateException("초단기예보 응답에 예보 항목이 없습니다. slot: " + slot);
+        }
+        return weather;
+    }
+
+    /**
+     * 다음 초단기예보 발표 시각까지 남은 시간
+     * 매시 30분 발표분은 45분 이후부터 조회 가능하므로 :45 를 경계로 슬롯이 바뀜
+     */
+    private static Duration untilNextPublish(LocalDateTime now) {
+        LocalDateTime boundary = now.withMinute(45).withSecond(0).withNano(0);
+        if (!boundary.isAfter(now)) {
+            boundary = boundary.plusHours(1);
+        }
+        return Duration.between(now, boundary);
+    }
+
+    /**
+     * 초단기예보 캐시 키 (격자 + 발표 슬롯)
+     */
+    private record ForecastSlot(int nx, int ny, String baseDate, String baseTime) {
+
+        static ForecastSlot of(int nx, int ny, LocalDateTime now) {
+            if (now.getMinute() < 45) {
+                now = now.minusHours(1);
+            }
+            return new ForecastSlot(nx, ny,
+                    now.format(DateTimeFormatter.ofPattern("yyyyMMdd")),
+                    now.format(DateTimeFormatter.ofPattern("HH30")));
+        }
+    }
+
+    /**
+     * 과거 날씨 조회
+     * 저장된 (관측소, 날짜) 관측값이 있으면 로컬에서 바로 반환하고,
+     * 없으면 해당 월 전체를 한 번에 받아 저장한 뒤 반환합니다. (이미 조회를 마친 결측 날짜는 원격 호출 없이 기본값)
+     */
     @Override
     public String getPastWeather(LocalDate date, double lat, double lng) {
         try {
             // 1. 가장 가까운 관측소 찾기
             int stationId = findNearestStation(lat, lng);
-            String dateStr = date.format(DateTimeFormatter.ofPattern("yyyyMMdd"));
 
-            // 2. ASOS API 호출
+            // 2. 저장소 조회 (이미 알고 있는 날짜는 원격 호출 없음)
+            Optional<AsosDailyWeather> stored = asosDailyWeatherRepository.findByStationIdAndObservedDate(stationId, date);
+            if (stored.isPresent()) {
+                return stored.get().getWeather();
+            }
+
+            // 3. 해당 월(어제까지) 범위를 한 번에 백필
+            LocalDate monthStart = date.withDayOfMonth(1);
+            LocalDate monthEnd = date.withDayOfMonth(date.lengthOfMonth());
+            backfillPastWeather(stationId, monthStart, monthEnd);
+
+            return asosDailyWeatherRepository.findByStationIdAndObservedDate(stationId, date)
+                    .map(AsosDailyWeather::getWeather)
+                    .orElse("맑음");
+
+        } catch (Exception e) {
+            log.error("Failed to get past weather", e);
+            return "맑음"; // 실패 시 기본값
+        }
+    }
+
+    /**
+     * ASOS 일자료 백필
+     * 저장된 날짜와 이미 조회를 마친 구간(ASOS_FETCHED_MONTH)을 제외한 부분만 startDt~endDt 범위 요청(페이지 단위)으로 받아 저장합니다.
+     * 조회 기록이 월 단위이므로 요청 구간은 월 초부터로 맞추며, ASOS 일자료는 전일까지만 제공되므로 종료일은 어제로 제한됩니다.
+     */
+    @Override
+    public int backfillPastWeather(int stationId, LocalDate start, LocalDate end) {
+        if (start.isAfter(end) || ChronoUnit.DAYS.between(start, end) >= backfillMaxDays) {
+            throw new BusinessException(ErrorCode.INVALID_PARAMETER,
+                    "백필 기간은 시작일 이후 최대 " + backfillMaxDays + "일입니다.");
+        }
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        LocalDate effectiveStart = start.withDayOfMonth(1);
+        LocalDate effectiveEnd = end.isAfter(yesterday) ? yesterday : end;
+        if (effectiveStart.isAfter(effectiveEnd)) {
+            return 0;
+        }
+
+        // 1. 저장된 날짜 + 조회를 마친 날짜 제외 후, 비어 있는 구간만 원격 조회
+        Set<LocalDate> known = new HashSet<>(asosDailyWeatherRepository.findObservedDates(stationId, effectiveStart, effectiveEnd));
+        Map<LocalDate, LocalDate> fetchedThrough = new HashMap<>();
+        asosFetchedMonthRepository.findByStationIdAndMonthStartBetween(stationId, effectiveStart, effectiveEnd.withDayOfMonth(1))
+                .forEach(month -> fetchedThrough.put(month.getMonthStart(), month.getFetchedThrough()));
+        Predicate<LocalDate> covered = date -> known.contains(date)
+                || !date.isAfter(fetchedThrough.getOrDefault(date.withDayOfMonth(1), LocalDate.MIN));
+
+        LocalDate firstMissing = effectiveStart;
+        while (!firstMissing.isAfter(effectiveEnd) && covered.test(firstMissing)) {
+            firstMissing = firstMissing.plusDays(1);
+        }
+        LocalDate lastMissing = effectiveEnd;
+        while (!lastMissing.isBefore(firstMissing) && covered.test(lastMissing)) {
+            lastMissing = lastMissing.minusDays(1);
+        }
+        if (firstMissing.isAfter(lastMissing)) {
+            return 0;
+        }
+        // 조회 기록은 월 초부터 이어진 구간만 의미가 있으므로 월 초부터 요청
+        firstMissing = firstMissing.withDayOfMonth(1);
+
+        // 2. 범위 요청 (페이지 단위, 응답 오류 시 예외 → 조회 기록을 남기지 않음)
+        List<AsosDailyWeather> fetched = fetchAsosRange(stationId, firstMissing, lastMissing);
+
+        // 3. 저장 (다른 요청/인스턴스가 먼저 저장한 날짜는 행 단위로 건너뜀)
+        int saved = 0;
+        for (AsosDailyWeather row : fetched) {
+            if (!known.contains(row.getObservedDate())) {
+                saved += asosDailyWeatherRepository.insertIfAbsent(row.getStationId(), row.getObservedDate(),
+                        row.getWeather(), row.getSumRn(), row.getAvgTca());
+            }
+        }
+
+        // 4. 응답에 없던 날짜(결측)를 다시 조회하지 않도록 월별 조회 완료 시점 기록
+        //    최근 며칠은 자료가 늦게 올라올 수 있어 기록하지 않음
+        LocalDate settled = LocalDate.now().minusDays(ASOS_SETTLE_DAYS);
+        for (LocalDate month = firstMissing; !month.isAfter(lastMissing); month = month.plusMonths(1)) {
+            LocalDate monthEnd = month.withDayOfMonth(month.lengthOfMonth());
+            LocalDate through = Collections.min(List.of(monthEnd, lastMissing, settled));
+            if (!through.isBefore(month)) {
+                asosFetchedMonthRepository.markFetched(stationId, month, through);
+            }
+        }
+
+        log.info("ASOS 일자료 백필 완료: Station={}, {} ~ {}, {}건", stationId, firstMissing, lastMissing, saved);
+        return saved;
+    }
+
+    // ASOS API 범위 조회 (numOfRows 단위로 totalCount 까지 페이지 순회)
+    private List<AsosDailyWeather> fetchAsosRange(int stationId, LocalDate start, LocalDate end) {
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyyMMdd");
+        List<AsosDailyWeather> result = new ArrayList<>();
+
+        int pageNo = 1;
+        int totalCount;
+        do {
             URI uri = UriComponentsBuilder.fromHttpUrl(ASOS_API_URL)
                     .queryParam("serviceKey", asosServiceKey)
-                    .queryParam("pageNo", 1)
-                    .queryParam("numOfRows", 10)
+                    .queryParam("pageNo", pageNo)
+                    .queryParam("numOfRows", ASOS_PAGE_SIZE)
                     .queryParam("dataType", "JSON")
                     .queryParam("dataCd", "ASOS")
                     .queryParam("dateCd", "DAY")
-                    .queryParam("startDt", dateStr)
-                    .queryParam("endDt", dateStr)
+                    .queryParam("startDt", start.format(formatter))
+                    .queryParam("endDt", end.format(formatter))
                     .queryParam("stnIds", stationId)
                     .build(false)
                     .toUri();
 
-            log.info("ASOS API Request: Date={}, Station={}, URL={}", date, stationId, uri);
+            log.info("ASOS API Request: Station={}, {} ~ {}, page={}", stationId, start, end, pageNo);
 
             String response = restTemplate.getForObject(uri, String.class);
-            return parseAsosResponse(response);
+            totalCount = parseAsosResponse(response, stationId, result);
+            pageNo++;
+        } while (result.size() < totalCount && (pageNo - 1) * ASOS_PAGE_SIZE < totalCount);
 
-        } catch (Exception e) {
-            log.error("Failed to get past weather", e);
-            return "맑음"; // 실패 시 기본값
-        }
+        return result;
     }
 
     // --- Helper Methods ---
 
-    // 위경도와 가장 가까운 관측소 ID 반환 (유클리드 거리 단순 계산)
+    // 위경도와 가장 가까운 관측소 ID 반환 (관측소 카탈로그의 k-d 트리 + 하버사인 거리)
     private int findNearestStation(double lat, double lng) {
-        int nearestId = 108; // 기본값: 서울
-        double minDistance = Double.MAX_VALUE;
-
-        for (Map.Entry<Integer, double[]> entry : STATIONS.entrySet()) {
-            double[] coords = entry.getValue();
-            double dist = Math.pow(lat - coords[0], 2) + Math.pow(lng - coords[1], 2);
-            if (dist < minDistance) {
-                minDistance = dist;
-                nearestId = entry.getKey();
-            }
-        }
-        return nearestId;
+        return asosStationCatalogue.nearestStationId(lat, lng);
     }
 
-    // 초단기예보 파싱 (기존 로직 유지)
+    // 초단기예보 파싱 (예보 항목이 없으면 null)
     private String parseFcstResponse(String jsonResponse) {
         try {
             JsonNode root = objectMapper.readTree(jsonResponse);
             JsonNode items = root.path("response").path("body").path("items").path("item");
+            if (!items.isArray() || items.isEmpty()) {
+                return null;
+            }
 
             String pty = null;
             String sky = null;
@@ -155,39 +328,73 @@ public class WeatherServiceImpl implements WeatherService {
             }
             return mapWeatherCode(pty, sky);
         } catch (Exception e) {
-            return "맑음";
+            return null;
         }
     }
 
-    // ASOS 파싱
-    private String parseAsosResponse(String jsonResponse) {
+    // ASOS 파싱 - 응답의 일자료를 result 에 추가하고 totalCount 를 반환
+    // (자료 없음(03)은 빈 결과, 그 외 오류 응답은 예외 → 결측으로 기록하지 않음)
+    private int parseAsosResponse(String jsonResponse, int stationId, List<AsosDailyWeather> result) {
+        JsonNode root;
         try {
-            JsonNode root = objectMapper.readTree(jsonResponse);
-            JsonNode items = root.path("response").path("body").path("items").path("item");
+            root = objectMapper.readTree(jsonResponse);
+        } catch (Exception e) {
+            throw new IllegalStateException("ASOS 응답 파싱 실패", e);
+        }
+        String resultCode = root.path("response").path("header").path("resultCode").asText();
+        if (ASOS_NO_DATA.equals(resultCode)) {
+            return result.size();
+        }
+        if (!ASOS_SUCCESS.equals(resultCode)) {
+            throw new IllegalStateException("ASOS 응답 오류: " + resultCode + " "
+                    + root.path("response").path("header").path("resultMsg").asText());
+        }
+        JsonNode body = root.path("response").path("body");
+        JsonNode items = body.path("items").path("item");
+
+        if (items.isArray()) {
+            for (JsonNode item : items) {
+                String tm = item.path("tm").asText();
+                if (tm.isEmpty()) {
+                    continue;
+                }
+                result.add(AsosDailyWeather.builder()
+                        .stationId(stationId)
+                        .observedDate(LocalDate.parse(tm))
+                        .weather(classifyAsosItem(item))
+                        .sumRn(parseDouble(item.path("sumRn").asText()))
+                        .avgTca(parseDouble(item.path("avgTca").asText()))
+                        .build());
+            }
+        }
+        return body.path("totalCount").asInt(result.size());
+    }
 
-            if (items.isArray() && items.size() > 0) {
-                JsonNode item = items.get(0);
-                // 강수량 확인 (sumRn: 일강수량)
-                String sumRn = item.path("sumRn").asText(); // 비가 안 왔으면 "", "0.0", 또는 null
+    // ASOS 일자료 한 건을 날씨 표현으로 변환
+    private String classifyAsosItem(JsonNode item) {
+        // 강수량 확인 (sumRn: 일강수량)
+        String sumRn = item.path("sumRn").asText(); // 비가 안 왔으면 "", "0.0", 또는 null
 
-                // 전운량(avgTca) 등으로 흐림 판단 가능하지만, 간단히 강수 여부만 체크하거나
-                // "iscs" (일기현상) 필드를 파싱해서 "비", "눈", "박무" 등을 찾을 수도 있음.
+        // 전운량(avgTca) 등으로 흐림 판단 가능하지만, 간단히 강수 여부만 체크하거나
+        // "iscs" (일기현상) 필드를 파싱해서 "비", "눈", "박무" 등을 찾을 수도 있음.
 
-                if (sumRn != null && !sumRn.isEmpty() && !"0.0".equals(sumRn)) {
-                    return "비"; // 강수량이 있으면 비로 간주 (눈 구분은 iscs 파싱 필요)
-                }
+        if (sumRn != null && !sumRn.isEmpty() && !"0.0".equals(sumRn)) {
+            return "비"; // 강수량이 있으면 비로 간주 (눈 구분은 iscs 파싱 필요)
+        }
 
-                // 평균 전운량(avgTca): 0~2 맑음, 3~5 구름많음, 6~10 흐림
-                double avgTca = item.path("avgTca").asDouble(0.0);
-                if (avgTca >= 6.0) return "흐림";
-                if (avgTca >= 3.0) return "구름많음";
+        // 평균 전운량(avgTca): 0~2 맑음, 3~5 구름많음, 6~10 흐림
+        double avgTca = item.path("avgTca").asDouble(0.0);
+        if (avgTca >= 6.0) return "흐림";
+        if (avgTca >= 3.0) return "구름많음";
 
-                return "맑음";
-            }
-            return "맑음";
-        } catch (Exception e) {
-            log.error("ASOS Parsing Error", e);
-            return "맑음";
+        return "맑음";
+    }
+
+    private Double parseDouble(String value) {
+        try {
+            return (value == null || value.isEmpty()) ? null : Double.valueOf(value);
+        } catch (NumberFormatException e) {
+            return null;
         }
     }
 
@@ -0,0 +1,146 @@
+package com.petlog.record.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * 위경도 좌표 최근접 탐색용 k-d 트리
+ *
+ * 위경도를 단위 구면 위의 3차원 좌표(x, y, z)로 변환해 저장합니다.
+ * 3차원 직선(현) 거리는 대원 거리와 단조 관계이므로 k-d 트리의 가지치기가 그대로 성립하고,
+ * 결과 거리는 하버사인(haversine) 공식으로 계산합니다.
+ * 트리는 생성 후 변경되지 않으므로 여러 스레드에서 동시에 조회해도 안전합니다.
+ */
+public class GeoKdTree<T> {
+
+    public static final double EARTH_RADIUS_KM = 6371.0088;
+
+    private final Node<T> root;
+    private final int size;
+
+    public GeoKdTree(List<T> items, ToDoubleFunction<T> latitude, ToDoubleFunction<T> longitude) {
+        List<Node<T>> nodes = new ArrayList<>(items.size());
+        for (T item : items) {
+            double lat = latitude.applyAsDouble(item);
+            double lng = longitude.applyAsDouble(item);
+            nodes.add(new Node<>(item, lat, lng, toUnitVector(lat, lng)));
+        }
+        this.size = nodes.size();
+        this.root = build(nodes, 0);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 가장 가까운 항목 반환 (비어 있으면 null) - 평균 O(log n)
+     */
+    public Nearest<T> nearest(double lat, double lng) {
+        if (root == null) {
+            return null;
+        }
+        double[] target = toUnitVector(lat, lng);
+        Best<T> best = new Best<>(root, squaredDistance(root.point, target));
+        search(root, target, 0, best);
+        return new Nearest<>(best.node.item, haversineKm(lat, lng, best.node.lat, best.node.lng));
+    }
+
+    /**
+     * 두 좌표 사이의 대원 거리(km)
+     */
+    public static double haversineKm(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+
+    private static <T> Node<T> build(List<Node<T>> nodes, int depth) {
+        if (nodes.isEmpty()) {
+            return null;
+        }
+        int axis = depth % 3;
+        nodes.sort(Comparator.comparingDouble(node -> node.point[axis]));
+        int median = nodes.size() / 2;
+        Node<T> node = nodes.get(median);
+        node.left = build(new ArrayList<>(nodes.subList(0, median)), depth + 1);
+        node.right = build(new ArrayList<>(nodes.subList(median + 1, nodes.size())), depth + 1);
+        return node;
+    }
+
+    private static <T> void search(Node<T> node, double[] target, int depth, Best<T> best) {
+        if (node == null) {
+            return;
+        }
+        double dist = squaredDistance(node.point, target);
+        if (dist < best.distance) {
+            best.distance = dist;
+            best.node = node;
+        }
+
+        int axis = depth % 3;
+        double diff = target[axis] - node.point[axis];
+        Node<T> near = diff < 0 ? node.left : node.right;
+        Node<T> far = diff < 0 ? node.right : node.left;
+
+        search(near, target, depth + 1, best);
+        // 분할 평면까지의 거리가 현재 최단 거리보다 가까울 때만 반대편 탐색
+        if (diff * diff < best.distance) {
+            search(far, target, depth + 1, best);
+        }
+    }
+
+    private static double[] toUnitVector(double lat, double lng) {
+        double latRad = Math.toRadians(lat);
+        double lngRad = Math.toRadians(lng);
+        return new double[]{
+                Math.cos(latRad) * Math.cos(lngRad),
+                Math.cos(latRad) * Math.sin(lngRad),
+                Math.sin(latRad)
+        };
+    }
+
+    private static double squaredDistance(double[] a, double[] b) {
+        double dx = a[0] - b[0];
+        double dy = a[1] - b[1];
+        double dz = a[2] - b[2];
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    private static final class Node<T> {
+        private final T item;
+        private final double lat;
+        private final double lng;
+        private final double[] point;
+        private Node<T> left;
+        private Node<T> right;
+
+        private Node(T item, double lat, double lng, double[] point) {
+            this.item = item;
+            this.lat = lat;
+            this.lng = lng;
+            this.point = point;
+        }
+    }
+
+    // 탐색 중 현재까지의 최근접 노드
+    private static final class Best<T> {
+        private Node<T> node;
+        private double distance;
+
+        private Best(Node<T> node, double distance) {
+            this.node = node;
+            this.distance = distance;
+        }
+    }
+
+    /**
+     * 최근접 탐색 결과 (항목 + 거리 km)
+     */
+    public record Nearest<T>(T item, double distanceKm) {}
+}
@@ -0,0 +1,133 @@
+package com.petlog.record.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 스트리밍 JSON 문자열 필드 추출기
+ *
+ * WHY 필요?
+ * - LLM 이 JSON 을 토큰 단위로 흘려보낼 때, 전체 응답이 끝나기 전에 특정 문자열 필드(title, content)의
+ *   값만 실시간으로 꺼내 사용자에게 보여주기 위함
+ * - 완성되지 않은 JSON 은 일반 파서로 읽을 수 없으므로, 문자 단위 상태 기계로 최상위 객체의
+ *   대상 필드 값만 이스케이프를 해제하며 조각(delta)으로 반환
+ *
+ * 최종 구조화 결과는 응답이 끝난 뒤 BeanOutputConverter 로 별도 파싱합니다. (코드 펜스 등은 무시)
+ * 스레드 안전하지 않으므로 스트림 하나당 인스턴스 하나를 사용합니다.
+ *
+ * @author diary-team
+ * @since 2026-01-05
+ */
+public class StreamingJsonFieldExtractor {
+
+    private final Set<String> fields;
+
+    private int depth;
+    private boolean inString;
+    private boolean escape;
+    private int unicodeRemaining;
+    private int unicodeValue;
+    private boolean afterColon;
+    private String lastKey;
+    // 현재 읽고 있는 대상 필드 (문자열 값 내부일 때만 non-null)
+    private String valueField;
+    private final StringBuilder currentString = new StringBuilder();
+
+    public StreamingJsonFieldExtractor(Set<String> fields) {
+        this.fields = fields;
+    }
+
+    /**
+     * 새로 도착한 텍스트 조각을 처리하고, 이번 조각에서 늘어난 대상 필드 값을 필드별로 반환합니다.
+     * (대상 필드가 등장한 순서 유지)
+     */
+    public Map<String, String> feed(String chunk) {
+        Map<String, StringBuilder> deltas = new LinkedHashMap<>();
+        if (chunk != null) {
+            for (int i = 0; i < chunk.length(); i++) {
+                accept(chunk.charAt(i), deltas);
+            }
+        }
+        Map<String, String> result = new LinkedHashMap<>();
+        deltas.forEach((field, delta) -> result.put(field, delta.toString()));
+        return result;
+    }
+
+    private void accept(char c, Map<String, StringBuilder> deltas) {
+        if (!inString) {
+            acceptStructural(c);
+            return;
+        }
+        if (unicodeRemaining > 0) {
+            unicodeValue = unicodeValue * 16 + Character.digit(c, 16);
+            if (--unicodeRemaining == 0) {
+                append((char) unicodeValue, deltas);
+            }
+            return;
+        }
+        if (escape) {
+            escape = false;
+            switch (c) {
+                case 'n' -> append('\n', deltas);
+                case 't' -> append('\t', deltas);
+                case 'r' -> append('\r', deltas);
+                case 'b' -> append('\b', deltas);
+                case 'f' -> append('\f', deltas);
+                case 'u' -> {
+                    unicodeRemaining = 4;
+                    unicodeValue = 0;
+                }
+                default -> append(c, deltas); // \" \\ \/
+            }
+            return;
+        }
+        if (c == '\\') {
+            escape = true;
+        } else if (c == '"') {
+            inString = false;
+            if (valueField != null) {
+                valueField = null;
+            } else {
+                lastKey = currentString.toString();
+            }
+        } else {
+            append(c, deltas);
+        }
+    }
+
+    private void acceptStructural(char c) {
+        switch (c) {
+            case '"' -> {
+                inString = true;
+                currentString.setLength(0);
+                // 최상위 객체의 대상 키 바로 뒤 문자열 값만 추출
+                if (afterColon && depth == 1 && fields.contains(lastKey)) {
+                    valueField = lastKey;
+                }
+                afterColon = false;
+            }
+            case ':' -> afterColon = true;
+            case '{', '[' -> {
+                depth++;
+                afterColon = false;
+            }
+            case '}', ']' -> {
+                depth--;
+                afterColon = false;
+            }
+            case ' ', '\n', '\r', '\t' -> {
+                // 공백은 상태를 바꾸지 않음
+            }
+            default -> afterColon = false;
+        }
+    }
+
+    private void append(char c, Map<String, StringBuilder> deltas) {
+        if (valueField != null) {
+            deltas.computeIfAbsent(valueField, key -> new StringBuilder()).append(c);
+        } else {
+            currentString.append(c);
+        }
+    }
+}
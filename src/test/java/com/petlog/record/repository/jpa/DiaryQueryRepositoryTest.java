@@ -0,0 +1,129 @@
+package com.petlog.record.repository.jpa;
+
+import com.petlog.record.entity.Diary;
+import com.petlog.record.entity.DiaryImage;
+import com.petlog.record.entity.ImageSource;
+import com.petlog.record.entity.Visibility;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 일기 목록 조회의 SQL 문 수가 일기 개수와 무관하게 일정한지 확인 (이미지 N+1 회귀 방지)
+ */
+@DataJpaTest(properties = {
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+class DiaryQueryRepositoryTest {
+
+	private static final long USER_ID = 1L;
+	private static final LocalDate DATE = LocalDate.of(2026, 1, 5);
+	private static final int IMAGES_PER_DIARY = 3;
+
+	// WalkRoute 의 geometry 컬럼 때문에 PostGIS 이미지 사용
+	@Container
+	@ServiceConnection
+	static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>(
+			DockerImageName.parse("postgis/postgis:16-3.4").asCompatibleSubstituteFor("postgres"));
+
+	// 애플리케이션 클래스의 @EnableFeignClients 등을 피하기 위해 JPA 구성만 로드
+	@Configuration
+	@EntityScan(basePackageClasses = Diary.class)
+	@EnableJpaRepositories(basePackageClasses = DiaryQueryRepository.class)
+	static class JpaSliceConfig {
+	}
+
+	@Autowired
+	private DiaryQueryRepository diaryQueryRepository;
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	@ParameterizedTest
+	@ValueSource(ints = {1, 10, 50})
+	void calendarListingFetchesImagesWithDiaries(int diaryCount) {
+		persistDiaries(diaryCount, false);
+		Statistics statistics = startCounting();
+
+		List<Diary> diaries = diaryQueryRepository.findAllByUserIdAndDate(USER_ID, DATE);
+
+		assertThat(diaries).hasSize(diaryCount);
+		assertThat(countImages(diaries)).isEqualTo(diaryCount * IMAGES_PER_DIARY);
+		// 일기 + 이미지 fetch join 1회
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = {1, 10, 50})
+	void aiArchivePageBatchesImageLoading(int diaryCount) {
+		persistDiaries(diaryCount, true);
+		Statistics statistics = startCounting();
+
+		List<Diary> diaries = diaryQueryRepository.findAiDiariesFirstPage(USER_ID, Limit.of(diaryCount));
+
+		assertThat(diaries).hasSize(diaryCount);
+		assertThat(countImages(diaries)).isEqualTo(diaryCount * IMAGES_PER_DIARY);
+		// 페이지 조회 1회 + 이미지 IN 조회 1회 (@BatchSize 100 이하)
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+	}
+
+	private void persistDiaries(int count, boolean aiGenerated) {
+		for (int i = 0; i < count; i++) {
+			Diary diary = Diary.builder()
+					.userId(USER_ID)
+					.petId(10L)
+					.title("일기 " + i)
+					.content("산책 " + i)
+					.visibility(Visibility.PRIVATE)
+					.isAiGen(aiGenerated)
+					.date(DATE)
+					.build();
+			for (int order = 0; order < IMAGES_PER_DIARY; order++) {
+				diary.addImage(DiaryImage.builder()
+						.userId(USER_ID)
+						.imageUrl("https://images.example.com/" + i + "/" + order + ".jpg")
+						.imgOrder(order)
+						.mainImage(order == 0)
+						.source(ImageSource.GALLERY)
+						.build());
+			}
+			entityManager.persist(diary);
+		}
+		entityManager.flush();
+		entityManager.clear();
+	}
+
+	private Statistics startCounting() {
+		Statistics statistics = entityManager.getEntityManager().getEntityManagerFactory()
+				.unwrap(SessionFactory.class)
+				.getStatistics();
+		statistics.clear();
+		return statistics;
+	}
+
+	private static int countImages(List<Diary> diaries) {
+		return diaries.stream().mapToInt(diary -> diary.getImages().size()).sum();
+	}
+}
@@ -0,0 +1,57 @@
+package com.petlog.record.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class GeoKdTreeTest {
+
+	record Point(int id, double lat, double lng) {}
+
+	@Test
+	void nearestMatchesLinearScanAsCatalogueGrows() {
+		Random random = new Random(42);
+		for (int size : new int[]{13, 100, 1_000, 10_000}) {
+			List<Point> points = randomPoints(random, size);
+			GeoKdTree<Point> tree = new GeoKdTree<>(points, Point::lat, Point::lng);
+
+			for (int i = 0; i < 500; i++) {
+				double lat = 33 + random.nextDouble() * 6;
+				double lng = 124 + random.nextDouble() * 7;
+
+				double expected = Double.MAX_VALUE;
+				for (Point point : points) {
+					expected = Math.min(expected, GeoKdTree.haversineKm(lat, lng, point.lat(), point.lng()));
+				}
+
+				assertThat(tree.nearest(lat, lng).distanceKm()).isCloseTo(expected, within(1e-9));
+			}
+		}
+	}
+
+	@Test
+	void haversineSeoulToBusan() {
+		// 서울(108) ~ 부산(159) 관측소 간 거리 약 331km
+		assertThat(GeoKdTree.haversineKm(37.5714, 126.9658, 35.1047, 129.0320)).isBetween(325.0, 335.0);
+	}
+
+	@Test
+	void emptyTreeReturnsNull() {
+		GeoKdTree<Point> tree = new GeoKdTree<>(List.of(), Point::lat, Point::lng);
+
+		assertThat(tree.nearest(37.5, 127.0)).isNull();
+	}
+
+	private List<Point> randomPoints(Random random, int size) {
+		List<Point> points = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			points.add(new Point(i, 33 + random.nextDouble() * 6, 124 + random.nextDouble() * 7));
+		}
+		return points;
+	}
+}
@@ -0,0 +1,104 @@
+package com.petlog.record.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StreamingJsonFieldExtractorTest {
+
+	private static final Set<String> FIELDS = Set.of("title", "content");
+
+	// 대상 키가 중첩 객체/배열에도 있고, 대상 키와 같은 문자열 값이 섞인 응답
+	private static final String DOCUMENT = "{\n"
+			+ "  \"meta\": {\"title\": \"중첩 제목\", \"tags\": [\"content\", {\"content\": \"배열 안\"}]},\n"
+			+ "  \"mood\": \"title\",\n"
+			+ "  \"title\": \"한강 \\\"첫\\\" 산책 \\\\ \\/ 끝\\n\",\n"
+			+ "  \"weather\": \"content\",\n"
+			+ "  \"items\": [{\"title\": \"x\"}, \"title\"],\n"
+			+ "  \"content\": \"탭\\t줄바꿈\\r\\n유니코드 \\u00e9 \\uD83D\\uDC36 \\u002F {\\\"title\\\": \\\"본문 안\\\"}\",\n"
+			+ "  \"count\": 3,\n"
+			+ "  \"flag\": true\n"
+			+ "}";
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	@Test
+	void randomChunkSplitsReproduceParsedFieldValues() throws Exception {
+		JsonNode parsed = objectMapper.readTree(DOCUMENT);
+		Random random = new Random(42);
+
+		for (int round = 0; round < 500; round++) {
+			Map<String, String> values = feedAll(chunk(DOCUMENT, random));
+
+			assertThat(values.get("title")).isEqualTo(parsed.get("title").asText());
+			assertThat(values.get("content")).isEqualTo(parsed.get("content").asText());
+		}
+	}
+
+	@Test
+	void codeFenceAndQuotedPreambleAreIgnored() throws Exception {
+		JsonNode parsed = objectMapper.readTree(DOCUMENT);
+		String response = "응답: \"title\": \"아님\"\n```json\n" + DOCUMENT + "\n```";
+
+		Map<String, String> values = feedAll(chunk(response, new Random(7)));
+
+		assertThat(values.get("title")).isEqualTo(parsed.get("title").asText());
+		assertThat(values.get("content")).isEqualTo(parsed.get("content").asText());
+	}
+
+	@Test
+	void unicodeEscapeSplitAcrossChunks() {
+		Map<String, String> values = feedAll(List.of(
+				"{\"title\": \"a\\u00", "e9b\\", "nc\\uD8", "3D\\u", "DC36\"}"));
+
+		assertThat(values.get("title")).isEqualTo("aéb\nc🐶");
+	}
+
+	@Test
+	void onlyTopLevelTargetValuesAreEmitted() {
+		Map<String, String> values = feedAll(List.of(
+				"{\"meta\": {\"title\": \"중첩\"}, \"list\": [\"title\", {\"content\": \"배열\"}], \"content\": \"본문\"}"));
+
+		assertThat(values).containsOnlyKeys("content");
+		assertThat(values.get("content")).isEqualTo("본문");
+	}
+
+	@Test
+	void nonTargetStringValueIsNotTakenAsKey() {
+		Map<String, String> values = feedAll(List.of(
+				"{\"mood\": \"title\", \"weather\": \"content\", \"count\": 1, \"content\": \"본문\"}"));
+
+		assertThat(values).containsOnlyKeys("content");
+		assertThat(values.get("content")).isEqualTo("본문");
+	}
+
+	// 1~8자 임의 길이 조각으로 분할 (이스케이프/유니코드 시퀀스 중간에서도 끊김)
+	private static List<String> chunk(String text, Random random) {
+		List<String> chunks = new ArrayList<>();
+		int index = 0;
+		while (index < text.length()) {
+			int end = Math.min(text.length(), index + 1 + random.nextInt(8));
+			chunks.add(text.substring(index, end));
+			index = end;
+		}
+		return chunks;
+	}
+
+	private static Map<String, String> feedAll(List<String> chunks) {
+		StreamingJsonFieldExtractor extractor = new StreamingJsonFieldExtractor(FIELDS);
+		Map<String, String> values = new HashMap<>();
+		for (String chunk : chunks) {
+			extractor.feed(chunk).forEach((field, delta) -> values.merge(field, delta, String::concat));
+		}
+		return values;
+	}
+}